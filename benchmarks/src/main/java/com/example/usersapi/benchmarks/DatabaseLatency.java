@@ -0,0 +1,59 @@
+package com.example.usersapi.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Delays every statement execution by {@link #setLatencyMillis} while the connection is held, so that in-memory H2 behaves like a database across a network. Request threads then
+ * spend their time blocked on JDBC, which is the situation virtual threads are meant for.
+ * Registered explicitly by {@link LoadTest}; it is not a component.
+ */
+public class DatabaseLatency {
+    private static volatile long latencyMillis;
+
+    public static void setLatencyMillis(long latencyMillis) {
+        DatabaseLatency.latencyMillis = latencyMillis;
+    }
+
+    @Bean
+    static BeanPostProcessor databaseLatencyPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource ? proxy(DataSource.class, bean) : bean;
+            }
+        };
+    }
+
+    private static <T> T proxy(Class<T> type, Object target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            long delay = latencyMillis;
+            if (delay > 0 && target instanceof Statement
+                    && method.getName().startsWith("execute")) {
+                Thread.sleep(delay);
+            }
+            Object result = invoke(method, target, args);
+            Class<?> returnType = method.getReturnType();
+            boolean wrap = returnType == Connection.class
+                    || Statement.class.isAssignableFrom(returnType);
+            return wrap && result != null ? proxy(returnType, result) : result;
+        };
+        return type.cast(Proxy.newProxyInstance(
+                DatabaseLatency.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.usersapi.benchmarks;
+
+import com.example.usersapi.dto.UserResponseDto;
+import com.example.usersapi.dto.UserResponseDtoWrapper;
+import com.example.usersapi.mapper.UserMapper;
+import com.example.usersapi.mapper.impl.UserMapperImpl;
+import com.example.usersapi.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serializes the search response body the same way the controller does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+    @Param({"10", "1000"})
+    private int users;
+    private ObjectWriter writer;
+    private UserResponseDtoWrapper<List<UserResponseDto>> response;
+
+    @Setup
+    public void setUp() {
+        UserMapper userMapper = new UserMapperImpl();
+        UserDataGenerator generator = new UserDataGenerator(UserDataGenerator.DEFAULT_SEED);
+        List<UserResponseDto> data = new ArrayList<>(users);
+        for (long id = 1; id <= users; id++) {
+            User user = userMapper.toModel(generator.next());
+            user.setId(id);
+            data.add(userMapper.toDto(user));
+        }
+        response = new UserResponseDtoWrapper<>(data);
+        writer = new ObjectMapper().writer();
+    }
+
+    @Benchmark
+    public byte[] serializeSearchResponse() throws JsonProcessingException {
+        return writer.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.usersapi.benchmarks;
+
+import com.example.usersapi.UsersApiApplication;
+import com.example.usersapi.util.DateCodec;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Starts the API in-process with simulated database latency and drives paged birth-date
+ * searches from a fixed number of concurrent clients, then prints throughput and latency.
+ * Run it once with {@code threads=platform} and once with {@code threads=virtual} (Java 21)
+ * to compare request execution modes, or with {@code stack=reactive} to run the WebFlux and
+ * R2DBC variant on the same workload. Simulated latency only applies to the JDBC stack.
+ *
+ * <p>Options, as {@code key=value} arguments: {@code stack} (servlet), {@code threads}
+ * (platform), {@code clients}
+ * (400), {@code duration} seconds (30), {@code latency} ms per statement (20),
+ * {@code pool} connections (100), {@code tomcat-threads} (200), {@code users} (10000).
+ */
+public final class LoadTest {
+    private static final String DATABASE_URL = "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1";
+    private static final String SEARCH_URL =
+            "http://localhost:%s/api/users/search?fromDate=%s&toDate=%s&size=20";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "true");
+        }
+        boolean reactive = "reactive".equals(options.getOrDefault("stack", "servlet"));
+        boolean virtual = "virtual".equals(options.getOrDefault("threads", "platform"));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "400"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int pool = Integer.parseInt(options.getOrDefault("pool", "100"));
+        if (virtual && Runtime.version().feature() < 21) {
+            System.err.println("Virtual threads need Java 21, running on " + Runtime.version());
+            System.exit(1);
+        }
+
+        SpringApplication application = new SpringApplication(
+                UsersApiApplication.class, DatabaseLatency.class);
+        try (ConfigurableApplicationContext context = application.run(
+                "--server.port=0",
+                "--spring.profiles.active=" + (reactive ? "reactive" : "default"),
+                "--spring.datasource.url=" + DATABASE_URL,
+                "--spring.r2dbc.url=r2dbc:h2:mem:///loadtest",
+                "--spring.datasource.hikari.maximum-pool-size=" + pool,
+                "--spring.datasource.hikari.minimum-idle=" + pool,
+                "--spring.r2dbc.pool.max-size=" + pool,
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--server.tomcat.threads.max=" + options.getOrDefault("tomcat-threads", "200"),
+                // All clients share one address, and the run measures the server, not the limits
+                "--user.admission.enabled=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN")) {
+            DataSource seedDataSource = new DriverManagerDataSource(DATABASE_URL, "sa", "password");
+            new UserDataGenerator(UserDataGenerator.DEFAULT_SEED).insert(
+                    new JdbcTemplate(seedDataSource),
+                    Integer.parseInt(options.getOrDefault("users", "10000")));
+            // Latency is switched on after seeding so that only requests pay for it
+            DatabaseLatency.setLatencyMillis(
+                    Long.parseLong(options.getOrDefault("latency", "20")));
+            String port = context.getEnvironment().getProperty("local.server.port");
+            run(port, reactive ? "reactive" : virtual ? "virtual" : "platform",
+                    clients, durationSeconds, pool);
+        }
+    }
+
+    private static void run(String port, String mode, int clients, int durationSeconds,
+                            int pool) throws InterruptedException {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        long[][] latencies = new long[clients][];
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        for (int i = 0; i < clients; i++) {
+            int client = i;
+            executor.execute(() -> latencies[client] = runClient(
+                    httpClient, port, client, deadline, errors));
+        }
+        executor.shutdown();
+        executor.awaitTermination(durationSeconds + 60L, TimeUnit.SECONDS);
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("mode=%s clients=%d pool=%d requests=%d errors=%d "
+                        + "throughput=%.1f req/s p50=%.1f ms p99=%.1f ms%n",
+                mode, clients, pool, all.length, errors.get(),
+                all.length / (double) durationSeconds,
+                percentile(all, 0.50) / 1e6, percentile(all, 0.99) / 1e6);
+    }
+
+    private static long[] runClient(
+            HttpClient httpClient, String port, int client, long deadline, AtomicLong errors) {
+        SplittableRandom random = new SplittableRandom(client);
+        long[] latencies = new long[1024];
+        int count = 0;
+        while (System.nanoTime() < deadline) {
+            LocalDate from = UserDataGenerator.FIRST_BIRTH_DATE.plusDays(
+                    random.nextInt(UserDataGenerator.BIRTH_DATE_SPAN_DAYS - 365));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(String.format(SEARCH_URL,
+                    port, DateCodec.format(from), DateCodec.format(from.plusDays(365)))))
+                    .build();
+            long start = System.nanoTime();
+            try {
+                int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding())
+                        .statusCode();
+                if (status != 200) {
+                    errors.incrementAndGet();
+                }
+            } catch (Exception e) {
+                errors.incrementAndGet();
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - start;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(
+                sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.usersapi.benchmarks;
+
+import com.example.usersapi.dto.CreateUserRequestDto;
+import com.example.usersapi.dto.UserResponseDto;
+import com.example.usersapi.mapper.UserMapper;
+import com.example.usersapi.mapper.impl.UserMapperImpl;
+import com.example.usersapi.model.User;
+import com.example.usersapi.model.UserView;
+import com.example.usersapi.util.DateCodec;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private final UserMapper userMapper = new UserMapperImpl();
+    private CreateUserRequestDto requestDto;
+    private User user;
+    private UserView view;
+
+    @Setup
+    public void setUp() {
+        requestDto = new UserDataGenerator(UserDataGenerator.DEFAULT_SEED).next();
+        user = userMapper.toModel(requestDto);
+        user.setId(1L);
+        view = new UserView(1L, user.getEmail(), user.getFirstName(), user.getLastName(),
+                DateCodec.parse(requestDto.birthDate()), user.getAddress(),
+                user.getPhoneNumber());
+    }
+
+    @Benchmark
+    public User toModel() {
+        return userMapper.toModel(requestDto);
+    }
+
+    @Benchmark
+    public UserResponseDto toDtoFromUser() {
+        return userMapper.toDto(user);
+    }
+
+    @Benchmark
+    public UserResponseDto toDtoFromView() {
+        return userMapper.toDto(view);
+    }
+}
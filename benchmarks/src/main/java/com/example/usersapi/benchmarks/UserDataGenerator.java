@@ -0,0 +1,123 @@
+package com.example.usersapi.benchmarks;
+
+import com.example.usersapi.dto.CreateUserRequestDto;
+import com.example.usersapi.util.CsvFormat;
+import com.example.usersapi.util.DateCodec;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Generates the same users for the same seed, so that every benchmark run and every machine
+ * measures identical data. Birth dates are spread uniformly between 1950 and 2004 and emails
+ * cycle through a few domains.
+ */
+public final class UserDataGenerator {
+    public static final long DEFAULT_SEED = 20240501L;
+    public static final LocalDate FIRST_BIRTH_DATE = LocalDate.of(1950, 1, 1);
+    public static final int BIRTH_DATE_SPAN_DAYS = 55 * 365;
+    private static final String[] FIRST_NAMES = {"Bob", "Alice", "John", "Maria", "Tim",
+            "Olga", "Pavlo", "Anna", "James", "Sofia", "Liam", "Emma"};
+    private static final String[] LAST_NAMES = {"Jackson", "Smith", "Brown", "Kovalenko",
+            "Garcia", "Miller", "Davis", "Wilson", "Taylor", "Moore"};
+    private static final String[] EMAIL_DOMAINS = {"example.com", "gmail.com", "outlook.com",
+            "yahoo.com", "proton.me", "icloud.com", "ukr.net", "company.org"};
+    private static final String[] STREETS = {"Union Ave", "Main St", "Broadway", "Oak St",
+            "Park Ave", "Maple Dr"};
+    private static final String INSERT_SQL = "INSERT INTO users (id, email, first_name,"
+            + " last_name, birth_date, address, phone_number) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final int INSERT_BATCH_SIZE = 5_000;
+    private final SplittableRandom random;
+    private long sequence;
+
+    public UserDataGenerator(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    public CreateUserRequestDto next() {
+        long n = ++sequence;
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        LocalDate birthDate = FIRST_BIRTH_DATE.plusDays(random.nextInt(BIRTH_DATE_SPAN_DAYS));
+        String address = (1 + random.nextInt(999)) + " "
+                + STREETS[random.nextInt(STREETS.length)] + ", Brooklyn";
+        String phoneNumber = String.format("(%03d) %03d-%04d",
+                random.nextInt(1000), random.nextInt(1000), random.nextInt(10000));
+        return new CreateUserRequestDto(
+                firstName.toLowerCase() + "." + n + "@"
+                        + EMAIL_DOMAINS[(int) (n % EMAIL_DOMAINS.length)],
+                firstName,
+                lastName,
+                DateCodec.format(birthDate),
+                address,
+                phoneNumber);
+    }
+
+    /**
+     * Inserts {@code count} users with ids 1..count through plain JDBC batches and moves the
+     * id sequence past them, which is much faster than going through JPA for large tables.
+     */
+    public void insert(JdbcTemplate jdbcTemplate, int count) {
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            CreateUserRequestDto user = next();
+            batch.add(new Object[]{sequence, user.email(), user.firstName(), user.lastName(),
+                    Date.valueOf(DateCodec.parse(user.birthDate())), user.address(),
+                    user.phoneNumber()});
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+        }
+        jdbcTemplate.execute("ALTER SEQUENCE users_seq RESTART WITH " + (sequence + 50));
+    }
+
+    public void writeCsv(Writer writer, int count) throws IOException {
+        writer.write("email,firstName,lastName,birthDate,address,phoneNumber\n");
+        StringBuilder line = new StringBuilder(128);
+        for (int i = 0; i < count; i++) {
+            CreateUserRequestDto user = next();
+            line.setLength(0);
+            CsvFormat.appendField(line, user.email());
+            line.append(',');
+            CsvFormat.appendField(line, user.firstName());
+            line.append(',');
+            CsvFormat.appendField(line, user.lastName());
+            line.append(',');
+            CsvFormat.appendField(line, user.birthDate());
+            line.append(',');
+            CsvFormat.appendField(line, user.address());
+            line.append(',');
+            CsvFormat.appendField(line, user.phoneNumber());
+            writer.append(line).append('\n');
+        }
+    }
+
+    /**
+     * Writes a CSV file that can be posted to {@code /api/users/import}.
+     * Usage: {@code UserDataGenerator <file> <count> [seed]}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: UserDataGenerator <file> <count> [seed]");
+            System.exit(1);
+        }
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+        try (BufferedWriter writer = Files.newBufferedWriter(
+                Path.of(args[0]), StandardCharsets.UTF_8)) {
+            new UserDataGenerator(seed).writeCsv(writer, Integer.parseInt(args[1]));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.usersapi.benchmarks;
+
+import com.example.usersapi.model.UserView;
+import com.example.usersapi.repository.UserRepository;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Measures the birth-date range search over tables of different sizes. Each invocation
+ * queries a window starting at a random day, so results are not served from one hot range.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class UserRepositoryBenchmark {
+    @Param({"10000", "1000000"})
+    private int rows;
+    @Param({"30", "365"})
+    private int rangeDays;
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("repository-benchmark-" + rows + "-" + rangeDays);
+        new UserDataGenerator(UserDataGenerator.DEFAULT_SEED)
+                .insert(context.getBean(JdbcTemplate.class), rows);
+        userRepository = context.getBean(UserRepository.class);
+        random = new SplittableRandom(UserDataGenerator.DEFAULT_SEED);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<UserView> findByBirthDateBetween() {
+        LocalDate from = UserDataGenerator.FIRST_BIRTH_DATE.plusDays(
+                random.nextInt(UserDataGenerator.BIRTH_DATE_SPAN_DAYS - rangeDays));
+        return userRepository.findByBirthDateBetween(from, from.plusDays(rangeDays));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.usersapi.benchmarks;
+
+import com.example.usersapi.dto.UserPageDto;
+import com.example.usersapi.dto.UserResponseDtoWrapper;
+import com.example.usersapi.dto.UserSearchRequestDto;
+import com.example.usersapi.service.UserService;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Samples the latency of criteria search pages through the service bean, so the reported
+ * percentiles include parsing, the query and mapping. Filters vary between invocations to
+ * keep a single index range from staying hot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class UserSearchBenchmark {
+    private static final String[] LAST_NAME_PREFIXES = {"ja", "smi", "br", "kov", "gar",
+            "mil", "dav", "wil", "tay", "moo"};
+    private static final String[] EMAIL_DOMAINS = {"example.com", "gmail.com", "outlook.com",
+            "yahoo.com", "proton.me", "icloud.com", "ukr.net", "company.org"};
+    private static final String[] STREETS = {"union", "main", "broadway", "oak", "park"};
+    private static final int PAGE_SIZE = 20;
+    @Param("1000000")
+    private int rows;
+    @Param({"lastName", "emailDomain", "phone", "lastNameAndAddress", "domainAndBirthDates"})
+    private String criteria;
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("search-benchmark-" + rows + "-" + criteria);
+        new UserDataGenerator(UserDataGenerator.DEFAULT_SEED)
+                .insert(context.getBean(JdbcTemplate.class), rows);
+        context.getBean(JdbcTemplate.class).execute("ANALYZE");
+        userService = context.getBean(UserService.class);
+        random = new SplittableRandom(UserDataGenerator.DEFAULT_SEED);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserResponseDtoWrapper<UserPageDto> searchByCriteria() {
+        UserSearchRequestDto requestDto = switch (criteria) {
+            case "lastName" -> request(pick(LAST_NAME_PREFIXES), null, null, null, null);
+            case "emailDomain" -> request(null, pick(EMAIL_DOMAINS), null, null, null);
+            case "phone" -> request(null, null, String.format("(%03d) %d",
+                    random.nextInt(1000), random.nextInt(10)), null, null);
+            case "lastNameAndAddress" ->
+                    request(pick(LAST_NAME_PREFIXES), null, null, pick(STREETS), null);
+            case "domainAndBirthDates" -> request(null, pick(EMAIL_DOMAINS), null, null,
+                    String.format("01/01/%d", 1950 + random.nextInt(50)));
+            default -> throw new IllegalStateException("Unknown criteria " + criteria);
+        };
+        return userService.searchByCriteria(requestDto, null, PAGE_SIZE);
+    }
+
+    private UserSearchRequestDto request(String lastName, String emailDomain, String phone,
+                                         String address, String fromDate) {
+        String toDate = fromDate == null
+                ? null
+                : fromDate.substring(0, 6) + (Integer.parseInt(fromDate.substring(6)) + 1);
+        return new UserSearchRequestDto(
+                lastName, emailDomain, phone, address, fromDate, toDate, null);
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
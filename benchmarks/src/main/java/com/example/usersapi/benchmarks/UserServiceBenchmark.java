@@ -0,0 +1,68 @@
+package com.example.usersapi.benchmarks;
+
+import com.example.usersapi.dto.CreateUserRequestDto;
+import com.example.usersapi.dto.UserPatchRequestDto;
+import com.example.usersapi.dto.UserResponseDto;
+import com.example.usersapi.dto.UserResponseDtoWrapper;
+import com.example.usersapi.service.UserService;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Measures single-user writes through the service bean against in-memory H2, including
+ * validation, mapping, the transaction and the cache update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+    private static final int SEEDED_USERS = 10_000;
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserDataGenerator generator;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("service-benchmark");
+        generator = new UserDataGenerator(UserDataGenerator.DEFAULT_SEED);
+        generator.insert(context.getBean(JdbcTemplate.class), SEEDED_USERS);
+        userService = context.getBean(UserService.class);
+        random = new SplittableRandom(UserDataGenerator.DEFAULT_SEED);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserResponseDtoWrapper<UserResponseDto> createUser() {
+        CreateUserRequestDto requestDto = generator.next();
+        return userService.createUser(requestDto);
+    }
+
+    @Benchmark
+    public UserResponseDtoWrapper<UserResponseDto> patchUser() {
+        long userId = 1 + random.nextInt(SEEDED_USERS);
+        UserPatchRequestDto requestDto = new UserPatchRequestDto(
+                null, "Patched" + userId, null, null, null, null);
+        return userService.patchUser(userId, null, requestDto);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.usersapi.benchmarks;
+
+import com.example.usersapi.dto.UserResponseDto;
+import com.example.usersapi.dto.UserResponseDtoWrapper;
+import com.example.usersapi.search.UserTextIndex;
+import com.example.usersapi.service.UserService;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Samples the latency of {@code GET /api/users/find} through the service bean: the Lucene
+ * query plus loading the 20 best users by id. Every query misspells the last name by one
+ * letter, so fuzzy matching is always exercised.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class UserTextSearchBenchmark {
+    private static final String[] FIRST_NAMES = {"Bob", "Alice", "John", "Maria", "Olga"};
+    private static final String[] LAST_NAMES = {"Jackson", "Kovalenko", "Garcia", "Miller",
+            "Wilson"};
+    private static final String[] STREETS = {"Union", "Broadway", "Maple"};
+    private static final int PAGE_SIZE = 20;
+    @Param("1000000")
+    private int rows;
+    @Param({"lastName", "firstAndLastName", "lastNameAndAddress"})
+    private String query;
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("text-search-benchmark-" + rows + "-" + query);
+        new UserDataGenerator(UserDataGenerator.DEFAULT_SEED)
+                .insert(context.getBean(JdbcTemplate.class), rows);
+        // Generated rows bypass the service, so the index is built from the table
+        context.getBean(UserTextIndex.class).rebuild();
+        userService = context.getBean(UserService.class);
+        random = new SplittableRandom(UserDataGenerator.DEFAULT_SEED);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserResponseDtoWrapper<List<UserResponseDto>> searchByText() {
+        String lastName = misspell(pick(LAST_NAMES));
+        String text = switch (query) {
+            case "lastName" -> lastName;
+            case "firstAndLastName" -> pick(FIRST_NAMES) + " " + lastName;
+            case "lastNameAndAddress" ->
+                    lastName + " " + (1 + random.nextInt(999)) + " " + pick(STREETS);
+            default -> throw new IllegalStateException("Unknown query " + query);
+        };
+        return userService.searchByText(text, PAGE_SIZE);
+    }
+
+    private String misspell(String word) {
+        int dropped = 1 + random.nextInt(word.length() - 1);
+        return word.substring(0, dropped) + word.substring(dropped + 1);
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.usersapi.benchmarks;
+
+import com.example.usersapi.dto.UserResponseDto;
+import com.example.usersapi.dto.UserResponseDtoWrapper;
+import com.example.usersapi.mapper.UserMapper;
+import com.example.usersapi.mapper.impl.UserMapperImpl;
+import com.example.usersapi.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serializes a 10k-user search response in each wire format the API negotiates. The payload
+ * size, raw and gzipped, is printed once per trial, since it does not change between
+ * invocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+    @Param({"json", "smile", "cbor"})
+    private String format;
+    @Param("10000")
+    private int users;
+    private ObjectWriter writer;
+    private UserResponseDtoWrapper<List<UserResponseDto>> response;
+
+    @Setup
+    public void setUp() throws Exception {
+        UserMapper userMapper = new UserMapperImpl();
+        UserDataGenerator generator = new UserDataGenerator(UserDataGenerator.DEFAULT_SEED);
+        List<UserResponseDto> data = new ArrayList<>(users);
+        for (long id = 1; id <= users; id++) {
+            User user = userMapper.toModel(generator.next());
+            user.setId(id);
+            user.setVersion(0L);
+            data.add(userMapper.toDto(user));
+        }
+        response = new UserResponseDtoWrapper<>(data);
+        ObjectMapper mapper = switch (format) {
+            case "json" -> new ObjectMapper();
+            case "smile" -> new SmileMapper();
+            case "cbor" -> new CBORMapper();
+            default -> throw new IllegalStateException("Unknown format " + format);
+        };
+        writer = mapper.writer();
+        byte[] payload = serializeSearchResponse();
+        System.out.printf("%n%s payload: %d bytes, %d bytes gzipped%n",
+                format, payload.length, gzippedSize(payload));
+    }
+
+    @Benchmark
+    public byte[] serializeSearchResponse() throws JsonProcessingException {
+        return writer.writeValueAsBytes(response);
+    }
+
+    private int gzippedSize(byte[] payload) throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(payload);
+        }
+        return buffer.size();
+    }
+}
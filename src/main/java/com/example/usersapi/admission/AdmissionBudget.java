@@ -0,0 +1,32 @@
+package com.example.usersapi.admission;
+
+/**
+ * Routes that share a rate limit and a concurrency limit. Writes, searches and exports have
+ * budgets of their own, so a burst of searches cannot starve writes and the other way round,
+ * and exports, which scan and stream a whole date range, neither wait behind searches nor
+ * stretch the latencies their limit adapts to. Reads of single users and the change feed are
+ * cheap or long-lived and are not admission controlled.
+ */
+public enum AdmissionBudget {
+    WRITE,
+    SEARCH,
+    EXPORT;
+
+    private static final String PREFIX = "/api/users";
+
+    /**
+     * Returns the budget of a request, or {@code null} when it is always admitted.
+     */
+    public static AdmissionBudget of(String method, String path) {
+        if (path.startsWith(PREFIX + "/search") || path.equals(PREFIX + "/find")) {
+            return SEARCH;
+        }
+        if (path.equals(PREFIX + "/export")) {
+            return EXPORT;
+        }
+        return switch (method) {
+            case "POST", "PUT", "PATCH", "DELETE" -> WRITE;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.usersapi.admission;
+
+import com.example.usersapi.exception.RateLimitExceededException;
+import com.example.usersapi.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Admits requests to the user routes before the controller runs, so that overload is shed
+ * before it reaches the connection pool. A request first takes a token from its client's
+ * bucket for the route's budget and is answered with 429 when the bucket is empty; it then
+ * takes a permit from the budget's adaptive concurrency limit and is answered with 503 when
+ * the limit is reached.
+ *
+ * <p>Clients are told apart by their {@code X-API-Key} header when it holds one of the keys
+ * in {@code user.admission.api-keys}, and by their address otherwise, so that inventing keys
+ * does not refill a bucket. Behind a proxy, every client has the proxy's address unless
+ * {@code server.forward-headers-strategy} is set to take it from the forwarded headers.
+ */
+@Component
+@Profile("!reactive")
+public class AdmissionControlInterceptor implements HandlerInterceptor, MeterBinder {
+    public static final String API_KEY_HEADER = "X-API-Key";
+    public static final String REQUESTS = "users.admission.requests";
+    public static final String CONCURRENCY_LIMIT = "users.admission.concurrency.limit";
+    public static final String IN_FLIGHT = "users.admission.concurrency.in_flight";
+    private static final String PERMIT = AdmissionControlInterceptor.class.getName() + ".PERMIT";
+    private final boolean enabled;
+    private final Set<String> apiKeys;
+    private final ClientTokenBuckets clientTokenBuckets;
+    private final Map<AdmissionBudget, GradientConcurrencyLimiter> limiters =
+            new EnumMap<>(AdmissionBudget.class);
+    private final Map<AdmissionBudget, Map<Outcome, Counter>> counters =
+            new EnumMap<>(AdmissionBudget.class);
+
+    public AdmissionControlInterceptor(
+            @Value("${user.admission.enabled}") boolean enabled,
+            @Value("${user.admission.write.rate}") double writeRate,
+            @Value("${user.admission.write.burst}") int writeBurst,
+            @Value("${user.admission.search.rate}") double searchRate,
+            @Value("${user.admission.search.burst}") int searchBurst,
+            @Value("${user.admission.export.rate}") double exportRate,
+            @Value("${user.admission.export.burst}") int exportBurst,
+            @Value("${user.admission.concurrency.initial-limit}") int initialLimit,
+            @Value("${user.admission.concurrency.min-limit}") int minLimit,
+            @Value("${user.admission.concurrency.max-limit}") int maxLimit,
+            @Value("${user.admission.max-clients}") long maxClients,
+            @Value("${user.admission.api-keys}") Set<String> apiKeys
+    ) {
+        this.enabled = enabled;
+        this.apiKeys = Set.copyOf(apiKeys);
+        this.clientTokenBuckets = new ClientTokenBuckets(Map.of(
+                AdmissionBudget.WRITE, new ClientTokenBuckets.Rate(writeRate, writeBurst),
+                AdmissionBudget.SEARCH, new ClientTokenBuckets.Rate(searchRate, searchBurst),
+                AdmissionBudget.EXPORT, new ClientTokenBuckets.Rate(exportRate, exportBurst)),
+                maxClients);
+        for (AdmissionBudget budget : AdmissionBudget.values()) {
+            limiters.put(budget, new GradientConcurrencyLimiter(initialLimit, minLimit, maxLimit));
+        }
+    }
+
+    @Override
+    public boolean preHandle(
+            HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!enabled) {
+            return true;
+        }
+        AdmissionBudget budget = AdmissionBudget.of(request.getMethod(),
+                request.getRequestURI().substring(request.getContextPath().length()));
+        if (budget == null) {
+            return true;
+        }
+        long wait = clientTokenBuckets.tryAcquire(client(request), budget);
+        if (wait > 0) {
+            count(budget, Outcome.THROTTLED);
+            throw new RateLimitExceededException("Too many " + name(budget)
+                    + " requests from this client", Duration.ofNanos(wait));
+        }
+        GradientConcurrencyLimiter limiter = limiters.get(budget);
+        if (!limiter.tryAcquire()) {
+            count(budget, Outcome.SHED);
+            throw new ServiceOverloadedException("Too many concurrent " + name(budget)
+                    + " requests, the limit is " + limiter.limit());
+        }
+        count(budget, Outcome.ADMITTED);
+        request.setAttribute(PERMIT, new Permit(limiter, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(
+            HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        if (request.getAttribute(PERMIT) instanceof Permit permit) {
+            request.removeAttribute(PERMIT);
+            permit.limiter().release(System.nanoTime() - permit.startedAt());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (AdmissionBudget budget : AdmissionBudget.values()) {
+            GradientConcurrencyLimiter limiter = limiters.get(budget);
+            Gauge.builder(CONCURRENCY_LIMIT, limiter, GradientConcurrencyLimiter::limit)
+                    .tag("budget", name(budget))
+                    .register(registry);
+            Gauge.builder(IN_FLIGHT, limiter, GradientConcurrencyLimiter::inFlight)
+                    .tag("budget", name(budget))
+                    .register(registry);
+            Map<Outcome, Counter> outcomes = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                outcomes.put(outcome, Counter.builder(REQUESTS)
+                        .tag("budget", name(budget))
+                        .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                        .register(registry));
+            }
+            counters.put(budget, outcomes);
+        }
+    }
+
+    private void count(AdmissionBudget budget, Outcome outcome) {
+        Map<Outcome, Counter> outcomes = counters.get(budget);
+        if (outcomes != null) {
+            outcomes.get(outcome).increment();
+        }
+    }
+
+    private String client(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        return apiKey != null && apiKeys.contains(apiKey)
+                ? "key:" + apiKey
+                : request.getRemoteAddr();
+    }
+
+    private static String name(AdmissionBudget budget) {
+        return budget.name().toLowerCase(Locale.ROOT);
+    }
+
+    private enum Outcome {
+        ADMITTED,
+        THROTTLED,
+        SHED
+    }
+
+    private record Permit(GradientConcurrencyLimiter limiter, long startedAt) {
+    }
+}
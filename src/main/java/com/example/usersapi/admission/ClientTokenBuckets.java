@@ -0,0 +1,64 @@
+package com.example.usersapi.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token buckets of every client, one per budget. A bucket is kept as the time at which it
+ * would be empty again if no more tokens were taken (the generic cell rate algorithm), so
+ * taking a token is one compare-and-set on a long and clients never contend with each other.
+ * A bucket left alone long enough to refill completely is forgotten, since a new one is full
+ * as well.
+ */
+public class ClientTokenBuckets {
+    private final long[] intervalNanos = new long[AdmissionBudget.values().length];
+    private final long[] capacityNanos = new long[AdmissionBudget.values().length];
+    private final Cache<String, AtomicLongArray> clients;
+    // Relative to construction, so that a new bucket starting at 0 is full
+    private final long origin = System.nanoTime();
+
+    public ClientTokenBuckets(Map<AdmissionBudget, Rate> rates, long maxClients) {
+        long refill = 0;
+        for (Map.Entry<AdmissionBudget, Rate> rate : rates.entrySet()) {
+            int index = rate.getKey().ordinal();
+            intervalNanos[index] = (long) (1_000_000_000 / rate.getValue().permitsPerSecond());
+            capacityNanos[index] = intervalNanos[index] * rate.getValue().burst();
+            refill = Math.max(refill, capacityNanos[index]);
+        }
+        this.clients = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(Math.max(refill, 1)))
+                .build();
+    }
+
+    /**
+     * Takes a token from the client's bucket. Returns 0 when a token was taken, otherwise how
+     * many nanoseconds pass until the next one is available.
+     */
+    public long tryAcquire(String client, AdmissionBudget budget) {
+        int index = budget.ordinal();
+        if (intervalNanos[index] == 0) {
+            return 0;
+        }
+        AtomicLongArray buckets = clients.get(client,
+                key -> new AtomicLongArray(AdmissionBudget.values().length));
+        long now = System.nanoTime() - origin;
+        while (true) {
+            long emptyAt = buckets.get(index);
+            long next = Math.max(emptyAt, now) + intervalNanos[index];
+            long wait = next - now - capacityNanos[index];
+            if (wait > 0) {
+                return wait;
+            }
+            if (buckets.compareAndSet(index, emptyAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public record Rate(double permitsPerSecond, int burst) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.usersapi.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limit that follows latency, after the gradient algorithm of Netflix's
+ * concurrency-limits. Each completed request updates a short and a long moving average of the
+ * response time. While the short average stays at the long one the limit grows by about its
+ * square root; once requests queue up and the short average rises, the limit shrinks by the
+ * ratio of the two, down to half per step. Requests above the limit are rejected at once
+ * instead of queuing for threads and connections.
+ *
+ * <p>All state is kept in atomics and updated with compare-and-set, so the limiter takes no
+ * lock. A limit update lost to a concurrent one is simply redone by the next sample.
+ */
+public class GradientConcurrencyLimiter {
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 600;
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicLong shortRtt = new AtomicLong();
+    private final AtomicLong longRtt = new AtomicLong();
+
+    public GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(
+                Math.max(minLimit, Math.min(maxLimit, initialLimit))));
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the permit of a request that took {@code rttNanos} and adjusts the limit.
+     */
+    public void release(long rttNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        long sample = Math.max(1, rttNanos);
+        long shortAverage = shortRtt.accumulateAndGet(sample,
+                (average, rtt) -> average == 0 ? rtt : average + (rtt - average) / SHORT_WINDOW);
+        long longAverage = longRtt.accumulateAndGet(sample,
+                (average, rtt) -> average == 0 ? rtt : average + (rtt - average) / LONG_WINDOW);
+        if (longAverage > 2 * shortAverage) {
+            // Latency recovered from a long overload, so the long average is let down faster
+            longRtt.compareAndSet(longAverage, longAverage * 95 / 100);
+        }
+        double current = Double.longBitsToDouble(limitBits.get());
+        if (inFlightBefore < current / 2) {
+            // Far below the limit, the response time says nothing about it
+            return;
+        }
+        double gradient = Math.max(MIN_GRADIENT,
+                Math.min(1.0, (double) longAverage / shortAverage));
+        double target = current * gradient + Math.sqrt(current);
+        double next = Math.max(minLimit, Math.min(maxLimit,
+                current * (1 - SMOOTHING) + target * SMOOTHING));
+        limitBits.compareAndSet(Double.doubleToLongBits(current), Double.doubleToLongBits(next));
+    }
+
+    public int limit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
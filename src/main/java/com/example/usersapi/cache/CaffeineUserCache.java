@@ -0,0 +1,62 @@
+package com.example.usersapi.cache;
+
+import com.example.usersapi.dto.UserCacheStatsDto;
+import com.example.usersapi.dto.UserResponseDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CaffeineUserCache implements UserCache, MeterBinder {
+    private final Cache<Long, UserResponseDto> cache;
+
+    public CaffeineUserCache(
+            @Value("${user.cache.maximum-size}") long maximumSize,
+            @Value("${user.cache.ttl}") Duration ttl
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Optional<UserResponseDto> get(Long userId) {
+        return Optional.ofNullable(cache.getIfPresent(userId));
+    }
+
+    @Override
+    public void put(UserResponseDto user) {
+        cache.put(user.getId(), user);
+    }
+
+    @Override
+    public void evict(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    @Override
+    public UserCacheStatsDto stats() {
+        CacheStats stats = cache.stats();
+        UserCacheStatsDto statsDto = new UserCacheStatsDto();
+        statsDto.setSize(cache.estimatedSize());
+        statsDto.setHitCount(stats.hitCount());
+        statsDto.setMissCount(stats.missCount());
+        statsDto.setEvictionCount(stats.evictionCount());
+        statsDto.setHitRate(stats.hitRate());
+        return statsDto;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "users");
+    }
+}
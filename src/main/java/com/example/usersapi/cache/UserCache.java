@@ -0,0 +1,18 @@
+package com.example.usersapi.cache;
+
+import com.example.usersapi.dto.UserCacheStatsDto;
+import com.example.usersapi.dto.UserResponseDto;
+import java.util.Optional;
+
+/**
+ * Read-through cache of single users kept in sync by the service layer on every write.
+ */
+public interface UserCache {
+    Optional<UserResponseDto> get(Long userId);
+
+    void put(UserResponseDto user);
+
+    void evict(Long userId);
+
+    UserCacheStatsDto stats();
+}
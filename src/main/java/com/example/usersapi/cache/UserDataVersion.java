@@ -0,0 +1,77 @@
+package com.example.usersapi.cache;
+
+import com.example.usersapi.event.UserChangedEvent;
+import com.example.usersapi.routing.ReplicaRouting;
+import java.util.concurrent.atomic.AtomicReference;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Version of the users table as a whole, advanced by every committed write. Search results
+ * are tagged with it, so a client polling an unchanged table is answered with 304 before any
+ * query runs. The tag includes the start time of this instance, so tags handed out before a
+ * restart never match.
+ *
+ * <p>The version counts writes committed on the primary. A read served by a lagging replica
+ * may not see them yet, so it is not tagged: a client would otherwise revalidate the stale
+ * result with 304 until the next write.
+ */
+@Component
+@Profile("!reactive")
+public class UserDataVersion {
+    private static final long MILLIS_PER_SECOND = 1000;
+    private final boolean replicas;
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicReference<Snapshot> current =
+            new AtomicReference<>(snapshot(0, nextSecond(System.currentTimeMillis())));
+
+    public UserDataVersion(@Value("${user.replicas.enabled}") boolean replicas) {
+        this.replicas = replicas;
+    }
+
+    /**
+     * Must be read before the query it tags: a write committed while the query runs then
+     * leads to one needless full response instead of a stale result cached forever.
+     */
+    public Snapshot current() {
+        return current.get();
+    }
+
+    /**
+     * Whether reads on the current thread see every write counted by {@link #current()}, so
+     * that their results may be tagged with it.
+     */
+    public boolean tagsReads() {
+        return !replicas || ReplicaRouting.isPrimaryRequired();
+    }
+
+    /**
+     * Last-Modified only has whole seconds, so a write is dated by the end of its second: a
+     * response sent earlier in that second then carries an older date. Writes within one
+     * second share the date and are told apart by the entity tag alone, which keeps the date
+     * from running ahead of the clock under sustained writes.
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        long now = System.currentTimeMillis();
+        current.updateAndGet(snapshot -> snapshot(snapshot.version() + 1,
+                Math.max(nextSecond(now), snapshot.lastModified())));
+    }
+
+    private static long nextSecond(long millis) {
+        return (millis + MILLIS_PER_SECOND - 1) / MILLIS_PER_SECOND * MILLIS_PER_SECOND;
+    }
+
+    private Snapshot snapshot(long version, long lastModified) {
+        return new Snapshot(version, "W/\"" + epoch + "-" + version + "\"", lastModified);
+    }
+
+    /**
+     * The results of a search are equivalent, not byte-identical, across wire formats, hence
+     * the weak entity tag.
+     */
+    public record Snapshot(long version, String entityTag, long lastModified) {
+    }
+}
@@ -0,0 +1,342 @@
+package com.example.usersapi.changelog;
+
+import com.example.usersapi.dto.UserChangeDto;
+import com.example.usersapi.event.UserChangedEvent;
+import com.example.usersapi.exception.ChangesExpiredException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Change log stored in memory-mapped segment files named after the offset of their first
+ * change. A change is a record of its length, its offset and its JSON; the length is written
+ * last, so a record torn by a crash reads as the end of the segment. When a change does not
+ * fit into the current segment, a new one is started and segments beyond
+ * {@code user.change-log.retained-segments} are deleted, oldest first.
+ *
+ * <p>Appends are serialized; readers share the mapped segments without locking and only read
+ * changes below the published next offset. Writes reach the page cache, so they survive a
+ * crash of the process but not of the machine.
+ *
+ * <p>Offsets only make sense together with the database the changes were made in. With a
+ * blank {@code user.change-log.directory}, the log lives in a temporary directory deleted on
+ * shutdown, like the in-memory database; a configured directory must belong to one
+ * persistent database. The directory is locked while open, so a second instance pointed at
+ * it fails to start instead of overwriting changes.
+ */
+@Component
+@Profile("!reactive")
+public class MappedUserChangeLog implements UserChangeLog, DisposableBean {
+    private static final String SUFFIX = ".log";
+    private static final String LOCK = "change-log.lock";
+    private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final boolean temporary;
+    private final FileChannel lockChannel;
+    private final int segmentSize;
+    private final int retainedSegments;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private volatile long nextOffset;
+
+    public MappedUserChangeLog(
+            ObjectMapper objectMapper,
+            @Value("${user.change-log.directory}") String directory,
+            @Value("${user.change-log.segment-size}") DataSize segmentSize,
+            @Value("${user.change-log.retained-segments}") int retainedSegments
+    ) {
+        this.objectMapper = objectMapper;
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.retainedSegments = Math.max(1, retainedSegments);
+        this.temporary = !StringUtils.hasText(directory);
+        try {
+            this.directory = temporary
+                    ? Files.createTempDirectory("user-change-log")
+                    : Files.createDirectories(Path.of(directory));
+            this.lockChannel = lock(this.directory);
+            try (Stream<Path> files = Files.list(this.directory)) {
+                for (Path file : files.filter(path -> path.toString().endsWith(SUFFIX))
+                        .sorted()
+                        .toList()) {
+                    segments.add(Segment.recover(file));
+                }
+            }
+            if (segments.isEmpty()) {
+                segments.add(Segment.create(this.directory, 0, this.segmentSize));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open user change log", e);
+        }
+        nextOffset = segments.get(segments.size() - 1).nextOffset;
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        UserChangeDto change = new UserChangeDto();
+        change.setUserId(event.userId());
+        change.setTimestamp(Instant.now());
+        change.setType(event.type());
+        change.setUser(event.user());
+        append(change);
+    }
+
+    /**
+     * Assigns the next offset to the change, stores it and wakes up waiting cursors.
+     */
+    public synchronized long append(UserChangeDto change) {
+        long offset = nextOffset;
+        change.setOffset(offset);
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(change);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize user change " + offset, e);
+        }
+        Segment segment = segments.get(segments.size() - 1);
+        if (!segment.fits(json.length)) {
+            segment = roll(offset, json.length);
+        }
+        segment.write(offset, json);
+        nextOffset = offset + 1;
+        notifyAll();
+        return offset;
+    }
+
+    @Override
+    public Cursor readAfter(long offset) {
+        Segment first = segments.get(0);
+        if (offset >= 0 && offset + 1 < first.baseOffset) {
+            throw new ChangesExpiredException("Changes after offset " + offset
+                    + " were deleted, the oldest retained offset is " + first.baseOffset);
+        }
+        return new MappedCursor(Math.max(offset, first.baseOffset - 1));
+    }
+
+    @Override
+    public long nextOffset() {
+        return nextOffset;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        for (Segment segment : segments) {
+            segment.channel.close();
+        }
+        lockChannel.close();
+        if (temporary) {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private static FileChannel lock(Path directory) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(LOCK),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IllegalStateException("User change log " + directory
+                    + " is used by another instance");
+        }
+        return channel;
+    }
+
+    private Segment roll(long offset, int jsonLength) {
+        try {
+            Segment segment = Segment.create(directory, offset,
+                    Math.max(segmentSize, HEADER_SIZE + jsonLength + Integer.BYTES));
+            segments.add(segment);
+            while (segments.size() > retainedSegments) {
+                Segment oldest = segments.remove(0);
+                // Cursors still reading the segment keep its mapping after the file is gone
+                oldest.channel.close();
+                Files.deleteIfExists(oldest.path);
+            }
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot roll user change log", e);
+        }
+    }
+
+    private synchronized void awaitAfter(long offset, long deadline) throws IOException {
+        long remaining = deadline - System.nanoTime();
+        while (nextOffset <= offset + 1 && remaining > 0) {
+            try {
+                wait(Math.max(1, remaining / 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for user changes", e);
+            }
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+    private Segment segmentAfter(Segment current) {
+        for (Segment segment : segments) {
+            if (segment.baseOffset > current.baseOffset) {
+                return segment;
+            }
+        }
+        return null;
+    }
+
+    private Segment segmentContaining(long offset) {
+        Segment found = segments.get(0);
+        for (Segment segment : segments) {
+            if (segment.baseOffset <= offset) {
+                found = segment;
+            }
+        }
+        return found;
+    }
+
+    private final class MappedCursor implements Cursor {
+        private long lastOffset;
+        private Segment segment;
+        private int position;
+
+        private MappedCursor(long after) {
+            this.lastOffset = after;
+            this.segment = segmentContaining(after + 1);
+            ByteBuffer buffer = segment.buffer.duplicate();
+            // Skips the changes up to and including the offset
+            while (position + HEADER_SIZE <= buffer.capacity()) {
+                int length = buffer.getInt(position);
+                if (length == 0 || buffer.getLong(position + Integer.BYTES) > after) {
+                    break;
+                }
+                position += HEADER_SIZE + length;
+            }
+        }
+
+        @Override
+        public int poll(Duration wait, ChangeConsumer consumer) throws IOException {
+            if (nextOffset <= lastOffset + 1) {
+                awaitAfter(lastOffset, System.nanoTime() + wait.toNanos());
+            }
+            long published = nextOffset;
+            int passed = 0;
+            while (lastOffset + 1 < published) {
+                ByteBuffer buffer = segment.buffer.duplicate();
+                int length = position + HEADER_SIZE <= buffer.capacity()
+                        ? buffer.getInt(position)
+                        : 0;
+                if (length == 0) {
+                    Segment next = segmentAfter(segment);
+                    if (next == null) {
+                        break;
+                    }
+                    if (next.baseOffset != lastOffset + 1) {
+                        throw new ChangesExpiredException("Changes after offset " + lastOffset
+                                + " were deleted while they were read");
+                    }
+                    segment = next;
+                    position = 0;
+                    continue;
+                }
+                long offset = buffer.getLong(position + Integer.BYTES);
+                int start = position + HEADER_SIZE;
+                consumer.accept(offset, buffer.limit(start + length)
+                        .position(start)
+                        .slice()
+                        .asReadOnlyBuffer());
+                lastOffset = offset;
+                position = start + length;
+                passed++;
+            }
+            return passed;
+        }
+
+        @Override
+        public long lastOffset() {
+            return lastOffset;
+        }
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final long baseOffset;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int position;
+        private long nextOffset;
+
+        private Segment(Path path, long baseOffset, FileChannel channel, int size)
+                throws IOException {
+            this.path = path;
+            this.baseOffset = baseOffset;
+            this.channel = channel;
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            this.nextOffset = baseOffset;
+        }
+
+        static Segment create(Path directory, long baseOffset, int size) throws IOException {
+            Path path = directory.resolve(String.format("%020d%s", baseOffset, SUFFIX));
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(path, baseOffset, channel, size);
+        }
+
+        static Segment recover(Path path) throws IOException {
+            String name = path.getFileName().toString();
+            long baseOffset = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Segment segment = new Segment(path, baseOffset, channel,
+                    Math.toIntExact(channel.size()));
+            while (segment.position + HEADER_SIZE <= segment.buffer.capacity()) {
+                int length = segment.buffer.getInt(segment.position);
+                if (length <= 0 || segment.position + HEADER_SIZE + length
+                        > segment.buffer.capacity()) {
+                    break;
+                }
+                segment.nextOffset =
+                        segment.buffer.getLong(segment.position + Integer.BYTES) + 1;
+                segment.position += HEADER_SIZE + length;
+            }
+            return segment;
+        }
+
+        boolean fits(int jsonLength) {
+            return position + HEADER_SIZE + jsonLength <= buffer.capacity();
+        }
+
+        void write(long offset, byte[] json) {
+            buffer.putLong(position + Integer.BYTES, offset);
+            buffer.put(position + HEADER_SIZE, json);
+            buffer.putInt(position, json.length);
+            position += HEADER_SIZE + json.length;
+            nextOffset = offset + 1;
+        }
+    }
+}
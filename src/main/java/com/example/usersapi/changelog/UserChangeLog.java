@@ -0,0 +1,47 @@
+package com.example.usersapi.changelog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+
+/**
+ * Append-only log of user changes. Every change gets the next offset, starting at 0, and is
+ * stored as the JSON of a {@link com.example.usersapi.dto.UserChangeDto}, so consumers are
+ * handed the stored bytes without the log parsing them.
+ */
+public interface UserChangeLog {
+    /**
+     * Opens a cursor reading the changes after {@code offset}, or every retained change when
+     * {@code offset} is negative. Throws
+     * {@link com.example.usersapi.exception.ChangesExpiredException} when changes after the
+     * offset were already deleted.
+     */
+    Cursor readAfter(long offset);
+
+    /**
+     * Offset the next change will get.
+     */
+    long nextOffset();
+
+    interface Cursor {
+        /**
+         * Passes the changes available now to {@code consumer}, or waits up to {@code wait}
+         * for at least one, and returns how many were passed.
+         */
+        int poll(Duration wait, ChangeConsumer consumer) throws IOException;
+
+        /**
+         * Offset of the last change passed to a consumer, or the offset the cursor was
+         * opened after.
+         */
+        long lastOffset();
+    }
+
+    @FunctionalInterface
+    interface ChangeConsumer {
+        /**
+         * Receives a read-only view of the stored JSON, valid only during the call.
+         */
+        void accept(long offset, ByteBuffer json) throws IOException;
+    }
+}
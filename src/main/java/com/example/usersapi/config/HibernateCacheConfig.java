@@ -0,0 +1,78 @@
+package com.example.usersapi.config;
+
+import com.example.usersapi.model.User;
+import com.example.usersapi.repository.UserRepository;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Backs Hibernate's second-level and query caches with Caffeine through JCache. Regions are
+ * created here from {@code user.second-level-cache.*} properties and Hibernate is told to fail
+ * on any other region, so a renamed region cannot silently fall back to an unbounded default.
+ *
+ * <p>With replicas the query cache is off: a search read from a lagging replica right after a
+ * write would be cached as current and served to every client, including the writer.
+ */
+@Configuration
+@Profile("!reactive")
+public class HibernateCacheConfig {
+    private static final String DEFAULT_QUERY_REGION = "default-query-results-region";
+    private static final String TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${user.second-level-cache.entity.maximum-size}") long entityMaximumSize,
+            @Value("${user.second-level-cache.entity.ttl}") Duration entityTtl,
+            @Value("${user.second-level-cache.query.maximum-size}") long queryMaximumSize,
+            @Value("${user.second-level-cache.query.ttl}") Duration queryTtl
+    ) {
+        // Each application context gets its own manager, so contexts never share regions
+        CacheManager cacheManager = Caching
+                .getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("users-api:" + UUID.randomUUID()),
+                        getClass().getClassLoader());
+        cacheManager.createCache(User.CACHE_REGION, region(entityMaximumSize, entityTtl));
+        cacheManager.createCache(UserRepository.BIRTH_DATE_QUERY_REGION,
+                region(queryMaximumSize, queryTtl));
+        cacheManager.createCache(DEFAULT_QUERY_REGION, region(queryMaximumSize, queryTtl));
+        // Update timestamps decide whether cached query results are stale and must never be
+        // evicted before the results they guard
+        cacheManager.createCache(TIMESTAMPS_REGION, new CaffeineConfiguration<>()
+                .setStatisticsEnabled(true));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(
+            CacheManager hibernateCacheManager,
+            @Value("${user.replicas.enabled}") boolean replicas
+    ) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, !replicas);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private CaffeineConfiguration<Object, Object> region(long maximumSize, Duration ttl) {
+        return new CaffeineConfiguration<>()
+                .setMaximumSize(OptionalLong.of(maximumSize))
+                .setExpireAfterWrite(OptionalLong.of(ttl.toNanos()))
+                .setStatisticsEnabled(true);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.usersapi.config;
+
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+
+/**
+ * {@code Cache-Control} of user reads and searches. With the default max-age of zero clients
+ * may store responses but revalidate them on every use, which costs a 304 while the users are
+ * unchanged.
+ */
+@Configuration
+@Profile("!reactive")
+public class HttpCacheConfig {
+    @Bean
+    public CacheControl userCacheControl(
+            @Value("${user.http-cache.max-age}") Duration maxAge,
+            @Value("${user.http-cache.private}") boolean privateCache
+    ) {
+        CacheControl cacheControl = maxAge.isZero()
+                ? CacheControl.noCache()
+                : CacheControl.maxAge(maxAge).mustRevalidate();
+        return privateCache ? cacheControl.cachePrivate() : cacheControl.cachePublic();
+    }
+}
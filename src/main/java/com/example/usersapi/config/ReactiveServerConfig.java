@@ -0,0 +1,19 @@
+package com.example.usersapi.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Serves the reactive profile from Reactor Netty's event loop. Tomcat stays on the classpath
+ * for the servlet stack and Spring Boot would otherwise prefer it as the reactive server too.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveServerConfig {
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.usersapi.config;
+
+import com.example.usersapi.routing.LoadBalancedReplicaDataSource;
+import com.example.usersapi.routing.ReadYourWritesInterceptor;
+import com.zaxxer.hikari.HikariDataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import lombok.RequiredArgsConstructor;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Sends read-only transactions to replicas and everything else to the primary configured by
+ * {@code spring.datasource.*}. Connections are only fetched once a transaction runs its first
+ * statement, when its read-only flag is known, and the flag picks the data source. Replicas
+ * share the credentials and driver of the primary.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "user.replicas.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReplicaRoutingConfig implements WebMvcConfigurer {
+    private final ReadYourWritesInterceptor readYourWritesInterceptor;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        if (StringUtils.hasText(properties.getName())) {
+            dataSource.setPoolName(properties.getName());
+        }
+        return dataSource;
+    }
+
+    @Bean
+    public LoadBalancedReplicaDataSource replicaDataSource(
+            DataSourceProperties properties,
+            HikariDataSource primaryDataSource,
+            @Value("${user.replicas.urls}") List<String> urls,
+            @Value("${user.replicas.pool-size}") int poolSize,
+            @Value("${user.replicas.connection-timeout}") Duration connectionTimeout,
+            @Value("${user.replicas.health-check-interval}") Duration healthCheckInterval
+    ) {
+        List<HikariDataSource> replicas = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .build();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setMaximumPoolSize(poolSize);
+            // A replica that is down is skipped quickly instead of holding up the read
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            replicas.add(replica);
+        }
+        return new LoadBalancedReplicaDataSource(primaryDataSource, replicas, healthCheckInterval);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            HikariDataSource primaryDataSource, LoadBalancedReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource =
+                new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    /**
+     * Migrates the replicas along with the primary, for stand-in replicas that nothing
+     * replicates to, such as a second in-memory database.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "user.replicas.migrate", havingValue = "true")
+    public FlywayMigrationStrategy replicaMigrationStrategy(
+            LoadBalancedReplicaDataSource replicaDataSource) {
+        return flyway -> {
+            flyway.migrate();
+            for (DataSource replica : replicaDataSource.replicas()) {
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(replica)
+                        .load()
+                        .migrate();
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(readYourWritesInterceptor)
+                .addPathPatterns("/api/users/**");
+    }
+}
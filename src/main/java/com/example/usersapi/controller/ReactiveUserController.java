@@ -0,0 +1,130 @@
+package com.example.usersapi.controller;
+
+import com.example.usersapi.dto.CreateUserRequestDto;
+import com.example.usersapi.dto.UserCacheStatsDto;
+import com.example.usersapi.dto.UserPageDto;
+import com.example.usersapi.dto.UserPatchRequestDto;
+import com.example.usersapi.dto.UserResponseDto;
+import com.example.usersapi.dto.UserResponseDtoWrapper;
+import com.example.usersapi.service.ReactiveUserService;
+import com.example.usersapi.util.EntityTags;
+import jakarta.validation.Valid;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link UserController}, active with the "reactive" profile.
+ */
+@RestController
+@Profile("reactive")
+@RequiredArgsConstructor
+@RequestMapping(value = "/api/users")
+public class ReactiveUserController {
+    private final ReactiveUserService userService;
+
+    @GetMapping(value = "/{userId}")
+    public Mono<ResponseEntity<UserResponseDtoWrapper<UserResponseDto>>> getUser(
+            @PathVariable Long userId) {
+        return userService.getUser(userId)
+                .map(user -> withEntityTag(HttpStatus.OK, user));
+    }
+
+    @GetMapping(value = "/by-email")
+    public Mono<ResponseEntity<UserResponseDtoWrapper<UserResponseDto>>> getUserByEmail(
+            @RequestParam String email) {
+        return userService.getUserByEmail(email)
+                .map(user -> withEntityTag(HttpStatus.OK, user));
+    }
+
+    @GetMapping(value = "/cache/stats")
+    public Mono<UserResponseDtoWrapper<UserCacheStatsDto>> getCacheStats() {
+        return userService.getCacheStats();
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<UserResponseDtoWrapper<UserResponseDto>>> addUser(
+            @RequestBody @Valid CreateUserRequestDto requestDto) {
+        return userService.createUser(requestDto)
+                .map(user -> withEntityTag(HttpStatus.CREATED, user));
+    }
+
+    @PatchMapping(value = "/{userId}")
+    public Mono<ResponseEntity<UserResponseDtoWrapper<UserResponseDto>>> patchUser(
+            @PathVariable Long userId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody @Valid UserPatchRequestDto requestDto
+    ) {
+        return userService.patchUser(userId, EntityTags.parseIfMatch(ifMatch), requestDto)
+                .map(user -> withEntityTag(HttpStatus.OK, user));
+    }
+
+    @PutMapping(value = "/{userId}")
+    public Mono<ResponseEntity<UserResponseDtoWrapper<UserResponseDto>>> updateUser(
+            @PathVariable Long userId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody @Valid CreateUserRequestDto requestDto
+    ) {
+        return userService.updateUser(userId, EntityTags.parseIfMatch(ifMatch), requestDto)
+                .map(user -> withEntityTag(HttpStatus.OK, user));
+    }
+
+    @DeleteMapping(value = "/{userId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteUserById(@PathVariable Long userId) {
+        return userService.deleteUser(userId);
+    }
+
+    @GetMapping(value = "/search")
+    public Mono<UserResponseDtoWrapper<List<UserResponseDto>>> searchByBirthDates(
+            @RequestParam String fromDate, @RequestParam String toDate
+    ) {
+        return userService.searchByBirthDates(fromDate, toDate)
+                .collectList()
+                .map(UserResponseDtoWrapper::new);
+    }
+
+    @GetMapping(value = "/search", params = "size")
+    public Mono<UserResponseDtoWrapper<UserPageDto>> searchPageByBirthDates(
+            @RequestParam String fromDate,
+            @RequestParam String toDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam int size
+    ) {
+        return userService.searchByBirthDates(fromDate, toDate, cursor, size);
+    }
+
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserResponseDto> streamByBirthDates(
+            @RequestParam String fromDate, @RequestParam String toDate
+    ) {
+        return userService.searchByBirthDates(fromDate, toDate);
+    }
+
+    private ResponseEntity<UserResponseDtoWrapper<UserResponseDto>> withEntityTag(
+            HttpStatus status, UserResponseDtoWrapper<UserResponseDto> user) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        if (user.getData().getVersion() != null) {
+            response.eTag(EntityTags.format(user.getData().getVersion()));
+        }
+        return response.body(user);
+    }
+}
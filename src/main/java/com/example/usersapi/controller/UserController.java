@@ -1,14 +1,49 @@
 package com.example.usersapi.controller;
 
+import com.example.usersapi.cache.UserDataVersion;
+import com.example.usersapi.changelog.UserChangeLog;
+import com.example.usersapi.dto.BatchItemResultDto;
 import com.example.usersapi.dto.CreateUserRequestDto;
+import com.example.usersapi.dto.ImportJobStatusDto;
+import com.example.usersapi.dto.PendingUserDto;
+import com.example.usersapi.dto.UserBatchPatchRequestDto;
+import com.example.usersapi.dto.UserCacheStatsDto;
+import com.example.usersapi.dto.UserDataFormat;
+import com.example.usersapi.dto.UserPageDto;
 import com.example.usersapi.dto.UserPatchRequestDto;
 import com.example.usersapi.dto.UserResponseDto;
 import com.example.usersapi.dto.UserResponseDtoWrapper;
+import com.example.usersapi.dto.UserSearchRequestDto;
+import com.example.usersapi.service.UserBatchService;
+import com.example.usersapi.service.UserExportService;
+import com.example.usersapi.service.UserImportService;
 import com.example.usersapi.service.UserService;
+import com.example.usersapi.service.UserWriteBehindService;
+import com.example.usersapi.util.EntityTags;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -16,34 +51,161 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
 @RestController
+@Profile("!reactive")
 @RequiredArgsConstructor
 @RequestMapping(value = "/api/users")
 public class UserController {
+    private static final String GZIP = "gzip";
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+    private static final Duration MAX_CHANGES_WAIT = Duration.ofSeconds(60);
+    private static final byte[] EVENT_END = "\n\n".getBytes(StandardCharsets.US_ASCII);
     private final UserService userService;
+    private final UserBatchService userBatchService;
+    private final UserImportService userImportService;
+    private final UserExportService userExportService;
+    private final UserWriteBehindService userWriteBehindService;
+    private final UserChangeLog userChangeLog;
+    private final ObjectMapper objectMapper;
+    private final UserDataVersion userDataVersion;
+    private final CacheControl userCacheControl;
+
+    @GetMapping(value = "/{userId}")
+    public ResponseEntity<UserResponseDtoWrapper<UserResponseDto>> getUser(
+            @PathVariable Long userId) {
+        return withEntityTag(cacheableRead(), userService.getUser(userId));
+    }
+
+    @GetMapping(value = "/by-email")
+    public ResponseEntity<UserResponseDtoWrapper<UserResponseDto>> getUserByEmail(
+            @RequestParam String email) {
+        return withEntityTag(cacheableRead(), userService.getUserByEmail(email));
+    }
+
+    @GetMapping(value = "/cache/stats")
+    public UserResponseDtoWrapper<UserCacheStatsDto> getCacheStats() {
+        return userService.getCacheStats();
+    }
 
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public UserResponseDtoWrapper<UserResponseDto> addUser(
+    public ResponseEntity<UserResponseDtoWrapper<UserResponseDto>> addUser(
             @RequestBody @Valid CreateUserRequestDto requestDto) {
-        return userService.createUser(requestDto);
+        return withEntityTag(ResponseEntity.status(HttpStatus.CREATED),
+                userService.createUser(requestDto));
+    }
+
+    @PostMapping(value = "/async")
+    public ResponseEntity<UserResponseDtoWrapper<PendingUserDto>> addUserAsync(
+            @RequestBody @Valid CreateUserRequestDto requestDto) {
+        UserResponseDtoWrapper<PendingUserDto> pending =
+                userWriteBehindService.enqueueUser(requestDto);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/users/async/" + pending.getData().getTrackingId()))
+                .body(pending);
+    }
+
+    @GetMapping(value = "/async/{trackingId}")
+    public UserResponseDtoWrapper<PendingUserDto> getPendingUser(
+            @PathVariable String trackingId) {
+        return userWriteBehindService.getPendingUser(trackingId);
+    }
+
+    @PostMapping(value = "/batch")
+    public UserResponseDtoWrapper<List<BatchItemResultDto>> addUsers(
+            @RequestBody List<CreateUserRequestDto> requestDtos) {
+        return userBatchService.createUsers(requestDtos);
+    }
+
+    @PatchMapping(value = "/batch")
+    public UserResponseDtoWrapper<List<BatchItemResultDto>> patchUsers(
+            @RequestBody List<UserBatchPatchRequestDto> requestDtos) {
+        return userBatchService.patchUsers(requestDtos);
+    }
+
+    @DeleteMapping(value = "/batch")
+    public UserResponseDtoWrapper<List<BatchItemResultDto>> deleteUsers(
+            @RequestBody List<Long> userIds) {
+        return userBatchService.deleteUsers(userIds);
+    }
+
+    /**
+     * Answers 202 with the job and its location as soon as the import starts, then keeps
+     * reading the body. The outcome is polled from the job rather than sent in the response.
+     */
+    @PostMapping(value = "/import",
+            consumes = {UserDataFormat.TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public void importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body,
+            HttpServletResponse response
+    ) {
+        userImportService.importUsers(body, UserDataFormat.fromMediaType(contentType), job -> {
+            try {
+                response.setStatus(HttpStatus.ACCEPTED.value());
+                response.setHeader(HttpHeaders.LOCATION, "/api/users/import/" + job.getJobId());
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getOutputStream().write(
+                        objectMapper.writeValueAsBytes(new UserResponseDtoWrapper<>(job)));
+                response.flushBuffer();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @GetMapping(value = "/import/{jobId}")
+    public UserResponseDtoWrapper<ImportJobStatusDto> getImportJob(@PathVariable String jobId) {
+        return userImportService.getJob(jobId);
+    }
+
+    @GetMapping(value = "/export")
+    public void exportUsersAsCsv(
+            @RequestParam(required = false) String fromDate,
+            @RequestParam(required = false) String toDate,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+            String acceptEncoding,
+            HttpServletResponse response
+    ) {
+        exportUsers(fromDate, toDate, UserDataFormat.CSV, acceptEncoding, response);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportUsersAsNdjson(
+            @RequestParam(required = false) String fromDate,
+            @RequestParam(required = false) String toDate,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+            String acceptEncoding,
+            HttpServletResponse response
+    ) {
+        exportUsers(fromDate, toDate, UserDataFormat.NDJSON, acceptEncoding, response);
     }
 
     @PatchMapping(value = "/{userId}")
-    public UserResponseDtoWrapper<UserResponseDto> patchUser(
-            @PathVariable Long userId, @RequestBody @Valid UserPatchRequestDto requestDto) {
-        return userService.patchUser(userId, requestDto);
+    public ResponseEntity<UserResponseDtoWrapper<UserResponseDto>> patchUser(
+            @PathVariable Long userId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody @Valid UserPatchRequestDto requestDto
+    ) {
+        return withEntityTag(ResponseEntity.ok(), userService.patchUser(
+                userId, EntityTags.parseIfMatch(ifMatch), requestDto));
     }
 
     @PutMapping(value = "/{userId}")
-    public UserResponseDtoWrapper<UserResponseDto> updateUser(
-            @PathVariable Long userId, @RequestBody @Valid CreateUserRequestDto requestDto) {
-        return userService.updateUser(userId, requestDto);
+    public ResponseEntity<UserResponseDtoWrapper<UserResponseDto>> updateUser(
+            @PathVariable Long userId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody @Valid CreateUserRequestDto requestDto
+    ) {
+        return withEntityTag(ResponseEntity.ok(), userService.updateUser(
+                userId, EntityTags.parseIfMatch(ifMatch), requestDto));
     }
 
     @DeleteMapping(value = "/{userId}")
@@ -54,8 +216,200 @@ public class UserController {
 
     @GetMapping(value = "/search")
     public UserResponseDtoWrapper<List<UserResponseDto>> searchByBirthDates(
-            @RequestParam String fromDate, @RequestParam String toDate
+            @RequestParam String fromDate, @RequestParam String toDate, ServletWebRequest request
     ) {
+        if (notModified(request)) {
+            return null;
+        }
         return userService.searchByBirthDates(fromDate, toDate);
     }
+
+    @GetMapping(value = "/search", params = "size")
+    public UserResponseDtoWrapper<UserPageDto> searchPageByBirthDates(
+            @RequestParam String fromDate,
+            @RequestParam String toDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam int size,
+            ServletWebRequest request
+    ) {
+        if (notModified(request)) {
+            return null;
+        }
+        return userService.searchByBirthDates(fromDate, toDate, cursor, size);
+    }
+
+    @GetMapping(value = "/search/age")
+    public UserResponseDtoWrapper<UserPageDto> searchByAge(
+            @RequestParam int minAge,
+            @RequestParam int maxAge,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        // Ages change at midnight without a write, so the data version cannot tag the result
+        return userService.searchByAge(minAge, maxAge, cursor, size);
+    }
+
+    @GetMapping(value = "/search/birthdays")
+    public UserResponseDtoWrapper<UserPageDto> searchUpcomingBirthdays(
+            @RequestParam(required = false) String fromDate,
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(required = false) Integer age,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size
+    ) {
+        return userService.searchUpcomingBirthdays(fromDate, days, age, cursor, size);
+    }
+
+    @GetMapping(value = "/search/criteria")
+    public UserResponseDtoWrapper<UserPageDto> searchByCriteria(
+            UserSearchRequestDto requestDto,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            ServletWebRequest request
+    ) {
+        if (notModified(request)) {
+            return null;
+        }
+        return userService.searchByCriteria(requestDto, cursor, size);
+    }
+
+    @GetMapping(value = "/find")
+    public UserResponseDtoWrapper<List<UserResponseDto>> searchByText(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int size,
+            ServletWebRequest request
+    ) {
+        if (notModified(request)) {
+            return null;
+        }
+        return userService.searchByText(q, size);
+    }
+
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamByBirthDates(
+            @RequestParam String fromDate,
+            @RequestParam String toDate,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        SequenceWriter writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(response.getOutputStream());
+        userService.streamByBirthDates(fromDate, toDate, user -> {
+            try {
+                writer.write(user);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.close();
+    }
+
+    /**
+     * Streams the changes after {@code since} as server-sent events whose ids are the change
+     * offsets, and ends the response once no change arrived for {@code wait} seconds, so that
+     * it also serves as a long poll. A reconnecting event source resumes from its
+     * {@code Last-Event-ID}; without either, the stream starts with the next change.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public void streamChanges(
+            @RequestParam(required = false) Long since,
+            @RequestHeader(value = LAST_EVENT_ID, required = false) Long lastEventId,
+            @RequestParam(defaultValue = "30") int wait,
+            HttpServletResponse response
+    ) throws IOException {
+        Long after = since != null ? since : lastEventId;
+        // Opened before the response is committed, so an expired offset is answered with 410
+        final UserChangeLog.Cursor cursor = userChangeLog.readAfter(
+                after != null ? after : userChangeLog.nextOffset() - 1);
+        Duration idle = Duration.ofSeconds(Math.max(0, wait));
+        if (idle.compareTo(MAX_CHANGES_WAIT) > 0) {
+            idle = MAX_CHANGES_WAIT;
+        }
+        response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        response.flushBuffer();
+        while (cursor.poll(idle, (offset, json) -> {
+            write(out, ByteBuffer.wrap(("id: " + offset + "\ndata: ")
+                    .getBytes(StandardCharsets.US_ASCII)));
+            write(out, json);
+            write(out, ByteBuffer.wrap(EVENT_END));
+        }) > 0) {
+            response.flushBuffer();
+        }
+    }
+
+    private ResponseEntity<UserResponseDtoWrapper<UserResponseDto>> withEntityTag(
+            ResponseEntity.BodyBuilder response, UserResponseDtoWrapper<UserResponseDto> user) {
+        if (user.getData().getVersion() != null) {
+            response.eTag(EntityTags.format(user.getData().getVersion()));
+        }
+        return response.body(user);
+    }
+
+    /**
+     * Spring answers a read whose entity tag matches If-None-Match with 304 and no body.
+     */
+    private ResponseEntity.BodyBuilder cacheableRead() {
+        return ResponseEntity.ok()
+                .cacheControl(userCacheControl)
+                .varyBy(HttpHeaders.ACCEPT);
+    }
+
+    /**
+     * Answers a search with 304 when the users are unchanged since the tag or date the client
+     * holds, before the search runs. Otherwise the tag and date of the current data version
+     * are sent with the results. Searches that may be served by a replica are sent untagged.
+     */
+    private boolean notModified(ServletWebRequest request) {
+        final UserDataVersion.Snapshot version = userDataVersion.current();
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL,
+                userCacheControl.getHeaderValue());
+        request.getResponse().setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (!userDataVersion.tagsReads()) {
+            return false;
+        }
+        return request.checkNotModified(version.entityTag(), version.lastModified());
+    }
+
+    private void exportUsers(
+            String fromDate,
+            String toDate,
+            UserDataFormat format,
+            String acceptEncoding,
+            HttpServletResponse response
+    ) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains(GZIP);
+        // Headers are only set once the service has validated the request, so that errors
+        // are still rendered as plain JSON by the exception handler
+        userExportService.exportUsers(fromDate, toDate, format, () -> {
+            try {
+                response.setContentType(format == UserDataFormat.NDJSON
+                        ? MediaType.APPLICATION_NDJSON_VALUE
+                        : UserDataFormat.TEXT_CSV_VALUE + ";charset=UTF-8");
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition
+                        .attachment()
+                        .filename(format == UserDataFormat.NDJSON ? "users.ndjson" : "users.csv")
+                        .build()
+                        .toString());
+                if (!gzip) {
+                    return response.getOutputStream();
+                }
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                return new GZIPOutputStream(response.getOutputStream(), GZIP_BUFFER_SIZE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static void write(WritableByteChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
 }
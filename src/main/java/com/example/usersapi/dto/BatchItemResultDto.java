@@ -0,0 +1,13 @@
+package com.example.usersapi.dto;
+
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class BatchItemResultDto {
+    private int index;
+    private Long id;
+    private boolean success;
+    private UserResponseDto user;
+    private List<String> errors;
+}
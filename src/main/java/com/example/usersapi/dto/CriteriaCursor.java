@@ -0,0 +1,59 @@
+package com.example.usersapi.dto;
+
+import com.example.usersapi.exception.InvalidCursorException;
+import com.example.usersapi.exception.InvalidSearchException;
+import com.example.usersapi.model.UserSortField;
+import com.example.usersapi.model.UserView;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Opaque keyset position of the last row returned by a criteria search: the value of the sort
+ * property, as compared by the database, and the id. A cursor only continues the order it was
+ * issued for.
+ */
+public record CriteriaCursor(UserSortField sort, String value, Long id) {
+    private static final char SEPARATOR = ':';
+
+    public static CriteriaCursor after(UserSortField sort, UserView user) {
+        String value = switch (sort) {
+            case ID -> "";
+            case LAST_NAME -> user.lastName().toLowerCase(Locale.ROOT);
+            case EMAIL -> user.email().toLowerCase(Locale.ROOT);
+            case BIRTH_DATE -> user.birthDate().toString();
+        };
+        return new CriteriaCursor(sort, value, user.id());
+    }
+
+    public String encode() {
+        String raw = sort.getProperty() + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CriteriaCursor decode(String token, UserSortField expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = raw.indexOf(SEPARATOR);
+            int last = raw.lastIndexOf(SEPARATOR);
+            if (first < 0 || first == last) {
+                throw new InvalidCursorException("Malformed cursor " + token);
+            }
+            UserSortField sort = UserSortField.fromProperty(raw.substring(0, first));
+            if (sort != expectedSort) {
+                throw new InvalidCursorException("Cursor " + token
+                        + " does not continue a search sorted by " + expectedSort.getProperty());
+            }
+            String value = raw.substring(first + 1, last);
+            if (sort == UserSortField.BIRTH_DATE) {
+                LocalDate.parse(value);
+            }
+            return new CriteriaCursor(sort, value, Long.parseLong(raw.substring(last + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | InvalidSearchException e) {
+            throw new InvalidCursorException("Malformed cursor " + token);
+        }
+    }
+}
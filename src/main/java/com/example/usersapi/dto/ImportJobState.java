@@ -0,0 +1,7 @@
+package com.example.usersapi.dto;
+
+public enum ImportJobState {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,19 @@
+package com.example.usersapi.dto;
+
+import java.time.Instant;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class ImportJobStatusDto {
+    private String jobId;
+    private ImportJobState state;
+    private String failure;
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsRejected;
+    private double rowsPerSecond;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private List<ImportRejectionDto> rejections;
+}
@@ -0,0 +1,9 @@
+package com.example.usersapi.dto;
+
+import java.util.List;
+
+public record ImportRejectionDto(
+        long line,
+        List<String> errors
+) {
+}
@@ -0,0 +1,15 @@
+package com.example.usersapi.dto;
+
+import java.time.Instant;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class PendingUserDto {
+    private String trackingId;
+    private PendingUserState state;
+    private Long userId;
+    private List<String> errors;
+    private Instant acceptedAt;
+    private Instant writtenAt;
+}
@@ -0,0 +1,7 @@
+package com.example.usersapi.dto;
+
+public enum PendingUserState {
+    QUEUED,
+    CREATED,
+    REJECTED
+}
@@ -0,0 +1,36 @@
+package com.example.usersapi.dto;
+
+import com.example.usersapi.exception.InvalidCursorException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position of the last row returned by a paged birth-date search.
+ */
+public record SearchCursor(LocalDate birthDate, Long id) {
+    private static final char SEPARATOR = ':';
+
+    public String encode() {
+        String raw = birthDate.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static SearchCursor decode(String token) {
+        try {
+            String raw = new String(
+                    Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidCursorException("Malformed cursor " + token);
+            }
+            return new SearchCursor(
+                    LocalDate.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Malformed cursor " + token);
+        }
+    }
+}
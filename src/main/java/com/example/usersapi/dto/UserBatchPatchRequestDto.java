@@ -0,0 +1,13 @@
+package com.example.usersapi.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+public record UserBatchPatchRequestDto(
+        @NotNull
+        Long id,
+        @NotNull
+        @Valid
+        UserPatchRequestDto changes
+) {
+}
@@ -0,0 +1,12 @@
+package com.example.usersapi.dto;
+
+import lombok.Data;
+
+@Data
+public class UserCacheStatsDto {
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private double hitRate;
+}
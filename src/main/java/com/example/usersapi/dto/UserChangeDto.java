@@ -0,0 +1,16 @@
+package com.example.usersapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.Instant;
+import lombok.Data;
+
+@Data
+public class UserChangeDto {
+    private long offset;
+    private UserChangeType type;
+    private Long userId;
+    private Instant timestamp;
+    // Absent for deleted users
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private UserResponseDto user;
+}
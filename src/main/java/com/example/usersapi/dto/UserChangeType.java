@@ -0,0 +1,7 @@
+package com.example.usersapi.dto;
+
+public enum UserChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
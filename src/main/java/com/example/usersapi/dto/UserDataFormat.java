@@ -0,0 +1,14 @@
+package com.example.usersapi.dto;
+
+import org.springframework.http.MediaType;
+
+public enum UserDataFormat {
+    CSV,
+    NDJSON;
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    public static UserDataFormat fromMediaType(MediaType mediaType) {
+        return MediaType.APPLICATION_NDJSON.isCompatibleWith(mediaType) ? NDJSON : CSV;
+    }
+}
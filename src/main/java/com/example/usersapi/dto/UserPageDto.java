@@ -0,0 +1,10 @@
+package com.example.usersapi.dto;
+
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class UserPageDto {
+    private List<UserResponseDto> users;
+    private String nextCursor;
+}
@@ -2,6 +2,8 @@ package com.example.usersapi.dto;
 
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Pattern;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 public record UserPatchRequestDto(
         @Email(regexp = "[a-z0-9._%+-]+@[a-z0-9.-]+\\.[a-z]{2,3}",
@@ -13,4 +15,8 @@ public record UserPatchRequestDto(
         String address,
         String phoneNumber
 ) {
+    public boolean hasChanges() {
+        return Stream.of(email, firstName, lastName, birthDate, address, phoneNumber)
+                .anyMatch(Objects::nonNull);
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.usersapi.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 @Data
@@ -11,4 +12,7 @@ public class UserResponseDto {
     private String birthDate;
     private String address;
     private String phoneNumber;
+    // Searches read from the covering index, which does not hold the version
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long version;
 }
@@ -0,0 +1,16 @@
+package com.example.usersapi.dto;
+
+/**
+ * Filters of a criteria search, bound from query parameters. Every filter is optional and the
+ * given ones are combined with AND. {@code sort} names the property to order by, ascending.
+ */
+public record UserSearchRequestDto(
+        String lastName,
+        String emailDomain,
+        String phone,
+        String address,
+        String fromDate,
+        String toDate,
+        String sort
+) {
+}
@@ -0,0 +1,27 @@
+package com.example.usersapi.event;
+
+import com.example.usersapi.dto.UserChangeType;
+import com.example.usersapi.dto.UserResponseDto;
+
+/**
+ * Published after a user was created, changed or deleted and the change was committed, so
+ * that derived views of the users table can follow it. {@code user} is the new state, or
+ * {@code null} when the user was deleted.
+ */
+public record UserChangedEvent(Long userId, UserChangeType type, UserResponseDto user) {
+    public static UserChangedEvent created(UserResponseDto user) {
+        return new UserChangedEvent(user.getId(), UserChangeType.CREATED, user);
+    }
+
+    public static UserChangedEvent updated(UserResponseDto user) {
+        return new UserChangedEvent(user.getId(), UserChangeType.UPDATED, user);
+    }
+
+    public static UserChangedEvent deleted(Long userId) {
+        return new UserChangedEvent(userId, UserChangeType.DELETED, null);
+    }
+
+    public boolean isDeleted() {
+        return type == UserChangeType.DELETED;
+    }
+}
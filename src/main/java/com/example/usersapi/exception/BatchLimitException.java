@@ -0,0 +1,7 @@
+package com.example.usersapi.exception;
+
+public class BatchLimitException extends RuntimeException {
+    public BatchLimitException(String message) {
+        super(message);
+    }
+}
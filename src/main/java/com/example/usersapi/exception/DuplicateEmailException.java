@@ -0,0 +1,7 @@
+package com.example.usersapi.exception;
+
+public class DuplicateEmailException extends RuntimeException {
+    public DuplicateEmailException(String message) {
+        super(message);
+    }
+}
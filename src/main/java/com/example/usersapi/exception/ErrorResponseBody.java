@@ -0,0 +1,13 @@
+package com.example.usersapi.exception;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.Data;
+import org.springframework.http.HttpStatus;
+
+@Data
+class ErrorResponseBody {
+    private List<String> errors;
+    private LocalDateTime timeStamp;
+    private HttpStatus status;
+}
@@ -1,12 +1,16 @@
 package com.example.usersapi.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.List;
-import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.validation.ObjectError;
@@ -18,7 +22,12 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 @ControllerAdvice
+@Profile("!reactive")
+@RequiredArgsConstructor
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
+    public static final String ERROR_COUNTER = "users.errors";
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(
             MethodArgumentNotValidException ex,
@@ -26,15 +35,21 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
             HttpStatusCode status,
             WebRequest request
     ) {
-        Body body = new Body();
-        body.timeStamp = LocalDateTime.now();
-        body.status = HttpStatus.BAD_REQUEST;
-        body.errors = ex.getBindingResult().getAllErrors().stream()
+        countError(ex);
+        ErrorResponseBody body = new ErrorResponseBody();
+        body.setTimeStamp(LocalDateTime.now());
+        body.setStatus(HttpStatus.BAD_REQUEST);
+        body.setErrors(ex.getBindingResult().getAllErrors().stream()
                 .map(this::getErrorMessage)
-                .toList();
+                .toList());
         return new ResponseEntity<>(body, headers, status);
     }
 
+    private void countError(Exception ex) {
+        meterRegistry.ifAvailable(registry -> registry.counter(
+                ERROR_COUNTER, "exception", ex.getClass().getSimpleName()).increment());
+    }
+
     private String getErrorMessage(ObjectError e) {
         if (e instanceof FieldError) {
             return ((FieldError) e).getField()
@@ -51,43 +66,123 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
             HttpStatusCode status,
             WebRequest request
     ) {
-        Body body = new Body();
-        body.timeStamp = LocalDateTime.now();
-        body.status = HttpStatus.BAD_REQUEST;
-        body.errors = List.of(ex.getMessage());
+        countError(ex);
+        ErrorResponseBody body = new ErrorResponseBody();
+        body.setTimeStamp(LocalDateTime.now());
+        body.setStatus(HttpStatus.BAD_REQUEST);
+        body.setErrors(List.of(ex.getMessage()));
         return new ResponseEntity<>(body, headers, status);
     }
 
     @ExceptionHandler({
             DateTimeParseException.class,
             RegistrationException.class,
-            DatesOrderException.class
+            DatesOrderException.class,
+            InvalidCursorException.class,
+            InvalidSearchException.class,
+            BatchLimitException.class
     })
     public ResponseEntity<Object> handleBadRequestExceptions(
             Exception ex
     ) {
-        Body body = new Body();
-        body.timeStamp = LocalDateTime.now();
-        body.status = HttpStatus.BAD_REQUEST;
-        body.errors = List.of(ex.getMessage());
-        return new ResponseEntity<>(body, body.status);
+        countError(ex);
+        ErrorResponseBody body = new ErrorResponseBody();
+        body.setTimeStamp(LocalDateTime.now());
+        body.setStatus(HttpStatus.BAD_REQUEST);
+        body.setErrors(List.of(ex.getMessage()));
+        return ResponseEntity.status(body.getStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<Object> handleEntityNotFoundException(
             Exception ex
     ) {
-        Body body = new Body();
-        body.timeStamp = LocalDateTime.now();
-        body.status = HttpStatus.NOT_FOUND;
-        body.errors = List.of(ex.getMessage());
-        return new ResponseEntity<>(body, body.status);
+        countError(ex);
+        ErrorResponseBody body = new ErrorResponseBody();
+        body.setTimeStamp(LocalDateTime.now());
+        body.setStatus(HttpStatus.NOT_FOUND);
+        body.setErrors(List.of(ex.getMessage()));
+        return ResponseEntity.status(body.getStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<Object> handleVersionConflictException(
+            Exception ex
+    ) {
+        countError(ex);
+        ErrorResponseBody body = new ErrorResponseBody();
+        body.setTimeStamp(LocalDateTime.now());
+        body.setStatus(HttpStatus.PRECONDITION_FAILED);
+        body.setErrors(List.of(ex.getMessage()));
+        return ResponseEntity.status(body.getStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @ExceptionHandler(DuplicateEmailException.class)
+    public ResponseEntity<Object> handleDuplicateEmailException(
+            Exception ex
+    ) {
+        countError(ex);
+        ErrorResponseBody body = new ErrorResponseBody();
+        body.setTimeStamp(LocalDateTime.now());
+        body.setStatus(HttpStatus.CONFLICT);
+        body.setErrors(List.of(ex.getMessage()));
+        return ResponseEntity.status(body.getStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
-    @Data
-    private static class Body {
-        private List<String> errors;
-        private LocalDateTime timeStamp;
-        private HttpStatus status;
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<Object> handleRateLimitExceededException(
+            RateLimitExceededException ex
+    ) {
+        countError(ex);
+        ErrorResponseBody body = new ErrorResponseBody();
+        body.setTimeStamp(LocalDateTime.now());
+        body.setStatus(HttpStatus.TOO_MANY_REQUESTS);
+        body.setErrors(List.of(ex.getMessage()));
+        // Retry-After counts whole seconds, so a wait below one second is rounded up
+        long retryAfter = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(body.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @ExceptionHandler({
+            IngestionUnavailableException.class,
+            ServiceOverloadedException.class
+    })
+    public ResponseEntity<Object> handleServiceUnavailableExceptions(
+            Exception ex
+    ) {
+        countError(ex);
+        ErrorResponseBody body = new ErrorResponseBody();
+        body.setTimeStamp(LocalDateTime.now());
+        body.setStatus(HttpStatus.SERVICE_UNAVAILABLE);
+        body.setErrors(List.of(ex.getMessage()));
+        return ResponseEntity.status(body.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @ExceptionHandler(ChangesExpiredException.class)
+    public ResponseEntity<Object> handleChangesExpiredException(
+            Exception ex
+    ) {
+        countError(ex);
+        ErrorResponseBody body = new ErrorResponseBody();
+        body.setTimeStamp(LocalDateTime.now());
+        body.setStatus(HttpStatus.GONE);
+        body.setErrors(List.of(ex.getMessage()));
+        return ResponseEntity.status(body.getStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 }
@@ -0,0 +1,7 @@
+package com.example.usersapi.exception;
+
+public class IngestionUnavailableException extends RuntimeException {
+    public IngestionUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.usersapi.exception;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.reactive.result.method.annotation.ResponseEntityExceptionHandler;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux counterpart of {@link GlobalExceptionHandler}, producing the same error bodies for
+ * the reactive profile.
+ */
+@ControllerAdvice
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveExceptionHandler extends ResponseEntityExceptionHandler {
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Override
+    protected Mono<ResponseEntity<Object>> handleWebExchangeBindException(
+            WebExchangeBindException ex,
+            HttpHeaders headers,
+            HttpStatusCode status,
+            ServerWebExchange exchange
+    ) {
+        countError(ex);
+        ErrorResponseBody body = new ErrorResponseBody();
+        body.setTimeStamp(LocalDateTime.now());
+        body.setStatus(HttpStatus.BAD_REQUEST);
+        body.setErrors(ex.getBindingResult().getAllErrors().stream()
+                .map(this::getErrorMessage)
+                .toList());
+        return Mono.just(new ResponseEntity<>(body, headers, status));
+    }
+
+    private void countError(Exception ex) {
+        meterRegistry.ifAvailable(registry -> registry.counter(GlobalExceptionHandler.ERROR_COUNTER,
+                "exception", ex.getClass().getSimpleName()).increment());
+    }
+
+    private String getErrorMessage(ObjectError e) {
+        if (e instanceof FieldError) {
+            return ((FieldError) e).getField()
+                    + " "
+                    + e.getDefaultMessage();
+        }
+        return e.getDefaultMessage();
+    }
+
+    @ExceptionHandler({
+            DateTimeParseException.class,
+            RegistrationException.class,
+            DatesOrderException.class,
+            InvalidCursorException.class
+    })
+    public ResponseEntity<Object> handleBadRequestExceptions(
+            Exception ex
+    ) {
+        return error(HttpStatus.BAD_REQUEST, ex);
+    }
+
+    @ExceptionHandler(EntityNotFoundException.class)
+    public ResponseEntity<Object> handleEntityNotFoundException(
+            Exception ex
+    ) {
+        return error(HttpStatus.NOT_FOUND, ex);
+    }
+
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<Object> handleVersionConflictException(
+            Exception ex
+    ) {
+        return error(HttpStatus.PRECONDITION_FAILED, ex);
+    }
+
+    @ExceptionHandler(DuplicateEmailException.class)
+    public ResponseEntity<Object> handleDuplicateEmailException(
+            Exception ex
+    ) {
+        return error(HttpStatus.CONFLICT, ex);
+    }
+
+    private ResponseEntity<Object> error(HttpStatus status, Exception ex) {
+        countError(ex);
+        ErrorResponseBody body = new ErrorResponseBody();
+        body.setTimeStamp(LocalDateTime.now());
+        body.setStatus(status);
+        body.setErrors(List.of(ex.getMessage()));
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+}
@@ -2,16 +2,51 @@ package com.example.usersapi.mapper;
 
 import com.example.usersapi.config.MapperConfig;
 import com.example.usersapi.dto.CreateUserRequestDto;
+import com.example.usersapi.dto.UserPatchRequestDto;
 import com.example.usersapi.dto.UserResponseDto;
 import com.example.usersapi.model.User;
+import com.example.usersapi.model.UserRecord;
+import com.example.usersapi.model.UserView;
+import com.example.usersapi.util.DateCodec;
+import java.time.LocalDate;
+import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
 
 @Mapper(config = MapperConfig.class)
 public interface UserMapper {
-    @Mapping(target = "birthDate", source = "birthDate", dateFormat = "dd/MM/yyyy")
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
     User toModel(CreateUserRequestDto requestDto);
 
-    @Mapping(target = "birthDate", source = "birthDate", dateFormat = "dd/MM/yyyy")
     UserResponseDto toDto(User user);
+
+    @Mapping(target = "version", ignore = true)
+    UserResponseDto toDto(UserView view);
+
+    UserResponseDto toDto(UserRecord user);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    UserRecord toRecord(CreateUserRequestDto requestDto);
+
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    void updateModel(UserPatchRequestDto requestDto, @MappingTarget User user);
+
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    void updateRecord(UserPatchRequestDto requestDto, @MappingTarget UserRecord user);
+
+    default LocalDate toLocalDate(String date) {
+        return DateCodec.parse(date);
+    }
+
+    default String toDateString(LocalDate date) {
+        return DateCodec.format(date);
+    }
 }
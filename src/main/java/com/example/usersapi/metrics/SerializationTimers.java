@@ -0,0 +1,43 @@
+package com.example.usersapi.metrics;
+
+import com.example.usersapi.dto.UserResponseDtoWrapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers of one wire format, tagged with the type of payload inside the
+ * {@code UserResponseDtoWrapper}.
+ */
+final class SerializationTimers {
+    private final MeterRegistry meterRegistry;
+    private final String format;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    SerializationTimers(MeterRegistry meterRegistry, String format) {
+        this.meterRegistry = meterRegistry;
+        this.format = format;
+    }
+
+    void record(Object object, long startNanos) {
+        Timer timer = timers.computeIfAbsent(payloadType(object),
+                payload -> Timer.builder(TimedJacksonHttpMessageConverter.SERIALIZATION_TIMER)
+                        .tag("payload", payload)
+                        .tag("format", format)
+                        .register(meterRegistry));
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private String payloadType(Object object) {
+        Object data = object instanceof UserResponseDtoWrapper<?> wrapper
+                ? wrapper.getData()
+                : object;
+        if (data == null) {
+            return "none";
+        }
+        return data instanceof Collection<?> ? "List" : data.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.usersapi.metrics;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads and writes CBOR (RFC 8949) for {@code application/cbor}. Replaces Spring's default
+ * CBOR converter, whose mapper ignores the {@code spring.jackson.*} settings, and is timed
+ * like the JSON converter.
+ */
+@Component
+@Profile("!reactive")
+public class TimedCborHttpMessageConverter extends MappingJackson2CborHttpMessageConverter {
+    private final SerializationTimers timers;
+
+    public TimedCborHttpMessageConverter(
+            Jackson2ObjectMapperBuilder objectMapperBuilder,
+            ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        super(objectMapperBuilder.factory(new CBORFactory()).build());
+        this.timers = new SerializationTimers(
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry), "cbor");
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            timers.record(object, start);
+        }
+    }
+}
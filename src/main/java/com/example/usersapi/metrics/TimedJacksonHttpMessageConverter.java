@@ -0,0 +1,45 @@
+package com.example.usersapi.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Replaces Spring Boot's JSON converter to time response serialization, tagged with the type
+ * of payload inside the {@code UserResponseDtoWrapper}. The time includes handing the bytes
+ * to the servlet output buffer, which only blocks on the socket for large responses.
+ */
+@Component
+@Profile("!reactive")
+public class TimedJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+    public static final String SERIALIZATION_TIMER = "users.serialization";
+    private final SerializationTimers timers;
+
+    public TimedJacksonHttpMessageConverter(
+            ObjectMapper objectMapper,
+            ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        super(objectMapper);
+        this.timers = new SerializationTimers(
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry), "json");
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            timers.record(object, start);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.usersapi.metrics;
+
+import com.example.usersapi.dto.UserPageDto;
+import com.example.usersapi.dto.UserResponseDtoWrapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every {@code UserService} operation, {@code UserRepository} call and {@code UserMapper}
+ * call under a separate meter, so that a slow request can be attributed to the database, to
+ * mapping or to the service itself. Successful calls reuse a timer cached per method, which
+ * keeps the cost to two clock reads and a map lookup. Searches also record how many users
+ * they returned.
+ *
+ * <p>Repository methods returning a {@code Stream} are timed until the stream is opened; rows
+ * read afterwards are counted towards the calling service operation.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class UserMetricsAspect {
+    public static final String SERVICE_TIMER = "users.service";
+    public static final String REPOSITORY_TIMER = "users.repository";
+    public static final String MAPPER_TIMER = "users.mapper";
+    public static final String SEARCH_RESULTS = "users.search.results";
+    private static final String NO_EXCEPTION = "none";
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> searchResults = new ConcurrentHashMap<>();
+
+    @Around("execution(public * com.example.usersapi.service.UserService+.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getName();
+        if (operation.startsWith("stream")) {
+            long[] count = new long[1];
+            Object[] args = joinPoint.getArgs();
+            for (int i = 0; i < args.length; i++) {
+                if (args[i] instanceof Consumer<?> consumer) {
+                    args[i] = countingConsumer(consumer, count);
+                }
+            }
+            try {
+                return time(joinPoint, SERVICE_TIMER, "operation", args);
+            } finally {
+                // Also recorded when the client goes away, with the rows it was sent
+                searchResults(operation, "stream").record(count[0]);
+            }
+        }
+        Object result = time(joinPoint, SERVICE_TIMER, "operation", joinPoint.getArgs());
+        if (operation.startsWith("search")
+                && result instanceof UserResponseDtoWrapper<?> wrapper) {
+            recordResults(operation, wrapper.getData());
+        }
+        return result;
+    }
+
+    @Around("this(com.example.usersapi.repository.UserRepository)"
+            + " && execution(public * *(..)) && !execution(* java.lang.Object.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, REPOSITORY_TIMER, "method", joinPoint.getArgs());
+    }
+
+    @Around("execution(public * com.example.usersapi.mapper.UserMapper+.*(..))"
+            + " && !execution(* java.lang.Object.*(..))")
+    public Object timeMapper(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, MAPPER_TIMER, "method", joinPoint.getArgs());
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String name, String tag, Object[] args)
+            throws Throwable {
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed(args);
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            timers.computeIfAbsent(method, m -> timer(name, tag, m.getName(), NO_EXCEPTION))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timer(name, tag, joinPoint.getSignature().getName(), e.getClass().getSimpleName())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer timer(String name, String tag, String value, String exception) {
+        return Timer.builder(name)
+                .tag(tag, value)
+                .tag("exception", exception)
+                .register(meterRegistry);
+    }
+
+    private void recordResults(String operation, Object data) {
+        if (data instanceof List<?> users) {
+            searchResults(operation, "list").record(users.size());
+        } else if (data instanceof UserPageDto page && page.getUsers() != null) {
+            searchResults(operation, "page").record(page.getUsers().size());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Consumer<Object> countingConsumer(Consumer<?> consumer, long[] count) {
+        Consumer<Object> target = (Consumer<Object>) consumer;
+        return user -> {
+            target.accept(user);
+            count[0]++;
+        };
+    }
+
+    private DistributionSummary searchResults(String operation, String mode) {
+        return searchResults.computeIfAbsent(operation + ':' + mode,
+                key -> DistributionSummary.builder(SEARCH_RESULTS)
+                        .baseUnit("users")
+                        .tag("operation", operation)
+                        .tag("mode", mode)
+                        .register(meterRegistry));
+    }
+}
@@ -1,23 +1,38 @@
 package com.example.usersapi.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
+import jakarta.persistence.Version;
 import java.time.LocalDate;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Data
 @Entity
-@Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_birth_date", columnList = "birth_date, id"),
+        @Index(name = "idx_users_birth_date_covering", columnList = "birth_date, id, email, "
+                + "first_name, last_name, address, phone_number")
+})
 public class User {
+    public static final String CACHE_REGION = "users";
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
+    // Unique regardless of case through the generated email_normalized column
     @Column(nullable = false)
     private String email;
     @Column(nullable = false)
@@ -29,4 +44,6 @@ public class User {
     private LocalDate birthDate;
     private String address;
     private String phoneNumber;
+    @Version
+    private Long version;
 }
@@ -0,0 +1,26 @@
+package com.example.usersapi.model;
+
+import java.time.LocalDate;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * R2DBC mapping of the {@code users} table used by the reactive profile; the id is assigned
+ * by the column default on insert.
+ */
+@Data
+@Table("users")
+public class UserRecord {
+    @Id
+    private Long id;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private LocalDate birthDate;
+    private String address;
+    private String phoneNumber;
+    @Version
+    private Long version;
+}
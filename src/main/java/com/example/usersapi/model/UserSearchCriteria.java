@@ -0,0 +1,18 @@
+package com.example.usersapi.model;
+
+import java.time.LocalDate;
+
+/**
+ * Normalized criteria search: text filters are lower-cased and the phone is reduced to its
+ * digits, matching the derived columns they are compared with. Absent filters are null.
+ */
+public record UserSearchCriteria(
+        String lastNamePrefix,
+        String emailDomain,
+        String phonePrefix,
+        String addressFragment,
+        LocalDate fromDate,
+        LocalDate toDate,
+        UserSortField sort
+) {
+}
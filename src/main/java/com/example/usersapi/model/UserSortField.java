@@ -0,0 +1,34 @@
+package com.example.usersapi.model;
+
+import com.example.usersapi.exception.InvalidSearchException;
+
+/**
+ * Orders a criteria search can return users in. Every order ends with the id, so that pages
+ * have a stable keyset position. Orders are ascending only: H2 cannot read an index backwards,
+ * so a descending order would sort every match unless each index were duplicated.
+ */
+public enum UserSortField {
+    ID("id"),
+    LAST_NAME("lastName"),
+    EMAIL("email"),
+    BIRTH_DATE("birthDate");
+
+    private final String property;
+
+    UserSortField(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public static UserSortField fromProperty(String property) {
+        for (UserSortField field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new InvalidSearchException("Cannot sort users by " + property);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.usersapi.model;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of {@link User} holding only the columns needed to build a response.
+ */
+public record UserView(
+        Long id,
+        String email,
+        String firstName,
+        String lastName,
+        LocalDate birthDate,
+        String address,
+        String phoneNumber
+) {
+}
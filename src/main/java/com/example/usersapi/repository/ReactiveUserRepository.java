@@ -0,0 +1,41 @@
+package com.example.usersapi.repository;
+
+import com.example.usersapi.model.UserRecord;
+import java.time.LocalDate;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveUserRepository extends R2dbcRepository<UserRecord, Long> {
+    @Modifying
+    @Query("DELETE FROM users WHERE id = :id")
+    Mono<Integer> deleteUserById(@Param("id") Long id);
+
+    @Query("SELECT id, email, first_name, last_name, birth_date, address, phone_number, version "
+            + "FROM users "
+            + "WHERE email_normalized = LOWER(:email)")
+    Mono<UserRecord> findByNormalizedEmail(@Param("email") String email);
+
+    @Query("SELECT id, email, first_name, last_name, birth_date, address, phone_number "
+            + "FROM users "
+            + "WHERE birth_date BETWEEN :fromDate AND :toDate "
+            + "ORDER BY birth_date, id")
+    Flux<UserRecord> findByBirthDateBetween(
+            @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    @Query("SELECT id, email, first_name, last_name, birth_date, address, phone_number "
+            + "FROM users "
+            + "WHERE birth_date BETWEEN :fromDate AND :toDate "
+            + "AND (birth_date > :afterDate OR (birth_date = :afterDate AND id > :afterId)) "
+            + "ORDER BY birth_date, id "
+            + "LIMIT :limit")
+    Flux<UserRecord> findPageByBirthDateBetween(
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterId") Long afterId,
+            @Param("limit") int limit);
+}
@@ -1,10 +1,74 @@
 package com.example.usersapi.repository;
 
 import com.example.usersapi.model.User;
+import com.example.usersapi.model.UserView;
+import jakarta.persistence.QueryHint;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
-    List<User> findByBirthDateBetween(LocalDate fromDate, LocalDate toDate);
+public interface UserRepository
+        extends JpaRepository<User, Long>, UserUpdateRepository, UserSearchRepository {
+    String BIRTH_DATE_QUERY_REGION = "users-by-birth-date";
+
+    /**
+     * Looks the email up through the unique index on its lower-cased copy, so the match is
+     * case-insensitive and costs an index seek.
+     */
+    @Query(value = "SELECT * FROM users WHERE email_normalized = LOWER(:email)",
+            nativeQuery = true)
+    Optional<User> findByNormalizedEmail(@Param("email") String email);
+
+    @Query("select u.id from User u where u.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = BIRTH_DATE_QUERY_REGION)
+    })
+    @Query("select new com.example.usersapi.model.UserView("
+            + "u.id, u.email, u.firstName, u.lastName, u.birthDate, u.address, u.phoneNumber) "
+            + "from User u "
+            + "where u.birthDate between :fromDate and :toDate "
+            + "order by u.birthDate, u.id")
+    @Transactional(readOnly = true)
+    List<UserView> findByBirthDateBetween(
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate
+    );
+
+    @Query("select new com.example.usersapi.model.UserView("
+            + "u.id, u.email, u.firstName, u.lastName, u.birthDate, u.address, u.phoneNumber) "
+            + "from User u "
+            + "where u.birthDate between :fromDate and :toDate "
+            + "and (u.birthDate > :afterDate or (u.birthDate = :afterDate and u.id > :afterId)) "
+            + "order by u.birthDate, u.id")
+    @Transactional(readOnly = true)
+    List<UserView> findPageByBirthDateBetween(
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterId") Long afterId,
+            Limit limit
+    );
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.usersapi.model.UserView("
+            + "u.id, u.email, u.firstName, u.lastName, u.birthDate, u.address, u.phoneNumber) "
+            + "from User u "
+            + "where u.birthDate between :fromDate and :toDate "
+            + "order by u.birthDate, u.id")
+    Stream<UserView> streamByBirthDateBetween(
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate
+    );
 }
@@ -0,0 +1,24 @@
+package com.example.usersapi.repository;
+
+import com.example.usersapi.dto.CriteriaCursor;
+import com.example.usersapi.model.UserSearchCriteria;
+import com.example.usersapi.model.UserView;
+import java.util.List;
+
+/**
+ * Searches users by any combination of criteria, one keyset page at a time. Pages are read
+ * with a limit and never counted, so the cost of a page does not grow with the number of
+ * matches.
+ */
+public interface UserSearchRepository {
+    List<UserView> search(UserSearchCriteria criteria, CriteriaCursor after, int limit);
+
+    /**
+     * Returns users whose birthday, encoded as {@code MMdd}, lies in the window from
+     * {@code fromMonthDay} to {@code toMonthDay}, in the order the birthdays come and after
+     * the user with birthday {@code afterMonthDay} and id {@code afterId}. A window ending
+     * before it starts wraps around the new year.
+     */
+    List<UserView> findByBirthdayBetween(
+            int fromMonthDay, int toMonthDay, int afterMonthDay, long afterId, int limit);
+}
@@ -0,0 +1,167 @@
+package com.example.usersapi.repository;
+
+import com.example.usersapi.dto.CriteriaCursor;
+import com.example.usersapi.model.UserSearchCriteria;
+import com.example.usersapi.model.UserSortField;
+import com.example.usersapi.model.UserView;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Builds the criteria search as plain SQL, so that every filter is compared with the derived
+ * column that has an index: prefixes become {@code LIKE 'abc%'} ranges and the email domain
+ * an equality. Only the address substring needs a leading wildcard; it is applied last and
+ * merely filters the rows selected by the other predicates.
+ *
+ * <p>The order is always the sort column followed by the id, which the {@code (column, id)}
+ * indexes return without sorting. Continuing after a cursor is then an index seek as well.
+ * When the sorted column is filtered too, its index is chosen explicitly; see
+ * {@link #orderIndex}.
+ */
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+class UserSearchRepositoryImpl implements UserSearchRepository {
+    private static final String ESCAPE = "\\";
+    private static final String VIEW_COLUMNS =
+            "id, email, first_name, last_name, birth_date, address, phone_number";
+    private static final RowMapper<UserView> VIEW_ROW_MAPPER = (rs, rowNum) -> new UserView(
+            rs.getLong("id"),
+            rs.getString("email"),
+            rs.getString("first_name"),
+            rs.getString("last_name"),
+            rs.getObject("birth_date", LocalDate.class),
+            rs.getString("address"),
+            rs.getString("phone_number"));
+    private static final String AFTER_BIRTHDAY =
+            "AND (birthday > ? OR (birthday = ? AND id > ?)) ";
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<UserView> search(UserSearchCriteria criteria, CriteriaCursor after, int limit) {
+        List<Object> args = new ArrayList<>();
+        UserSortField sort = criteria.sort();
+        String orderIndex = orderIndex(criteria);
+        StringBuilder sql = new StringBuilder("SELECT " + VIEW_COLUMNS + " FROM users");
+        if (orderIndex != null) {
+            sql.append(" USE INDEX (").append(orderIndex).append(')');
+        }
+        sql.append(" WHERE TRUE");
+        if (criteria.lastNamePrefix() != null) {
+            sql.append(" AND last_name_normalized LIKE ? ESCAPE '").append(ESCAPE).append('\'');
+            args.add(escape(criteria.lastNamePrefix()) + '%');
+        }
+        if (criteria.emailDomain() != null) {
+            sql.append(" AND email_domain = ?");
+            args.add(criteria.emailDomain());
+        }
+        if (criteria.phonePrefix() != null) {
+            sql.append(" AND phone_digits LIKE ?");
+            args.add(criteria.phonePrefix() + '%');
+        }
+        if (criteria.fromDate() != null) {
+            sql.append(" AND birth_date >= ?");
+            args.add(criteria.fromDate());
+        }
+        if (criteria.toDate() != null) {
+            sql.append(" AND birth_date <= ?");
+            args.add(criteria.toDate());
+        }
+        if (criteria.addressFragment() != null) {
+            sql.append(" AND address ILIKE ? ESCAPE '").append(ESCAPE).append('\'');
+            args.add('%' + escape(criteria.addressFragment()) + '%');
+        }
+
+        if (after != null) {
+            if (sort == UserSortField.ID) {
+                sql.append(" AND id > ?");
+            } else {
+                String column = column(sort);
+                sql.append(" AND (").append(column).append(" > ? OR (")
+                        .append(column).append(" = ? AND id > ?))");
+                Object value = sortValue(after);
+                args.add(value);
+                args.add(value);
+            }
+            args.add(after.id());
+        }
+        sql.append(" ORDER BY ");
+        if (sort != UserSortField.ID) {
+            sql.append(column(sort)).append(", ");
+        } else if (criteria.emailDomain() != null) {
+            // Equal for every row, so the order is unchanged, but it lets the planner see that
+            // the (email_domain, id) index already returns the rows sorted by id
+            sql.append("email_domain, ");
+        }
+        sql.append("id LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), VIEW_ROW_MAPPER, args.toArray());
+    }
+
+    /**
+     * Reads the window from the {@code (birthday, id)} index, seeking past the cursor. A
+     * window wrapping around the new year is two range scans in one statement: the days until
+     * the end of the year come first, then the days from the start of the next one. Once the
+     * cursor is past the new year, only the second scan is left.
+     */
+    @Override
+    public List<UserView> findByBirthdayBetween(
+            int fromMonthDay, int toMonthDay, int afterMonthDay, long afterId, int limit) {
+        if (fromMonthDay <= toMonthDay || afterMonthDay < fromMonthDay) {
+            return jdbcTemplate.query("SELECT " + VIEW_COLUMNS + " FROM users "
+                            + "WHERE birthday BETWEEN ? AND ? " + AFTER_BIRTHDAY
+                            + "ORDER BY birthday, id LIMIT ?",
+                    VIEW_ROW_MAPPER, Math.min(fromMonthDay, afterMonthDay), toMonthDay,
+                    afterMonthDay, afterMonthDay, afterId, limit);
+        }
+        return jdbcTemplate.query("SELECT " + VIEW_COLUMNS + ", birthday, 0 AS lap FROM users "
+                        + "WHERE birthday >= ? " + AFTER_BIRTHDAY
+                        + "UNION ALL SELECT " + VIEW_COLUMNS + ", birthday, 1 FROM users "
+                        + "WHERE birthday <= ? "
+                        + "ORDER BY lap, birthday, id LIMIT ?",
+                VIEW_ROW_MAPPER, fromMonthDay, afterMonthDay, afterMonthDay, afterId,
+                toMonthDay, limit);
+    }
+
+    /**
+     * Returns the index to read when the sorted column is also filtered. Walking that index
+     * yields matches already in order, so the query stops after one page of rows. H2 would
+     * otherwise often prefer the most selective equality, then sort every match to return
+     * the first few.
+     */
+    private String orderIndex(UserSearchCriteria criteria) {
+        return switch (criteria.sort()) {
+            case LAST_NAME -> criteria.lastNamePrefix() != null ? "idx_users_last_name" : null;
+            case BIRTH_DATE -> criteria.fromDate() != null || criteria.toDate() != null
+                    ? "idx_users_birth_date"
+                    : null;
+            case ID -> criteria.emailDomain() != null ? "idx_users_email_domain" : null;
+            case EMAIL -> null;
+        };
+    }
+
+    private String column(UserSortField sort) {
+        return switch (sort) {
+            case ID -> "id";
+            case LAST_NAME -> "last_name_normalized";
+            case EMAIL -> "email_normalized";
+            case BIRTH_DATE -> "birth_date";
+        };
+    }
+
+    private Object sortValue(CriteriaCursor cursor) {
+        return cursor.sort() == UserSortField.BIRTH_DATE
+                ? LocalDate.parse(cursor.value())
+                : cursor.value();
+    }
+
+    private String escape(String text) {
+        return text.replace(ESCAPE, ESCAPE + ESCAPE)
+                .replace("%", ESCAPE + "%")
+                .replace("_", ESCAPE + "_");
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.usersapi.repository;
+
+import com.example.usersapi.model.User;
+import java.util.Optional;
+
+/**
+ * Updates and deletes users in a single statement, without loading them first. Each update
+ * increments the version and, when an expected version is given, only applies if the stored
+ * version still equals it. An empty result means that no user has the id, or that its version
+ * moved.
+ */
+public interface UserUpdateRepository {
+    Optional<User> updateNonNullFields(Long userId, Long expectedVersion, User changes);
+
+    Optional<User> replace(Long userId, Long expectedVersion, User user);
+
+    /**
+     * Returns the number of deleted rows, so a missing user needs no extra query.
+     */
+    int deleteUserById(Long userId);
+}
@@ -0,0 +1,123 @@
+package com.example.usersapi.repository;
+
+import com.example.usersapi.model.User;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reads the updated row back through H2's {@code FINAL TABLE}, so the update and the response
+ * share one round trip.
+ *
+ * <p>The statements bypass Hibernate, so they follow its own invalidation protocol for the
+ * second-level cache: the {@code users} table is pre-invalidated before the statement, which
+ * stops cached query results from being used or stored meanwhile, and invalidated again with
+ * the changed user evicted once the transaction completes. Unlike a JPQL bulk statement, this
+ * leaves every other cached user in place.
+ */
+@RequiredArgsConstructor
+@Transactional
+class UserUpdateRepositoryImpl implements UserUpdateRepository {
+    private static final String[] QUERY_SPACES = {"users"};
+    private static final String COLUMNS = "id, email, first_name, last_name, birth_date, "
+            + "address, phone_number, version";
+    private static final RowMapper<User> USER_ROW_MAPPER = (rs, rowNum) -> {
+        User user = new User();
+        user.setId(rs.getLong("id"));
+        user.setEmail(rs.getString("email"));
+        user.setFirstName(rs.getString("first_name"));
+        user.setLastName(rs.getString("last_name"));
+        user.setBirthDate(rs.getObject("birth_date", LocalDate.class));
+        user.setAddress(rs.getString("address"));
+        user.setPhoneNumber(rs.getString("phone_number"));
+        user.setVersion(rs.getLong("version"));
+        return user;
+    };
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Override
+    public Optional<User> updateNonNullFields(Long userId, Long expectedVersion, User changes) {
+        return update(userId, expectedVersion, changes, false);
+    }
+
+    @Override
+    public Optional<User> replace(Long userId, Long expectedVersion, User user) {
+        return update(userId, expectedVersion, user, true);
+    }
+
+    @Override
+    public int deleteUserById(Long userId) {
+        return invalidating(userId,
+                () -> jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId));
+    }
+
+    private Optional<User> update(
+            Long userId, Long expectedVersion, User user, boolean includeNulls) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder assignments = new StringBuilder();
+        assign(assignments, args, "email", user.getEmail(), includeNulls);
+        assign(assignments, args, "first_name", user.getFirstName(), includeNulls);
+        assign(assignments, args, "last_name", user.getLastName(), includeNulls);
+        assign(assignments, args, "birth_date", user.getBirthDate(), includeNulls);
+        assign(assignments, args, "address", user.getAddress(), includeNulls);
+        assign(assignments, args, "phone_number", user.getPhoneNumber(), includeNulls);
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS);
+        if (assignments.isEmpty()) {
+            // Nothing to change, so the version stays as it is
+            sql.append(" FROM users WHERE id = ?");
+        } else {
+            sql.append(" FROM FINAL TABLE (UPDATE users SET ")
+                    .append(assignments)
+                    .append("version = version + 1 WHERE id = ?");
+        }
+        args.add(userId);
+        if (expectedVersion != null) {
+            sql.append(" AND version = ?");
+            args.add(expectedVersion);
+        }
+        if (!assignments.isEmpty()) {
+            sql.append(')');
+        }
+        if (assignments.isEmpty()) {
+            return jdbcTemplate.query(sql.toString(), USER_ROW_MAPPER, args.toArray()).stream()
+                    .findFirst();
+        }
+        return invalidating(userId, () -> jdbcTemplate
+                .query(sql.toString(), USER_ROW_MAPPER, args.toArray()).stream()
+                .findFirst());
+    }
+
+    private <T> T invalidating(Long userId, Supplier<T> statement) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        CacheImplementor cache = session.getFactory().getCache();
+        TimestampsCache timestamps = cache.getTimestampsCache();
+        timestamps.preInvalidate(QUERY_SPACES, session);
+        session.getActionQueue().registerProcess((success, completedSession) -> {
+            timestamps.invalidate(QUERY_SPACES, completedSession);
+            cache.evictEntityData(User.class, userId);
+        });
+        T result = statement.get();
+        cache.evictEntityData(User.class, userId);
+        return result;
+    }
+
+    private void assign(StringBuilder assignments, List<Object> args, String column,
+                        Object value, boolean includeNulls) {
+        if (value != null || includeNulls) {
+            assignments.append(column).append(" = ?, ");
+            args.add(value);
+        }
+    }
+}
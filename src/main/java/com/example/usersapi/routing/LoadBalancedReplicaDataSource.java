@@ -0,0 +1,138 @@
+package com.example.usersapi.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * Hands out read-only connections from a pool of replicas. Each connection comes from the
+ * healthy replica with the fewest connections in use, so a replica that answers slowly, and
+ * therefore keeps its connections longer, gets fewer new reads. Replicas are validated every
+ * health-check interval; a replica that fails a check or a connection attempt is skipped until
+ * it passes a check again. Without a healthy replica, or when the thread requires the primary,
+ * connections come from the primary.
+ */
+public class LoadBalancedReplicaDataSource extends AbstractDataSource
+        implements MeterBinder, DisposableBean {
+    public static final String HEALTHY = "users.replicas.healthy";
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final AtomicInteger rotation = new AtomicInteger();
+    private final ScheduledExecutorService healthChecks;
+
+    public LoadBalancedReplicaDataSource(
+            DataSource primary, List<HikariDataSource> replicas, Duration healthCheckInterval) {
+        this.primary = primary;
+        this.replicas = replicas.stream()
+                .map(Replica::new)
+                .toList();
+        this.healthChecks = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecks.scheduleWithFixedDelay(this::checkHealth, healthCheckInterval.toMillis(),
+                healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!ReplicaRouting.isPrimaryRequired()) {
+            for (Replica replica = choose(); replica != null; replica = choose()) {
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    replica.healthy = false;
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the pool credentials");
+    }
+
+    public List<HikariDataSource> replicas() {
+        return replicas.stream()
+                .map(replica -> replica.dataSource)
+                .toList();
+    }
+
+    /**
+     * Validates a connection of every replica and marks the replica healthy when it passes.
+     */
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                replica.healthy = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                replica.healthy = false;
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(HEALTHY, replicas, all -> all.stream()
+                        .filter(replica -> replica.healthy)
+                        .count())
+                .baseUnit("replicas")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        healthChecks.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+    }
+
+    /**
+     * Picks the healthy replica with the fewest active connections. The search starts at a
+     * rotating position, so idle replicas take turns.
+     */
+    private Replica choose() {
+        int start = Math.floorMod(rotation.getAndIncrement(), replicas.size());
+        Replica chosen = null;
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy && (chosen == null || replica.active() < chosen.active())) {
+                chosen = replica;
+            }
+        }
+        return chosen;
+    }
+
+    private static final class Replica {
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private int active() {
+            // The pool only starts with its first connection
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.usersapi.routing;
+
+import com.example.usersapi.event.UserChangedEvent;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Gives clients read-your-writes consistency while replicas lag behind. A response to a
+ * request that changed users carries a consistency token, the time of the write, both as the
+ * {@code X-Consistency-Token} header and as a cookie. Requests presenting a token younger than
+ * {@code user.replicas.max-lag} read from the primary; older tokens are ignored, since every
+ * replica has caught up with the write by then. Tokens compare the clocks of the instances,
+ * so instances behind one load balancer need synchronized clocks.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "user.replicas.enabled", havingValue = "true")
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+    public static final String TOKEN_HEADER = "X-Consistency-Token";
+    public static final String TOKEN_COOKIE = "users-consistency";
+    private final Duration maxLag;
+
+    public ReadYourWritesInterceptor(@Value("${user.replicas.max-lag}") Duration maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    @Override
+    public boolean preHandle(
+            HttpServletRequest request, HttpServletResponse response, Object handler) {
+        long writtenAt = token(request);
+        if (writtenAt > 0 && System.currentTimeMillis() - writtenAt < maxLag.toMillis()) {
+            ReplicaRouting.requirePrimary();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(
+            HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        ReplicaRouting.reset();
+    }
+
+    /**
+     * Hands the token to the client whose request made the change. Changes made outside a
+     * request, such as write-behind inserts, have no client to hand it to.
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (!(RequestContextHolder.getRequestAttributes()
+                instanceof ServletRequestAttributes attributes)
+                || attributes.getResponse() == null) {
+            return;
+        }
+        HttpServletResponse response = attributes.getResponse();
+        String token = Long.toString(System.currentTimeMillis());
+        if (!response.containsHeader(TOKEN_HEADER)) {
+            // A batch changes many users, one cookie is enough
+            Cookie cookie = new Cookie(TOKEN_COOKIE, token);
+            cookie.setPath("/api/users");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, maxLag.toSeconds()));
+            response.addCookie(cookie);
+        }
+        response.setHeader(TOKEN_HEADER, token);
+        // Reads later in the same request see the write as well
+        ReplicaRouting.requirePrimary();
+    }
+
+    private static long token(HttpServletRequest request) {
+        String token = request.getHeader(TOKEN_HEADER);
+        if (token == null && request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (TOKEN_COOKIE.equals(cookie.getName())) {
+                    token = cookie.getValue();
+                }
+            }
+        }
+        try {
+            return token == null ? 0 : Long.parseLong(token.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
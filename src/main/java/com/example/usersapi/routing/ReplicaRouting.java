@@ -0,0 +1,44 @@
+package com.example.usersapi.routing;
+
+import java.util.function.Supplier;
+
+/**
+ * Read-only transactions read from a replica unless the current thread requires the primary:
+ * while it serves a client that must read its own recent writes, or while it runs a read
+ * whose result must not lag behind the primary.
+ */
+public final class ReplicaRouting {
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    /**
+     * Runs {@code read} against the primary, even inside a read-only transaction.
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        Boolean previous = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_REQUIRED.remove();
+            } else {
+                PRIMARY_REQUIRED.set(previous);
+            }
+        }
+    }
+
+    static void requirePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+
+    static void reset() {
+        PRIMARY_REQUIRED.remove();
+    }
+}
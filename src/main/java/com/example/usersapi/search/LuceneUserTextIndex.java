@@ -0,0 +1,336 @@
+package com.example.usersapi.search;
+
+import com.example.usersapi.dto.UserResponseDto;
+import com.example.usersapi.event.UserChangedEvent;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lucene index of first names, last names and addresses. Every query term must match one of
+ * the fields exactly, as a prefix or within a few typos; exact matches and last names rank
+ * highest. The index lives in memory unless {@code user.text-index.directory} is set, is
+ * rebuilt from the users table on startup when empty and follows {@link UserChangedEvent}s
+ * afterwards.
+ *
+ * <p>Changes are only committed by a rebuild and on shutdown. A stored index is marked
+ * unclean while open, so after a crash, which drops the uncommitted changes, it is rebuilt
+ * on startup rather than left behind the table.
+ */
+@Component
+@Profile("!reactive")
+public class LuceneUserTextIndex implements UserTextIndex, DisposableBean {
+    static final String ID = "id";
+    static final String FIRST_NAME = "first_name";
+    static final String LAST_NAME = "last_name";
+    static final String ADDRESS = "address";
+    private static final String GENERATION = "generation";
+    private static final String CLEAN_SHUTDOWN = "clean_shutdown";
+    private static final String[] FIELDS = {LAST_NAME, FIRST_NAME, ADDRESS};
+    private static final float[] FIELD_BOOSTS = {3f, 2f, 1f};
+    private static final float EXACT_BOOST = 4f;
+    private static final float PREFIX_BOOST = 2f;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int TWO_EDITS_LENGTH = 8;
+    private static final int MAX_QUERY_TERMS = 8;
+    private static final Analyzer ANALYZER = analyzer();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final boolean cleanlyClosed;
+    private final Object changeLock = new Object();
+    private volatile String generation = "0";
+    private Set<Long> changedDuringRebuild;
+
+    public LuceneUserTextIndex(
+            JdbcTemplate jdbcTemplate,
+            @Value("${user.text-index.directory:}") String directory,
+            @Value("${user.text-index.fetch-size}") int fetchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+        try {
+            this.directory = directory.isBlank()
+                    ? new ByteBuffersDirectory()
+                    : FSDirectory.open(Path.of(directory));
+            this.cleanlyClosed = DirectoryReader.indexExists(this.directory)
+                    && Boolean.parseBoolean(SegmentInfos.readLatestCommit(this.directory)
+                            .getUserData()
+                            .get(CLEAN_SHUTDOWN));
+            this.writer = new IndexWriter(this.directory, new IndexWriterConfig(ANALYZER)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+            writer.setLiveCommitData(Map.of(CLEAN_SHUTDOWN, "false").entrySet());
+            writer.commit();
+            this.searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open user text index", e);
+        }
+    }
+
+    @Override
+    public void index(UserResponseDto user) {
+        synchronized (changeLock) {
+            markChanged(user.getId());
+            try {
+                writer.updateDocument(new Term(ID, user.getId().toString()),
+                        document(user.getId(), user.getFirstName(), user.getLastName(),
+                                user.getAddress()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public void remove(Long userId) {
+        synchronized (changeLock) {
+            markChanged(userId);
+            try {
+                writer.deleteDocuments(new Term(ID, userId.toString()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public List<Long> search(String query, int limit) {
+        Query luceneQuery = toQuery(query);
+        if (luceneQuery == null) {
+            return List.of();
+        }
+        try {
+            // Changes become visible to the next search rather than on every write
+            searcherManager.maybeRefresh();
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                List<Long> ids = new ArrayList<>(limit);
+                for (ScoreDoc hit : searcher.search(luceneQuery, limit).scoreDocs) {
+                    ids.add(Long.valueOf(
+                            searcher.storedFields().document(hit.doc, Set.of(ID)).get(ID)));
+                }
+                return ids;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Re-indexes every user with {@code updateDocument}, then drops documents of an older
+     * generation: users deleted since they were indexed. Users changed or deleted while the
+     * rebuild runs are skipped by the scan, whose rows may predate the change; their events
+     * already indexed or removed them. Searches keep seeing the old documents until the
+     * rebuild ends.
+     */
+    @Override
+    public synchronized long rebuild() {
+        AtomicLong indexed = new AtomicLong();
+        String rebuildGeneration = Long.toString(System.nanoTime());
+        synchronized (changeLock) {
+            generation = rebuildGeneration;
+            changedDuringRebuild = new HashSet<>();
+        }
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        "SELECT id, first_name, last_name, address FROM users");
+                statement.setFetchSize(fetchSize);
+                return statement;
+            }, resultSet -> {
+                long id = resultSet.getLong(1);
+                Document document = document(id, resultSet.getString(2),
+                        resultSet.getString(3), resultSet.getString(4));
+                synchronized (changeLock) {
+                    if (changedDuringRebuild.contains(id)) {
+                        return;
+                    }
+                    try {
+                        writer.updateDocument(new Term(ID, Long.toString(id)), document);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                indexed.incrementAndGet();
+            });
+            writer.deleteDocuments(new BooleanQuery.Builder()
+                    .add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST)
+                    .add(new TermQuery(new Term(GENERATION, rebuildGeneration)),
+                            BooleanClause.Occur.MUST_NOT)
+                    .build());
+            writer.commit();
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            synchronized (changeLock) {
+                changedDuringRebuild = null;
+            }
+        }
+        return indexed.get();
+    }
+
+    @Override
+    public long size() {
+        return writer.getDocStats().numDocs;
+    }
+
+    /**
+     * Rebuilds an index that is empty or was not closed cleanly, so it may lack changes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfStale() {
+        if (!cleanlyClosed || size() == 0) {
+            rebuild();
+        }
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.userId());
+        } else {
+            index(event.user());
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        searcherManager.close();
+        // Closing commits the pending changes together with the clean shutdown mark
+        writer.setLiveCommitData(Map.of(CLEAN_SHUTDOWN, "true").entrySet());
+        writer.close();
+        directory.close();
+    }
+
+    private Document document(long id, String firstName, String lastName, String address) {
+        Document document = new Document();
+        document.add(new StringField(ID, Long.toString(id), Field.Store.YES));
+        // Users indexed from events during a rebuild belong to the rebuild's generation
+        document.add(new StringField(GENERATION, generation, Field.Store.NO));
+        addText(document, FIRST_NAME, firstName);
+        addText(document, LAST_NAME, lastName);
+        addText(document, ADDRESS, address);
+        return document;
+    }
+
+    private void markChanged(Long userId) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(userId);
+        }
+    }
+
+    private void addText(Document document, String field, String value) {
+        if (value != null) {
+            document.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+
+    /**
+     * Requires every term of the query and lets each term match any field exactly, as a
+     * prefix of a longer word or, for longer terms, with one or two typos.
+     */
+    private Query toQuery(String text) {
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) {
+            return null;
+        }
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String term : terms) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            for (int i = 0; i < FIELDS.length; i++) {
+                Term fieldTerm = new Term(FIELDS[i], term);
+                anyField.add(new BoostQuery(new TermQuery(fieldTerm),
+                        FIELD_BOOSTS[i] * EXACT_BOOST), BooleanClause.Occur.SHOULD);
+                if (term.length() >= MIN_PREFIX_LENGTH) {
+                    anyField.add(new BoostQuery(new PrefixQuery(fieldTerm),
+                            FIELD_BOOSTS[i] * PREFIX_BOOST), BooleanClause.Occur.SHOULD);
+                }
+                if (term.length() >= MIN_FUZZY_LENGTH) {
+                    int maxEdits = term.length() >= TWO_EDITS_LENGTH ? 2 : 1;
+                    // Typos in the first letter are rare; keeping it fixed keeps the scan small
+                    anyField.add(new BoostQuery(new FuzzyQuery(fieldTerm, maxEdits, 1),
+                            FIELD_BOOSTS[i]), BooleanClause.Occur.SHOULD);
+                }
+            }
+            query.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+        return query.build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream stream = ANALYZER.tokenStream(LAST_NAME, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken() && terms.size() < MAX_QUERY_TERMS) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private static Analyzer analyzer() {
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer tokenizer = new StandardTokenizer();
+                TokenStream stream = new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer));
+                return new TokenStreamComponents(tokenizer, stream);
+            }
+        };
+    }
+}
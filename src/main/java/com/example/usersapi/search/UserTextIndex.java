@@ -0,0 +1,27 @@
+package com.example.usersapi.search;
+
+import com.example.usersapi.dto.UserResponseDto;
+import java.util.List;
+
+/**
+ * Full-text index over the names and addresses of users. It holds no user data beyond the
+ * id; results are loaded from the database by id.
+ */
+public interface UserTextIndex {
+    void index(UserResponseDto user);
+
+    void remove(Long userId);
+
+    /**
+     * Returns the ids of the best matching users, best match first.
+     */
+    List<Long> search(String query, int limit);
+
+    /**
+     * Replaces the whole index with the current contents of the users table and returns the
+     * number of indexed users.
+     */
+    long rebuild();
+
+    long size();
+}
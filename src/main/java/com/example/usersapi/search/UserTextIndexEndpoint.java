@@ -0,0 +1,38 @@
+package com.example.usersapi.search;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the size of the user text index and rebuilds it from the users table. A rebuild
+ * scans the whole table, so the endpoint is only exposed over JMX. To reach it over HTTP at
+ * {@code GET} and {@code POST /actuator/userindex}, add {@code userindex} to
+ * {@code management.endpoints.web.exposure.include} together with a
+ * {@code management.server.port} that is not reachable from outside.
+ */
+@Component
+@Profile("!reactive")
+@Endpoint(id = "userindex")
+@RequiredArgsConstructor
+public class UserTextIndexEndpoint {
+    private final UserTextIndex userTextIndex;
+
+    @ReadOperation
+    public Map<String, Object> size() {
+        return Map.of("documents", userTextIndex.size());
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        long start = System.nanoTime();
+        long indexed = userTextIndex.rebuild();
+        return Map.of("documents", indexed,
+                "millis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.dto.CreateUserRequestDto;
+import com.example.usersapi.dto.UserCacheStatsDto;
+import com.example.usersapi.dto.UserPageDto;
+import com.example.usersapi.dto.UserPatchRequestDto;
+import com.example.usersapi.dto.UserResponseDto;
+import com.example.usersapi.dto.UserResponseDtoWrapper;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveUserService {
+    Mono<UserResponseDtoWrapper<UserResponseDto>> getUser(Long userId);
+
+    Mono<UserResponseDtoWrapper<UserResponseDto>> getUserByEmail(String email);
+
+    Mono<UserResponseDtoWrapper<UserResponseDto>> createUser(CreateUserRequestDto requestDto);
+
+    Mono<UserResponseDtoWrapper<UserResponseDto>> patchUser(
+            Long userId, Long expectedVersion, UserPatchRequestDto requestDto);
+
+    Mono<UserResponseDtoWrapper<UserResponseDto>> updateUser(
+            Long userId, Long expectedVersion, CreateUserRequestDto requestDto);
+
+    Mono<Void> deleteUser(Long userId);
+
+    Flux<UserResponseDto> searchByBirthDates(String fromDate, String toDate);
+
+    Mono<UserResponseDtoWrapper<UserPageDto>> searchByBirthDates(
+            String fromDate, String toDate, String cursor, int size);
+
+    Mono<UserResponseDtoWrapper<UserCacheStatsDto>> getCacheStats();
+}
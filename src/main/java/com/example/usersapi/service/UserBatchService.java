@@ -0,0 +1,17 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.dto.BatchItemResultDto;
+import com.example.usersapi.dto.CreateUserRequestDto;
+import com.example.usersapi.dto.UserBatchPatchRequestDto;
+import com.example.usersapi.dto.UserResponseDtoWrapper;
+import java.util.List;
+
+public interface UserBatchService {
+    UserResponseDtoWrapper<List<BatchItemResultDto>> createUsers(
+            List<CreateUserRequestDto> requestDtos);
+
+    UserResponseDtoWrapper<List<BatchItemResultDto>> patchUsers(
+            List<UserBatchPatchRequestDto> requestDtos);
+
+    UserResponseDtoWrapper<List<BatchItemResultDto>> deleteUsers(List<Long> userIds);
+}
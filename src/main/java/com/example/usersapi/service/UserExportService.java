@@ -0,0 +1,10 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.dto.UserDataFormat;
+import java.io.OutputStream;
+import java.util.function.Supplier;
+
+public interface UserExportService {
+    void exportUsers(
+            String fromDate, String toDate, UserDataFormat format, Supplier<OutputStream> target);
+}
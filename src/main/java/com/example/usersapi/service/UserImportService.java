@@ -0,0 +1,18 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.dto.ImportJobStatusDto;
+import com.example.usersapi.dto.UserDataFormat;
+import com.example.usersapi.dto.UserResponseDtoWrapper;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+public interface UserImportService {
+    /**
+     * Imports the users in {@code body} and returns the final status of the job. The status
+     * of the registered job is handed to {@code started} before the body is read.
+     */
+    UserResponseDtoWrapper<ImportJobStatusDto> importUsers(
+            InputStream body, UserDataFormat format, Consumer<ImportJobStatusDto> started);
+
+    UserResponseDtoWrapper<ImportJobStatusDto> getJob(String jobId);
+}
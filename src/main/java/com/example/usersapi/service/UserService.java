@@ -1,20 +1,48 @@
 package com.example.usersapi.service;
 
 import com.example.usersapi.dto.CreateUserRequestDto;
+import com.example.usersapi.dto.UserCacheStatsDto;
+import com.example.usersapi.dto.UserPageDto;
 import com.example.usersapi.dto.UserPatchRequestDto;
 import com.example.usersapi.dto.UserResponseDto;
 import com.example.usersapi.dto.UserResponseDtoWrapper;
+import com.example.usersapi.dto.UserSearchRequestDto;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
+    UserResponseDtoWrapper<UserResponseDto> getUser(Long userId);
+
+    UserResponseDtoWrapper<UserResponseDto> getUserByEmail(String email);
+
     UserResponseDtoWrapper<UserResponseDto> createUser(CreateUserRequestDto requestDto);
 
-    UserResponseDtoWrapper<UserResponseDto> patchUser(Long userId, UserPatchRequestDto requestDto);
+    UserResponseDtoWrapper<UserResponseDto> patchUser(
+            Long userId, Long expectedVersion, UserPatchRequestDto requestDto);
 
-    UserResponseDtoWrapper<UserResponseDto> updateUser(Long userId,CreateUserRequestDto requestDto);
+    UserResponseDtoWrapper<UserResponseDto> updateUser(
+            Long userId, Long expectedVersion, CreateUserRequestDto requestDto);
 
     void deleteUser(Long userId);
 
     UserResponseDtoWrapper<List<UserResponseDto>> searchByBirthDates(
             String fromDate, String toDate);
+
+    UserResponseDtoWrapper<UserPageDto> searchByBirthDates(
+            String fromDate, String toDate, String cursor, int size);
+
+    UserResponseDtoWrapper<UserPageDto> searchByAge(
+            int minAge, int maxAge, String cursor, int size);
+
+    UserResponseDtoWrapper<UserPageDto> searchUpcomingBirthdays(
+            String fromDate, int days, Integer age, String cursor, int size);
+
+    UserResponseDtoWrapper<UserPageDto> searchByCriteria(
+            UserSearchRequestDto requestDto, String cursor, int size);
+
+    UserResponseDtoWrapper<List<UserResponseDto>> searchByText(String query, int size);
+
+    void streamByBirthDates(String fromDate, String toDate, Consumer<UserResponseDto> consumer);
+
+    UserResponseDtoWrapper<UserCacheStatsDto> getCacheStats();
 }
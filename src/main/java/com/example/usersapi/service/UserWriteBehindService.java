@@ -0,0 +1,11 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.dto.CreateUserRequestDto;
+import com.example.usersapi.dto.PendingUserDto;
+import com.example.usersapi.dto.UserResponseDtoWrapper;
+
+public interface UserWriteBehindService {
+    UserResponseDtoWrapper<PendingUserDto> enqueueUser(CreateUserRequestDto requestDto);
+
+    UserResponseDtoWrapper<PendingUserDto> getPendingUser(String trackingId);
+}
@@ -0,0 +1,7 @@
+package com.example.usersapi.service.impl;
+
+/**
+ * A value taken from a bulk request together with its position in that request.
+ */
+public record BatchItem<T>(int index, T value) {
+}
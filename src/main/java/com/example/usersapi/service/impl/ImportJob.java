@@ -0,0 +1,94 @@
+package com.example.usersapi.service.impl;
+
+import com.example.usersapi.dto.ImportJobState;
+import com.example.usersapi.dto.ImportJobStatusDto;
+import com.example.usersapi.dto.ImportRejectionDto;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a single import, updated concurrently by the reader, validator and writer stages.
+ */
+class ImportJob {
+    private final String id;
+    private final int maxRejections;
+    private final Instant startedAt = Instant.now();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsImported = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private final AtomicInteger rejectionsKept = new AtomicInteger();
+    private final Queue<ImportRejectionDto> rejections = new ConcurrentLinkedQueue<>();
+    private volatile ImportJobState state = ImportJobState.RUNNING;
+    private volatile String failure;
+    private volatile Instant finishedAt;
+
+    ImportJob(String id, int maxRejections) {
+        this.id = id;
+        this.maxRejections = maxRejections;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    boolean isFailed() {
+        return state == ImportJobState.FAILED;
+    }
+
+    boolean isFinished() {
+        return state != ImportJobState.RUNNING;
+    }
+
+    void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    void imported(int rows) {
+        rowsImported.addAndGet(rows);
+    }
+
+    void reject(long line, List<String> errors) {
+        rowsRejected.incrementAndGet();
+        if (rejectionsKept.getAndIncrement() < maxRejections) {
+            rejections.add(new ImportRejectionDto(line, errors));
+        }
+    }
+
+    void complete() {
+        if (!isFailed()) {
+            finishedAt = Instant.now();
+            state = ImportJobState.COMPLETED;
+        }
+    }
+
+    void fail(String reason) {
+        if (!isFailed()) {
+            failure = reason;
+            finishedAt = Instant.now();
+            state = ImportJobState.FAILED;
+        }
+    }
+
+    ImportJobStatusDto toDto() {
+        Instant end = finishedAt == null ? Instant.now() : finishedAt;
+        double seconds = Math.max(Duration.between(startedAt, end).toMillis(), 1) / 1000.0;
+        ImportJobStatusDto statusDto = new ImportJobStatusDto();
+        statusDto.setJobId(id);
+        statusDto.setState(state);
+        statusDto.setFailure(failure);
+        statusDto.setRowsRead(rowsRead.get());
+        statusDto.setRowsImported(rowsImported.get());
+        statusDto.setRowsRejected(rowsRejected.get());
+        statusDto.setRowsPerSecond((rowsImported.get() + rowsRejected.get()) / seconds);
+        statusDto.setStartedAt(startedAt);
+        statusDto.setFinishedAt(finishedAt);
+        statusDto.setRejections(new ArrayList<>(rejections));
+        return statusDto;
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.usersapi.service.impl;
+
+import com.example.usersapi.cache.UserCache;
+import com.example.usersapi.dto.CreateUserRequestDto;
+import com.example.usersapi.dto.SearchCursor;
+import com.example.usersapi.dto.UserCacheStatsDto;
+import com.example.usersapi.dto.UserPageDto;
+import com.example.usersapi.dto.UserPatchRequestDto;
+import com.example.usersapi.dto.UserResponseDto;
+import com.example.usersapi.dto.UserResponseDtoWrapper;
+import com.example.usersapi.exception.DatesOrderException;
+import com.example.usersapi.exception.EntityNotFoundException;
+import com.example.usersapi.exception.VersionConflictException;
+import com.example.usersapi.mapper.UserMapper;
+import com.example.usersapi.model.UserRecord;
+import com.example.usersapi.repository.ReactiveUserRepository;
+import com.example.usersapi.service.ReactiveUserService;
+import com.example.usersapi.util.DateCodec;
+import com.example.usersapi.util.EmailConstraints;
+import com.example.usersapi.validation.UserAgeValidator;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+    private final ReactiveUserRepository userRepository;
+    private final UserMapper userMapper;
+    private final UserCache userCache;
+    private final UserAgeValidator userAgeValidator;
+    @Value("${user.search.max-page-size:1000}")
+    private int maxPageSize;
+
+    @Override
+    public Mono<UserResponseDtoWrapper<UserResponseDto>> getUser(Long userId) {
+        return Mono.justOrEmpty(userCache.get(userId))
+                .switchIfEmpty(Mono.defer(() -> findUser(userId)
+                        .map(userMapper::toDto)
+                        .doOnNext(userCache::put)))
+                .map(UserResponseDtoWrapper::new);
+    }
+
+    @Override
+    public Mono<UserResponseDtoWrapper<UserResponseDto>> getUserByEmail(String email) {
+        return userRepository.findByNormalizedEmail(email)
+                .switchIfEmpty(Mono.error(() ->
+                        new EntityNotFoundException("There is no user with email " + email)))
+                .map(userMapper::toDto)
+                .doOnNext(userCache::put)
+                .map(UserResponseDtoWrapper::new);
+    }
+
+    @Override
+    public Mono<UserResponseDtoWrapper<UserResponseDto>> createUser(
+            CreateUserRequestDto requestDto) {
+        return Mono.fromCallable(() -> {
+            UserRecord user = userMapper.toRecord(requestDto);
+            userAgeValidator.validate(user.getBirthDate());
+            return user;
+        })
+                .flatMap(this::saveAndCache)
+                .onErrorMap(EmailConstraints::isDuplicateEmail,
+                        e -> EmailConstraints.duplicateEmail(requestDto.email()))
+                .map(UserResponseDtoWrapper::new);
+    }
+
+    @Override
+    public Mono<UserResponseDtoWrapper<UserResponseDto>> patchUser(
+            Long userId, Long expectedVersion, UserPatchRequestDto requestDto) {
+        return findUser(userId, expectedVersion)
+                .doOnNext(user -> userMapper.updateRecord(requestDto, user))
+                .flatMap(this::saveAndCache)
+                .onErrorMap(OptimisticLockingFailureException.class,
+                        e -> versionConflict(userId, expectedVersion))
+                .onErrorMap(EmailConstraints::isDuplicateEmail,
+                        e -> EmailConstraints.duplicateEmail(requestDto.email()))
+                .map(UserResponseDtoWrapper::new);
+    }
+
+    @Override
+    public Mono<UserResponseDtoWrapper<UserResponseDto>> updateUser(
+            Long userId, Long expectedVersion, CreateUserRequestDto requestDto) {
+        return findUser(userId, expectedVersion)
+                .map(existing -> {
+                    UserRecord user = userMapper.toRecord(requestDto);
+                    user.setId(userId);
+                    user.setVersion(existing.getVersion());
+                    return user;
+                })
+                .flatMap(this::saveAndCache)
+                .onErrorMap(OptimisticLockingFailureException.class,
+                        e -> versionConflict(userId, expectedVersion))
+                .onErrorMap(EmailConstraints::isDuplicateEmail,
+                        e -> EmailConstraints.duplicateEmail(requestDto.email()))
+                .map(UserResponseDtoWrapper::new);
+    }
+
+    @Override
+    public Mono<Void> deleteUser(Long userId) {
+        return userRepository.deleteUserById(userId)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.<Void>error(new EntityNotFoundException(
+                                "There is no user with id " + userId))
+                        : Mono.<Void>fromRunnable(() -> userCache.evict(userId)));
+    }
+
+    @Override
+    public Flux<UserResponseDto> searchByBirthDates(String fromDate, String toDate) {
+        return Flux.defer(() -> {
+            LocalDate from = DateCodec.parse(fromDate);
+            LocalDate to = DateCodec.parse(toDate);
+            checkDatesOrder(from, to);
+            return userRepository.findByBirthDateBetween(from, to)
+                    .map(userMapper::toDto);
+        });
+    }
+
+    @Override
+    public Mono<UserResponseDtoWrapper<UserPageDto>> searchByBirthDates(
+            String fromDate, String toDate, String cursor, int size) {
+        return Mono.defer(() -> {
+            LocalDate from = DateCodec.parse(fromDate);
+            LocalDate to = DateCodec.parse(toDate);
+            checkDatesOrder(from, to);
+            SearchCursor after = cursor == null
+                    ? new SearchCursor(from, Long.MIN_VALUE)
+                    : SearchCursor.decode(cursor);
+            int pageSize = Math.max(1, Math.min(size, maxPageSize));
+            return userRepository.findPageByBirthDateBetween(
+                            from, to, after.birthDate(), after.id(), pageSize + 1)
+                    .collectList()
+                    .map(users -> toPage(users, pageSize));
+        });
+    }
+
+    @Override
+    public Mono<UserResponseDtoWrapper<UserCacheStatsDto>> getCacheStats() {
+        return Mono.fromSupplier(() -> new UserResponseDtoWrapper<>(userCache.stats()));
+    }
+
+    private UserResponseDtoWrapper<UserPageDto> toPage(List<UserRecord> users, int pageSize) {
+        UserPageDto page = new UserPageDto();
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            UserRecord last = users.get(pageSize - 1);
+            page.setNextCursor(new SearchCursor(last.getBirthDate(), last.getId()).encode());
+        }
+        page.setUsers(users.stream()
+                .map(userMapper::toDto)
+                .toList());
+        return new UserResponseDtoWrapper<>(page);
+    }
+
+    private Mono<UserRecord> findUser(Long userId) {
+        return userRepository.findById(userId)
+                .switchIfEmpty(Mono.error(() ->
+                        new EntityNotFoundException("There is no user with id " + userId)));
+    }
+
+    /**
+     * Loads the user to update. Saving it then only matches the version that was loaded, so a
+     * write made in between fails with an optimistic locking error.
+     */
+    private Mono<UserRecord> findUser(Long userId, Long expectedVersion) {
+        return findUser(userId)
+                .filter(user -> expectedVersion == null
+                        || expectedVersion.equals(user.getVersion()))
+                .switchIfEmpty(Mono.error(() -> versionConflict(userId, expectedVersion)));
+    }
+
+    private VersionConflictException versionConflict(Long userId, Long expectedVersion) {
+        return new VersionConflictException(expectedVersion == null
+                ? "User with id " + userId + " was modified concurrently"
+                : "User with id " + userId + " was modified since version " + expectedVersion);
+    }
+
+    private Mono<UserResponseDto> saveAndCache(UserRecord user) {
+        return userRepository.save(user)
+                .map(userMapper::toDto)
+                .doOnNext(userCache::put);
+    }
+
+    private void checkDatesOrder(LocalDate from, LocalDate to) {
+        if (to.isBefore(from) || to.isEqual(from)) {
+            throw new DatesOrderException("'From date' must be before 'to date'");
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.usersapi.service.impl;
+
+import com.example.usersapi.cache.UserDataVersion;
+import com.example.usersapi.routing.ReplicaRouting;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs identical concurrent searches once. The first caller of a key runs the search, and
+ * callers arriving while it runs wait for it and receive the same result instead of querying
+ * again. Nothing is kept once the search completes.
+ *
+ * <p>A search only takes in callers that arrive before the next committed write. A caller
+ * arriving after a write starts a search of its own, because the running one may have read
+ * the users before the write and the caller may already have seen it.
+ */
+@Component
+@Profile("!reactive")
+public class SearchCoalescer implements MeterBinder {
+    public static final String SEARCHES = "users.search.coalescing";
+    private final UserDataVersion userDataVersion;
+    private final Map<FlightKey, Flight> flights = new ConcurrentHashMap<>();
+    private Counter executed;
+    private Counter deduplicated;
+
+    public SearchCoalescer(UserDataVersion userDataVersion) {
+        this.userDataVersion = userDataVersion;
+    }
+
+    /**
+     * Returns the result of the running search equal to {@code search}, or runs
+     * {@code runSearch}. Searches must be equal exactly when their results are, so they are
+     * built from parsed parameters.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T coalesce(Object search, Supplier<T> runSearch) {
+        long version = userDataVersion.current().version();
+        // A search read from a replica may lag behind writes the caller has to see
+        FlightKey key = new FlightKey(search, ReplicaRouting.isPrimaryRequired());
+        Flight started = new Flight(version);
+        Flight flight = flights.compute(key, (k, running) ->
+                running != null && running.version >= version ? running : started);
+        if (flight != started) {
+            count(deduplicated);
+            try {
+                return (T) flight.result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        count(executed);
+        try {
+            T result = runSearch.get();
+            started.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            started.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            // A search started after a write may have replaced this one already
+            flights.remove(key, started);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        executed = Counter.builder(SEARCHES)
+                .tag("outcome", "executed")
+                .register(registry);
+        deduplicated = Counter.builder(SEARCHES)
+                .tag("outcome", "deduplicated")
+                .description("Searches answered by an identical search already running")
+                .register(registry);
+        Gauge.builder(SEARCHES + ".in_flight", flights, Map::size)
+                .register(registry);
+    }
+
+    private static void count(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    private record FlightKey(Object search, boolean primary) {
+    }
+
+    private static final class Flight {
+        private final long version;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Flight(long version) {
+            this.version = version;
+        }
+    }
+}
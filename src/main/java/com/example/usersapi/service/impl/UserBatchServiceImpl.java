@@ -0,0 +1,122 @@
+package com.example.usersapi.service.impl;
+
+import static com.example.usersapi.service.impl.UserBatchWriter.failure;
+
+import com.example.usersapi.dto.BatchItemResultDto;
+import com.example.usersapi.dto.CreateUserRequestDto;
+import com.example.usersapi.dto.UserBatchPatchRequestDto;
+import com.example.usersapi.dto.UserResponseDtoWrapper;
+import com.example.usersapi.exception.BatchLimitException;
+import com.example.usersapi.exception.RegistrationException;
+import com.example.usersapi.mapper.UserMapper;
+import com.example.usersapi.model.User;
+import com.example.usersapi.service.UserBatchService;
+import com.example.usersapi.validation.UserAgeValidator;
+import jakarta.validation.Validator;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+/**
+ * Validates a whole batch up front, without touching the database, and hands the valid items
+ * over to {@link UserBatchWriter}.
+ */
+@Service
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class UserBatchServiceImpl implements UserBatchService {
+    private final UserMapper userMapper;
+    private final UserAgeValidator userAgeValidator;
+    private final Validator validator;
+    private final UserBatchWriter userBatchWriter;
+    @Value("${user.batch.max-size}")
+    private int maxSize;
+
+    @Override
+    public UserResponseDtoWrapper<List<BatchItemResultDto>> createUsers(
+            List<CreateUserRequestDto> requestDtos) {
+        checkBatchSize(requestDtos);
+        BatchItemResultDto[] results = new BatchItemResultDto[requestDtos.size()];
+        List<BatchItem<User>> valid = new ArrayList<>();
+        for (int i = 0; i < requestDtos.size(); i++) {
+            CreateUserRequestDto requestDto = requestDtos.get(i);
+            List<String> errors = validate(requestDto);
+            if (errors.isEmpty()) {
+                try {
+                    User user = userMapper.toModel(requestDto);
+                    userAgeValidator.validate(user.getBirthDate());
+                    valid.add(new BatchItem<>(i, user));
+                } catch (DateTimeParseException | RegistrationException e) {
+                    errors = List.of(e.getMessage());
+                }
+            }
+            if (!errors.isEmpty()) {
+                results[i] = failure(i, null, errors);
+            }
+        }
+        userBatchWriter.insert(valid).forEach(result -> results[result.getIndex()] = result);
+        return new UserResponseDtoWrapper<>(Arrays.asList(results));
+    }
+
+    @Override
+    public UserResponseDtoWrapper<List<BatchItemResultDto>> patchUsers(
+            List<UserBatchPatchRequestDto> requestDtos) {
+        checkBatchSize(requestDtos);
+        BatchItemResultDto[] results = new BatchItemResultDto[requestDtos.size()];
+        List<BatchItem<UserBatchPatchRequestDto>> valid = new ArrayList<>();
+        for (int i = 0; i < requestDtos.size(); i++) {
+            UserBatchPatchRequestDto requestDto = requestDtos.get(i);
+            List<String> errors = validate(requestDto);
+            if (errors.isEmpty()) {
+                try {
+                    userMapper.updateModel(requestDto.changes(), new User());
+                    valid.add(new BatchItem<>(i, requestDto));
+                } catch (DateTimeParseException e) {
+                    errors = List.of(e.getMessage());
+                }
+            }
+            if (!errors.isEmpty()) {
+                results[i] = failure(i, requestDto == null ? null : requestDto.id(), errors);
+            }
+        }
+        userBatchWriter.patch(valid).forEach(result -> results[result.getIndex()] = result);
+        return new UserResponseDtoWrapper<>(Arrays.asList(results));
+    }
+
+    @Override
+    public UserResponseDtoWrapper<List<BatchItemResultDto>> deleteUsers(List<Long> userIds) {
+        checkBatchSize(userIds);
+        BatchItemResultDto[] results = new BatchItemResultDto[userIds.size()];
+        List<BatchItem<Long>> valid = new ArrayList<>();
+        for (int i = 0; i < userIds.size(); i++) {
+            if (userIds.get(i) == null) {
+                results[i] = failure(i, null, List.of("User id must not be null"));
+            } else {
+                valid.add(new BatchItem<>(i, userIds.get(i)));
+            }
+        }
+        userBatchWriter.delete(valid).forEach(result -> results[result.getIndex()] = result);
+        return new UserResponseDtoWrapper<>(Arrays.asList(results));
+    }
+
+    private List<String> validate(Object requestDto) {
+        if (requestDto == null) {
+            return List.of("Batch item must not be null");
+        }
+        return validator.validate(requestDto).stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .toList();
+    }
+
+    private void checkBatchSize(List<?> items) {
+        if (items.size() > maxSize) {
+            throw new BatchLimitException(
+                    String.format("A batch can contain at most %s items", maxSize));
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.usersapi.service.impl;
+
+import com.example.usersapi.cache.UserCache;
+import com.example.usersapi.dto.BatchItemResultDto;
+import com.example.usersapi.dto.UserBatchPatchRequestDto;
+import com.example.usersapi.dto.UserResponseDto;
+import com.example.usersapi.event.UserChangedEvent;
+import com.example.usersapi.mapper.UserMapper;
+import com.example.usersapi.model.User;
+import com.example.usersapi.repository.UserRepository;
+import com.example.usersapi.util.EmailConstraints;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes already validated items in transactions of {@code user.batch.chunk-size}.
+ * A chunk that fails to commit is retried item by item so that a single bad row is reported
+ * on its own instead of failing its neighbours.
+ */
+@Component
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class UserBatchWriter {
+    public static final String DUPLICATE_EMAIL = "email already exists";
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final UserCache userCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    @Value("${user.batch.chunk-size}")
+    private int chunkSize;
+
+    public List<BatchItemResultDto> insert(List<BatchItem<User>> items) {
+        return writeInChunks(items, this::insertChunk,
+                result -> saved(result, UserChangedEvent::created));
+    }
+
+    public List<BatchItemResultDto> patch(List<BatchItem<UserBatchPatchRequestDto>> items) {
+        // Patches without fields leave their users as they are
+        Set<Integer> unchanged = items.stream()
+                .filter(item -> !item.value().changes().hasChanges())
+                .map(BatchItem::index)
+                .collect(Collectors.toSet());
+        return writeInChunks(items, this::patchChunk, result -> {
+            if (!unchanged.contains(result.getIndex())) {
+                saved(result, UserChangedEvent::updated);
+            }
+        });
+    }
+
+    public List<BatchItemResultDto> delete(List<BatchItem<Long>> items) {
+        return writeInChunks(items, this::deleteChunk, result -> {
+            userCache.evict(result.getId());
+            eventPublisher.publishEvent(UserChangedEvent.deleted(result.getId()));
+        });
+    }
+
+    public static BatchItemResultDto success(int index, Long userId, UserResponseDto user) {
+        BatchItemResultDto result = new BatchItemResultDto();
+        result.setIndex(index);
+        result.setId(userId);
+        result.setSuccess(true);
+        result.setUser(user);
+        result.setErrors(List.of());
+        return result;
+    }
+
+    public static BatchItemResultDto failure(int index, Long userId, List<String> errors) {
+        BatchItemResultDto result = new BatchItemResultDto();
+        result.setIndex(index);
+        result.setId(userId);
+        result.setSuccess(false);
+        result.setErrors(errors);
+        return result;
+    }
+
+    private List<BatchItemResultDto> insertChunk(List<BatchItem<User>> chunk) {
+        // Ids and versions set by a rolled back attempt are discarded so the users are inserted
+        // again instead of being merged
+        chunk.forEach(item -> {
+            item.value().setId(null);
+            item.value().setVersion(null);
+        });
+        List<User> saved = userRepository.saveAll(chunk.stream()
+                .map(BatchItem::value)
+                .toList());
+        userRepository.flush();
+        List<BatchItemResultDto> written = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            UserResponseDto user = userMapper.toDto(saved.get(i));
+            written.add(success(chunk.get(i).index(), user.getId(), user));
+        }
+        return written;
+    }
+
+    private List<BatchItemResultDto> patchChunk(List<BatchItem<UserBatchPatchRequestDto>> chunk) {
+        Map<Long, User> users = userRepository.findAllById(chunk.stream()
+                        .map(item -> item.value().id())
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        chunk.stream()
+                .filter(item -> users.containsKey(item.value().id()))
+                .forEach(item -> userMapper.updateModel(
+                        item.value().changes(), users.get(item.value().id())));
+        userRepository.flush();
+        return chunk.stream()
+                .map(item -> {
+                    Long userId = item.value().id();
+                    User user = users.get(userId);
+                    return user == null
+                            ? notFound(item.index(), userId)
+                            : success(item.index(), userId, userMapper.toDto(user));
+                })
+                .toList();
+    }
+
+    private List<BatchItemResultDto> deleteChunk(List<BatchItem<Long>> chunk) {
+        Set<Long> existing = new HashSet<>(userRepository.findExistingIds(chunk.stream()
+                .map(BatchItem::value)
+                .collect(Collectors.toSet())));
+        userRepository.deleteAllByIdInBatch(existing);
+        return chunk.stream()
+                .map(item -> existing.contains(item.value())
+                        ? success(item.index(), item.value(), null)
+                        : notFound(item.index(), item.value()))
+                .toList();
+    }
+
+    private <T> List<BatchItemResultDto> writeInChunks(
+            List<BatchItem<T>> items,
+            Function<List<BatchItem<T>>, List<BatchItemResultDto>> writer,
+            Consumer<BatchItemResultDto> afterCommit
+    ) {
+        List<BatchItemResultDto> results = new ArrayList<>(items.size());
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            List<BatchItem<T>> chunk =
+                    items.subList(from, Math.min(from + chunkSize, items.size()));
+            List<BatchItemResultDto> written;
+            try {
+                written = transactionTemplate.execute(status -> writer.apply(chunk));
+            } catch (DataAccessException e) {
+                written = chunk.stream()
+                        .map(item -> writeSingle(item, writer))
+                        .toList();
+            }
+            for (BatchItemResultDto result : written) {
+                if (result.isSuccess()) {
+                    afterCommit.accept(result);
+                }
+            }
+            results.addAll(written);
+        }
+        return results;
+    }
+
+    private <T> BatchItemResultDto writeSingle(
+            BatchItem<T> item, Function<List<BatchItem<T>>, List<BatchItemResultDto>> writer) {
+        try {
+            return transactionTemplate.execute(status -> writer.apply(List.of(item))).get(0);
+        } catch (DataAccessException e) {
+            Long userId = item.value() instanceof Long id ? id : null;
+            String error = EmailConstraints.isDuplicateEmail(e)
+                    ? DUPLICATE_EMAIL
+                    : e.getMostSpecificCause().getMessage();
+            return failure(item.index(), userId, List.of(error));
+        }
+    }
+
+    private void saved(
+            BatchItemResultDto result, Function<UserResponseDto, UserChangedEvent> event) {
+        userCache.put(result.getUser());
+        eventPublisher.publishEvent(event.apply(result.getUser()));
+    }
+
+    private BatchItemResultDto notFound(int index, Long userId) {
+        return failure(index, userId, List.of("There is no user with id " + userId));
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.usersapi.service.impl;
+
+import com.example.usersapi.dto.UserDataFormat;
+import com.example.usersapi.exception.DatesOrderException;
+import com.example.usersapi.service.UserExportService;
+import com.example.usersapi.util.CsvFormat;
+import com.example.usersapi.util.DateCodec;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Streams users straight from a forward-only JDBC cursor into the response. Rows are never
+ * materialized as entities or DTOs, so memory use does not depend on the number of rows.
+ */
+@Service
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class UserExportServiceImpl implements UserExportService {
+    private static final String SELECT_USERS = "SELECT id, email, first_name, last_name,"
+            + " birth_date, address, phone_number FROM users";
+    private static final String CSV_HEADER =
+            "id,email,firstName,lastName,birthDate,address,phoneNumber\n";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    @Value("${user.export.fetch-size}")
+    private int fetchSize;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportUsers(
+            String fromDate, String toDate, UserDataFormat format, Supplier<OutputStream> target) {
+        LocalDate from = fromDate == null ? null : DateCodec.parse(fromDate);
+        LocalDate to = toDate == null ? null : DateCodec.parse(toDate);
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new DatesOrderException("'From date' must be before 'to date'");
+        }
+        List<Object> args = new ArrayList<>(2);
+        StringBuilder sql = new StringBuilder(SELECT_USERS);
+        if (from != null || to != null) {
+            sql.append(" WHERE 1 = 1");
+            if (from != null) {
+                sql.append(" AND birth_date >= ?");
+                args.add(from);
+            }
+            if (to != null) {
+                sql.append(" AND birth_date <= ?");
+                args.add(to);
+            }
+            sql.append(" ORDER BY birth_date, id");
+        } else {
+            sql.append(" ORDER BY id");
+        }
+
+        try (OutputStream out = target.get()) {
+            if (format == UserDataFormat.NDJSON) {
+                exportJson(sql.toString(), args, out);
+            } else {
+                exportCsv(sql.toString(), args, out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void exportCsv(String sql, List<Object> args, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(CSV_HEADER);
+        StringBuilder line = new StringBuilder(256);
+        query(sql, args, rs -> {
+            line.setLength(0);
+            line.append(rs.getLong(1));
+            for (int column = 2; column <= 7; column++) {
+                line.append(',');
+                if (column != 5) {
+                    CsvFormat.appendField(line, rs.getString(column));
+                    continue;
+                }
+                LocalDate birthDate = rs.getObject(column, LocalDate.class);
+                if (birthDate != null) {
+                    DateCodec.appendTo(line, birthDate);
+                }
+            }
+            line.append('\n');
+            try {
+                writer.append(line);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private void exportJson(String sql, List<Object> args, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        query(sql, args, rs -> {
+            try {
+                generator.writeStartObject();
+                generator.writeNumberField("id", rs.getLong(1));
+                generator.writeStringField("email", rs.getString(2));
+                generator.writeStringField("firstName", rs.getString(3));
+                generator.writeStringField("lastName", rs.getString(4));
+                generator.writeStringField("birthDate", formatDate(rs));
+                generator.writeStringField("address", rs.getString(6));
+                generator.writeStringField("phoneNumber", rs.getString(7));
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.close();
+    }
+
+    private void query(String sql, List<Object> args, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        }, handler);
+    }
+
+    private String formatDate(ResultSet rs) throws SQLException {
+        LocalDate birthDate = rs.getObject(5, LocalDate.class);
+        return birthDate == null ? null : DateCodec.format(birthDate);
+    }
+}
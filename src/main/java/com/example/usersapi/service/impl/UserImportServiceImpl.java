@@ -0,0 +1,372 @@
+package com.example.usersapi.service.impl;
+
+import com.example.usersapi.dto.BatchItemResultDto;
+import com.example.usersapi.dto.CreateUserRequestDto;
+import com.example.usersapi.dto.ImportJobStatusDto;
+import com.example.usersapi.dto.UserDataFormat;
+import com.example.usersapi.dto.UserResponseDtoWrapper;
+import com.example.usersapi.exception.EntityNotFoundException;
+import com.example.usersapi.exception.IngestionUnavailableException;
+import com.example.usersapi.exception.RegistrationException;
+import com.example.usersapi.mapper.UserMapper;
+import com.example.usersapi.model.User;
+import com.example.usersapi.service.UserImportService;
+import com.example.usersapi.util.CsvFormat;
+import com.example.usersapi.validation.UserAgeValidator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Imports a streamed CSV or NDJSON body through three stages connected by bounded queues:
+ * the request thread reads raw lines, a pool of workers parses and validates them and a
+ * single writer persists valid users in batches. A full queue blocks the stage feeding it,
+ * so memory stays bounded by the queue capacities whatever the size of the body.
+ *
+ * <p>The job is announced before the body is read, so its progress can be polled while it
+ * runs. At most {@code user.import.max-concurrent} imports run at a time; further imports
+ * are refused rather than queued behind them.
+ */
+@Service
+@Profile("!reactive")
+public class UserImportServiceImpl implements UserImportService {
+    private static final List<String> CSV_COLUMNS = List.of(
+            "email", "firstName", "lastName", "birthDate", "address", "phoneNumber");
+    private static final String BYTE_ORDER_MARK = "\uFEFF";
+    private static final long POLL_MILLIS = 100;
+    private final UserMapper userMapper;
+    private final UserAgeValidator userAgeValidator;
+    private final Validator validator;
+    private final UserBatchWriter userBatchWriter;
+    private final ObjectMapper objectMapper;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final Queue<String> jobOrder = new ConcurrentLinkedQueue<>();
+    private final SimpleAsyncTaskExecutor executor;
+    private final AtomicInteger running = new AtomicInteger();
+    @Value("${user.import.workers}")
+    private int workers;
+    @Value("${user.import.queue-capacity}")
+    private int queueCapacity;
+    @Value("${user.import.read-batch-size}")
+    private int readBatchSize;
+    @Value("${user.import.write-batch-size}")
+    private int writeBatchSize;
+    @Value("${user.import.max-rejections}")
+    private int maxRejections;
+    @Value("${user.import.retained-jobs}")
+    private int retainedJobs;
+    @Value("${user.import.max-concurrent}")
+    private int maxConcurrent;
+
+    public UserImportServiceImpl(
+            UserMapper userMapper,
+            UserAgeValidator userAgeValidator,
+            Validator validator,
+            UserBatchWriter userBatchWriter,
+            ObjectMapper objectMapper,
+            Environment environment
+    ) {
+        this.userMapper = userMapper;
+        this.userAgeValidator = userAgeValidator;
+        this.validator = validator;
+        this.userBatchWriter = userBatchWriter;
+        this.objectMapper = objectMapper;
+        // Stages block on queues and JDBC, so they run on virtual threads when those are enabled
+        this.executor = new SimpleAsyncTaskExecutor("user-import-");
+        this.executor.setDaemon(true);
+        this.executor.setVirtualThreads(Threading.VIRTUAL.isActive(environment));
+    }
+
+    @Override
+    public UserResponseDtoWrapper<ImportJobStatusDto> importUsers(
+            InputStream body, UserDataFormat format, Consumer<ImportJobStatusDto> started) {
+        if (running.incrementAndGet() > maxConcurrent) {
+            running.decrementAndGet();
+            throw new IngestionUnavailableException(
+                    "Too many imports are running, the limit is " + maxConcurrent);
+        }
+        try {
+            return runImport(body, format, started);
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    @Override
+    public UserResponseDtoWrapper<ImportJobStatusDto> getJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new EntityNotFoundException("There is no import job with id " + jobId);
+        }
+        return new UserResponseDtoWrapper<>(job.toDto());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.close();
+    }
+
+    private UserResponseDtoWrapper<ImportJobStatusDto> runImport(
+            InputStream body, UserDataFormat format, Consumer<ImportJobStatusDto> started) {
+        ImportJob job = registerJob();
+        BlockingQueue<List<Row>> rows = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<List<BatchItem<User>>> users = new ArrayBlockingQueue<>(queueCapacity);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            started.accept(job.toDto());
+            int line = 0;
+            Function<String, CreateUserRequestDto> parser;
+            if (format == UserDataFormat.CSV) {
+                String header = reader.readLine();
+                line++;
+                parser = csvParser(header == null ? "" : header);
+            } else {
+                parser = this::parseJson;
+            }
+            CountDownLatch validated = new CountDownLatch(workers);
+            for (int i = 0; i < workers; i++) {
+                executor.execute(() -> validate(job, parser, rows, users, validated));
+            }
+            final Future<?> writer = executor.submit(() -> write(job, users));
+
+            List<Row> batch = new ArrayList<>(readBatchSize);
+            for (String text = reader.readLine(); text != null; text = reader.readLine()) {
+                line++;
+                final int first = line;
+                String record = text;
+                if (format == UserDataFormat.CSV && CsvFormat.hasUnbalancedQuotes(text)) {
+                    StringBuilder quoted = new StringBuilder(text);
+                    line += readQuotedLines(reader, quoted);
+                    record = quoted.toString();
+                }
+                if (record.isBlank()) {
+                    continue;
+                }
+                job.rowRead();
+                batch.add(new Row(first, record));
+                if (batch.size() == readBatchSize) {
+                    put(job, rows, batch);
+                    batch = new ArrayList<>(readBatchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                put(job, rows, batch);
+            }
+            // An empty batch tells each stage that its input is exhausted
+            for (int i = 0; i < workers; i++) {
+                put(job, rows, List.of());
+            }
+            validated.await();
+            put(job, users, List.of());
+            writer.get();
+            job.complete();
+        } catch (IOException | IllegalArgumentException e) {
+            job.fail(e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("Import was interrupted");
+        } catch (Exception e) {
+            job.fail("Import failed: " + e.getMessage());
+        }
+        return new UserResponseDtoWrapper<>(job.toDto());
+    }
+
+    /**
+     * Appends the lines that continue a quoted field up to the one closing it, and returns
+     * how many were read. At the end of the input the field stays open, and parsing the
+     * record rejects it.
+     */
+    private static int readQuotedLines(BufferedReader reader, StringBuilder record)
+            throws IOException {
+        int read = 0;
+        for (String text = reader.readLine(); text != null; text = reader.readLine()) {
+            read++;
+            record.append('\n').append(text);
+            if (CsvFormat.hasUnbalancedQuotes(text)) {
+                break;
+            }
+        }
+        return read;
+    }
+
+    private void validate(
+            ImportJob job,
+            Function<String, CreateUserRequestDto> parser,
+            BlockingQueue<List<Row>> rows,
+            BlockingQueue<List<BatchItem<User>>> users,
+            CountDownLatch validated
+    ) {
+        try {
+            for (List<Row> batch = take(job, rows); !batch.isEmpty(); batch = take(job, rows)) {
+                List<BatchItem<User>> valid = new ArrayList<>(batch.size());
+                for (Row row : batch) {
+                    try {
+                        CreateUserRequestDto requestDto = parser.apply(row.text());
+                        List<String> errors = validator.validate(requestDto).stream()
+                                .map(violation -> violation.getPropertyPath()
+                                        + " " + violation.getMessage())
+                                .toList();
+                        if (!errors.isEmpty()) {
+                            job.reject(row.line(), errors);
+                            continue;
+                        }
+                        User user = userMapper.toModel(requestDto);
+                        userAgeValidator.validate(user.getBirthDate());
+                        valid.add(new BatchItem<>(row.line(), user));
+                    } catch (IllegalArgumentException | DateTimeParseException
+                             | RegistrationException e) {
+                        job.reject(row.line(), List.of(e.getMessage()));
+                    }
+                }
+                if (!valid.isEmpty()) {
+                    put(job, users, valid);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("Import was interrupted");
+        } catch (RuntimeException e) {
+            job.fail("Validation failed: " + e.getMessage());
+        } finally {
+            validated.countDown();
+        }
+    }
+
+    private void write(ImportJob job, BlockingQueue<List<BatchItem<User>>> users) {
+        try {
+            List<BatchItem<User>> pending = new ArrayList<>(writeBatchSize);
+            for (List<BatchItem<User>> batch = take(job, users); !batch.isEmpty();
+                    batch = take(job, users)) {
+                pending.addAll(batch);
+                if (pending.size() >= writeBatchSize) {
+                    flush(job, pending);
+                    pending = new ArrayList<>(writeBatchSize);
+                }
+            }
+            flush(job, pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("Import was interrupted");
+        } catch (RuntimeException e) {
+            job.fail("Write failed: " + e.getMessage());
+        }
+    }
+
+    private void flush(ImportJob job, List<BatchItem<User>> pending) {
+        int imported = 0;
+        for (BatchItemResultDto result : userBatchWriter.insert(pending)) {
+            if (result.isSuccess()) {
+                imported++;
+            } else {
+                job.reject(result.getIndex(), result.getErrors());
+            }
+        }
+        job.imported(imported);
+    }
+
+    private Function<String, CreateUserRequestDto> csvParser(String header) {
+        Map<String, Integer> positions = new HashMap<>();
+        List<String> columns = CsvFormat.parseLine(header.replace(BYTE_ORDER_MARK, ""));
+        for (int i = 0; i < columns.size(); i++) {
+            positions.put(columns.get(i).trim(), i);
+        }
+        for (String column : CSV_COLUMNS.subList(0, 4)) {
+            if (!positions.containsKey(column)) {
+                throw new IllegalArgumentException("CSV header is missing column " + column);
+            }
+        }
+        return text -> {
+            List<String> fields = CsvFormat.parseLine(text);
+            String[] values = new String[CSV_COLUMNS.size()];
+            for (int i = 0; i < values.length; i++) {
+                Integer position = positions.get(CSV_COLUMNS.get(i));
+                if (position != null && position < fields.size()
+                        && !fields.get(position).isEmpty()) {
+                    values[i] = fields.get(position);
+                }
+            }
+            return new CreateUserRequestDto(
+                    values[0], values[1], values[2], values[3], values[4], values[5]);
+        };
+    }
+
+    private CreateUserRequestDto parseJson(String text) {
+        try {
+            return objectMapper.readValue(text, CreateUserRequestDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private ImportJob registerJob() {
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), maxRejections);
+        jobs.put(job.getId(), job);
+        jobOrder.add(job.getId());
+        while (jobs.size() > retainedJobs) {
+            String oldest = jobOrder.poll();
+            if (oldest == null) {
+                break;
+            }
+            ImportJob evicted = jobs.remove(oldest);
+            if (evicted != null && !evicted.isFinished()) {
+                jobs.put(oldest, evicted);
+                jobOrder.add(oldest);
+                break;
+            }
+        }
+        return job;
+    }
+
+    private <T> void put(ImportJob job, BlockingQueue<List<T>> queue, List<T> batch)
+            throws InterruptedException {
+        while (!queue.offer(batch, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (job.isFailed()) {
+                throw new IllegalStateException(job.toDto().getFailure());
+            }
+        }
+    }
+
+    private <T> List<T> take(ImportJob job, BlockingQueue<List<T>> queue)
+            throws InterruptedException {
+        List<T> batch = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        while (batch == null) {
+            if (job.isFailed()) {
+                return List.of();
+            }
+            batch = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return batch;
+    }
+
+    private record Row(int line, String text) {
+    }
+}
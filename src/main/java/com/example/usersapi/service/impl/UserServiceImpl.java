@@ -1,99 +1,384 @@
 package com.example.usersapi.service.impl;
 
+import com.example.usersapi.cache.UserCache;
 import com.example.usersapi.dto.CreateUserRequestDto;
+import com.example.usersapi.dto.CriteriaCursor;
+import com.example.usersapi.dto.SearchCursor;
+import com.example.usersapi.dto.UserCacheStatsDto;
+import com.example.usersapi.dto.UserPageDto;
 import com.example.usersapi.dto.UserPatchRequestDto;
 import com.example.usersapi.dto.UserResponseDto;
 import com.example.usersapi.dto.UserResponseDtoWrapper;
+import com.example.usersapi.dto.UserSearchRequestDto;
+import com.example.usersapi.event.UserChangedEvent;
 import com.example.usersapi.exception.DatesOrderException;
 import com.example.usersapi.exception.EntityNotFoundException;
-import com.example.usersapi.exception.RegistrationException;
+import com.example.usersapi.exception.InvalidSearchException;
+import com.example.usersapi.exception.VersionConflictException;
 import com.example.usersapi.mapper.UserMapper;
 import com.example.usersapi.model.User;
+import com.example.usersapi.model.UserSearchCriteria;
+import com.example.usersapi.model.UserSortField;
+import com.example.usersapi.model.UserView;
 import com.example.usersapi.repository.UserRepository;
+import com.example.usersapi.routing.ReplicaRouting;
+import com.example.usersapi.search.UserTextIndex;
 import com.example.usersapi.service.UserService;
+import com.example.usersapi.util.BirthDates;
+import com.example.usersapi.util.DateCodec;
+import com.example.usersapi.util.EmailConstraints;
+import com.example.usersapi.validation.UserAgeValidator;
 import java.time.LocalDate;
-import java.time.Period;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Profile("!reactive")
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
-    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    // A longer window would see the first birthdays twice
+    private static final int DAYS_IN_YEAR = 365;
     private final UserRepository userRepository;
     private final UserMapper userMapper;
-    @Value("${user.min.age}")
-    private int minAge;
+    private final UserCache userCache;
+    private final UserAgeValidator userAgeValidator;
+    private final UserTextIndex userTextIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SearchCoalescer searchCoalescer;
+    @Value("${user.search.max-page-size:1000}")
+    private int maxPageSize;
+
+    @Override
+    public UserResponseDtoWrapper<UserResponseDto> getUser(Long userId) {
+        UserResponseDto user = userCache.get(userId).orElseGet(() -> {
+            // Cached users must not lag behind, so they are loaded from the primary
+            UserResponseDto loaded = ReplicaRouting.onPrimary(() -> userRepository.findById(userId))
+                    .map(userMapper::toDto)
+                    .orElseThrow(() ->
+                            new EntityNotFoundException("There is no user with id " + userId));
+            userCache.put(loaded);
+            return loaded;
+        });
+        return new UserResponseDtoWrapper<>(user);
+    }
+
+    @Override
+    public UserResponseDtoWrapper<UserResponseDto> getUserByEmail(String email) {
+        // The user is cached, so it is loaded from the primary like in getUser
+        User user = ReplicaRouting.onPrimary(() -> userRepository.findByNormalizedEmail(email))
+                .orElseThrow(() ->
+                        new EntityNotFoundException("There is no user with email " + email));
+        return new UserResponseDtoWrapper<>(cache(user));
+    }
 
     @Override
     public UserResponseDtoWrapper<UserResponseDto> createUser(CreateUserRequestDto requestDto) {
         User user = userMapper.toModel(requestDto);
-        if (Period.between(user.getBirthDate(), LocalDate.now()).getYears() <= minAge) {
-            throw new RegistrationException(
-                    String.format("The user must be over %s years old", minAge));
-        }
-        return new UserResponseDtoWrapper<>(userMapper.toDto(userRepository.save(user)));
+        userAgeValidator.validate(user.getBirthDate());
+        return new UserResponseDtoWrapper<>(
+                rejectingDuplicateEmail(requestDto.email(), () -> saveAndCache(user)));
     }
 
     @Override
     public UserResponseDtoWrapper<UserResponseDto> patchUser(
-            Long userId, UserPatchRequestDto requestDto) {
-        User user = userRepository.findById(userId).orElseThrow(
-                () -> new EntityNotFoundException("There is no user with id " + userId));
-        if (requestDto.email() != null) {
-            user.setEmail(requestDto.email());
+            Long userId, Long expectedVersion, UserPatchRequestDto requestDto) {
+        User changes = new User();
+        userMapper.updateModel(requestDto, changes);
+        User user = rejectingDuplicateEmail(requestDto.email(),
+                () -> userRepository.updateNonNullFields(userId, expectedVersion, changes))
+                .orElseThrow(() -> updateFailure(userId, expectedVersion));
+        // A patch without fields leaves the user and its version as they are
+        return new UserResponseDtoWrapper<>(requestDto.hasChanges()
+                ? changed(user, UserChangedEvent::updated)
+                : cache(user));
+    }
+
+    @Override
+    public UserResponseDtoWrapper<UserResponseDto> updateUser(
+            Long userId, Long expectedVersion, CreateUserRequestDto requestDto) {
+        User changes = userMapper.toModel(requestDto);
+        User user = rejectingDuplicateEmail(requestDto.email(),
+                () -> userRepository.replace(userId, expectedVersion, changes))
+                .orElseThrow(() -> updateFailure(userId, expectedVersion));
+        return new UserResponseDtoWrapper<>(changed(user, UserChangedEvent::updated));
+    }
+
+    @Override
+    public void deleteUser(Long userId) {
+        if (userRepository.deleteUserById(userId) == 0) {
+            throw new EntityNotFoundException("There is no user with id " + userId);
         }
-        if (requestDto.firstName() != null) {
-            user.setFirstName(requestDto.firstName());
+        userCache.evict(userId);
+        eventPublisher.publishEvent(UserChangedEvent.deleted(userId));
+    }
+
+    @Override
+    public UserResponseDtoWrapper<List<UserResponseDto>> searchByBirthDates(
+            String fromDate, String toDate) {
+        LocalDate from = DateCodec.parse(fromDate);
+        LocalDate to = DateCodec.parse(toDate);
+        checkDatesOrder(from, to);
+        // Dashboards send the same range many times at once, so they share one query
+        return searchCoalescer.coalesce(new BirthDateRange(from, to), () ->
+                new UserResponseDtoWrapper<>(userRepository.findByBirthDateBetween(from, to)
+                        .stream()
+                        .map(userMapper::toDto)
+                        .toList()));
+    }
+
+    @Override
+    public UserResponseDtoWrapper<UserPageDto> searchByBirthDates(
+            String fromDate, String toDate, String cursor, int size) {
+        LocalDate from = DateCodec.parse(fromDate);
+        LocalDate to = DateCodec.parse(toDate);
+        checkDatesOrder(from, to);
+        return new UserResponseDtoWrapper<>(birthDatePage(from, to, cursor, size));
+    }
+
+    /**
+     * Pages through the users aged {@code minAge} to {@code maxAge} today, oldest first. The
+     * ages become one birth-date range, read from the same index as a birth-date search.
+     */
+    @Override
+    public UserResponseDtoWrapper<UserPageDto> searchByAge(
+            int minAge, int maxAge, String cursor, int size) {
+        if (minAge < 0 || maxAge < minAge) {
+            throw new InvalidSearchException("Ages must satisfy 0 <= minAge <= maxAge, got "
+                    + minAge + " and " + maxAge);
         }
-        if (requestDto.lastName() != null) {
-            user.setLastName(requestDto.lastName());
+        LocalDate today = LocalDate.now();
+        return new UserResponseDtoWrapper<>(birthDatePage(
+                BirthDates.earliestForAge(maxAge, today),
+                BirthDates.latestForAge(minAge, today),
+                cursor, size));
+    }
+
+    /**
+     * Pages through the users having a birthday in the {@code days} days starting at
+     * {@code fromDate}, or today, in the order the birthdays come. With an {@code age}, only
+     * the users turning that age are listed, which is a single birth-date range; otherwise
+     * the window is read from the index on the month and day of birth. Either way the cursor
+     * holds the birth date and id of the last user, since the birth date determines the
+     * birthday.
+     */
+    @Override
+    public UserResponseDtoWrapper<UserPageDto> searchUpcomingBirthdays(
+            String fromDate, int days, Integer age, String cursor, int size) {
+        if (days < 1 || days > DAYS_IN_YEAR) {
+            throw new InvalidSearchException(
+                    "Days must be between 1 and " + DAYS_IN_YEAR + ", got " + days);
         }
-        if (requestDto.birthDate() != null) {
-            user.setBirthDate(LocalDate.parse(requestDto.birthDate(), formatter));
+        if (age != null && age < 1) {
+            throw new InvalidSearchException("Age must be positive, got " + age);
         }
-        if (requestDto.address() != null) {
-            user.setAddress(requestDto.address());
+        LocalDate from = fromDate == null ? LocalDate.now() : DateCodec.parse(fromDate);
+        LocalDate to = from.plusDays(days - 1L);
+        if (age != null) {
+            return new UserResponseDtoWrapper<>(birthDatePage(
+                    BirthDates.earliestTurning(age, from), BirthDates.latestForAge(age, to),
+                    cursor, size));
         }
-        if (requestDto.phoneNumber() != null) {
-            user.setPhoneNumber(requestDto.phoneNumber());
+        int firstMonthDay = BirthDates.firstMonthDay(from);
+        SearchCursor after = cursor == null ? null : SearchCursor.decode(cursor);
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        List<UserView> users = userRepository.findByBirthdayBetween(
+                firstMonthDay, BirthDates.monthDay(to),
+                after == null ? firstMonthDay : BirthDates.monthDay(after.birthDate()),
+                after == null ? Long.MIN_VALUE : after.id(),
+                pageSize + 1);
+        UserPageDto page = new UserPageDto();
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            UserView last = users.get(pageSize - 1);
+            page.setNextCursor(new SearchCursor(last.birthDate(), last.id()).encode());
         }
-        return new UserResponseDtoWrapper<>(userMapper.toDto(userRepository.save(user)));
+        page.setUsers(users.stream()
+                .map(userMapper::toDto)
+                .toList());
+        return new UserResponseDtoWrapper<>(page);
     }
 
-    @Override
-    public UserResponseDtoWrapper<UserResponseDto> updateUser(
-            Long userId, CreateUserRequestDto requestDto) {
-        if (!userRepository.existsById(userId)) {
-            throw new EntityNotFoundException("There is no user with id " + userId);
+    private UserPageDto birthDatePage(LocalDate from, LocalDate to, String cursor, int size) {
+        SearchCursor after = cursor == null
+                ? new SearchCursor(from, Long.MIN_VALUE)
+                : SearchCursor.decode(cursor);
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        List<UserView> users = userRepository.findPageByBirthDateBetween(
+                from, to, after.birthDate(), after.id(), Limit.of(pageSize + 1));
+        UserPageDto page = new UserPageDto();
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            UserView last = users.get(pageSize - 1);
+            page.setNextCursor(new SearchCursor(last.birthDate(), last.id()).encode());
         }
-        User user = userMapper.toModel(requestDto);
-        user.setId(userId);
-        return new UserResponseDtoWrapper<>(userMapper.toDto(userRepository.save(user)));
+        page.setUsers(users.stream()
+                .map(userMapper::toDto)
+                .toList());
+        return page;
     }
 
     @Override
-    public void deleteUser(Long userId) {
-        if (!userRepository.existsById(userId)) {
-            throw new EntityNotFoundException("There is no user with id " + userId);
+    public UserResponseDtoWrapper<UserPageDto> searchByCriteria(
+            UserSearchRequestDto requestDto, String cursor, int size) {
+        UserSearchCriteria criteria = toCriteria(requestDto);
+        CriteriaCursor after = cursor == null
+                ? null
+                : CriteriaCursor.decode(cursor, criteria.sort());
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        List<UserView> users = userRepository.search(criteria, after, pageSize + 1);
+        UserPageDto page = new UserPageDto();
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            page.setNextCursor(
+                    CriteriaCursor.after(criteria.sort(), users.get(pageSize - 1)).encode());
         }
-        userRepository.deleteById(userId);
+        page.setUsers(users.stream()
+                .map(userMapper::toDto)
+                .toList());
+        return new UserResponseDtoWrapper<>(page);
     }
 
     @Override
-    public UserResponseDtoWrapper<List<UserResponseDto>> searchByBirthDates(
-            String fromDate, String toDate) {
-        LocalDate from = LocalDate.parse(fromDate, formatter);
-        LocalDate to = LocalDate.parse(toDate, formatter);
-        if (to.isBefore(from) || to.isEqual(from)) {
-            throw new DatesOrderException("'From date' must be before 'to date'");
+    public UserResponseDtoWrapper<List<UserResponseDto>> searchByText(String query, int size) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidSearchException("Search query must not be blank");
         }
-        List<UserResponseDto> result = userRepository.findByBirthDateBetween(from, to).stream()
+        List<Long> ids = userTextIndex.search(query, Math.max(1, Math.min(size, maxPageSize)));
+        Map<Long, User> users = userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        // Keeps the ranking of the index and skips users deleted since the index was refreshed
+        List<UserResponseDto> result = ids.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
                 .map(userMapper::toDto)
                 .toList();
         return new UserResponseDtoWrapper<>(result);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamByBirthDates(
+            String fromDate, String toDate, Consumer<UserResponseDto> consumer) {
+        LocalDate from = DateCodec.parse(fromDate);
+        LocalDate to = DateCodec.parse(toDate);
+        checkDatesOrder(from, to);
+        try (Stream<UserView> users = userRepository.streamByBirthDateBetween(from, to)) {
+            users.map(userMapper::toDto)
+                    .forEach(consumer);
+        }
+    }
+
+    @Override
+    public UserResponseDtoWrapper<UserCacheStatsDto> getCacheStats() {
+        return new UserResponseDtoWrapper<>(userCache.stats());
+    }
+
+    private UserResponseDto saveAndCache(User user) {
+        return changed(userRepository.save(user), UserChangedEvent::created);
+    }
+
+    private UserResponseDto changed(
+            User user, Function<UserResponseDto, UserChangedEvent> event) {
+        UserResponseDto saved = cache(user);
+        eventPublisher.publishEvent(event.apply(saved));
+        return saved;
+    }
+
+    private UserResponseDto cache(User user) {
+        UserResponseDto saved = userMapper.toDto(user);
+        userCache.put(saved);
+        return saved;
+    }
+
+    /**
+     * Runs a single write and reports a violation of the unique email index as a conflict, so
+     * a duplicate costs one failed statement rather than a lookup before every write.
+     */
+    private <T> T rejectingDuplicateEmail(String email, Supplier<T> write) {
+        try {
+            return write.get();
+        } catch (DataIntegrityViolationException e) {
+            if (EmailConstraints.isDuplicateEmail(e)) {
+                throw EmailConstraints.duplicateEmail(email);
+            }
+            throw e;
+        }
+    }
+
+    private RuntimeException updateFailure(Long userId, Long expectedVersion) {
+        // Only a conditional update can fail on a user that exists
+        if (expectedVersion != null
+                && ReplicaRouting.onPrimary(() -> userRepository.existsById(userId))) {
+            return new VersionConflictException("User with id " + userId
+                    + " was modified since version " + expectedVersion);
+        }
+        return new EntityNotFoundException("There is no user with id " + userId);
+    }
+
+    /**
+     * Normalizes the filters the way the derived columns are computed. Without an explicit
+     * sort, users are ordered by the column of the last-name or birth-date filter, so the
+     * index that narrows the search also returns the rows in order.
+     */
+    private UserSearchCriteria toCriteria(UserSearchRequestDto requestDto) {
+        String lastName = lowerCaseOrNull(requestDto.lastName());
+        String phone = trimToNull(requestDto.phone());
+        String phoneDigits = phone == null ? null : phone.replaceAll("[^0-9]", "");
+        if (phoneDigits != null && phoneDigits.isEmpty()) {
+            throw new InvalidSearchException("Phone " + phone + " contains no digits");
+        }
+        LocalDate from = requestDto.fromDate() == null
+                ? null
+                : DateCodec.parse(requestDto.fromDate());
+        LocalDate to = requestDto.toDate() == null ? null : DateCodec.parse(requestDto.toDate());
+        if (from != null && to != null) {
+            checkDatesOrder(from, to);
+        }
+        String sort = trimToNull(requestDto.sort());
+        UserSortField sortField;
+        if (sort != null) {
+            sortField = UserSortField.fromProperty(sort);
+        } else if (lastName != null) {
+            sortField = UserSortField.LAST_NAME;
+        } else if (from != null || to != null) {
+            sortField = UserSortField.BIRTH_DATE;
+        } else {
+            sortField = UserSortField.ID;
+        }
+        return new UserSearchCriteria(lastName, lowerCaseOrNull(requestDto.emailDomain()),
+                phoneDigits, trimToNull(requestDto.address()), from, to, sortField);
+    }
+
+    private String lowerCaseOrNull(String text) {
+        String trimmed = trimToNull(text);
+        return trimmed == null ? null : trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    private String trimToNull(String text) {
+        return text == null || text.isBlank() ? null : text.trim();
+    }
+
+    private void checkDatesOrder(LocalDate from, LocalDate to) {
+        if (to.isBefore(from) || to.isEqual(from)) {
+            throw new DatesOrderException("'From date' must be before 'to date'");
+        }
+    }
+
+    private record BirthDateRange(LocalDate from, LocalDate to) {
+    }
 }
@@ -0,0 +1,338 @@
+package com.example.usersapi.service.impl;
+
+import com.example.usersapi.dto.BatchItemResultDto;
+import com.example.usersapi.dto.CreateUserRequestDto;
+import com.example.usersapi.dto.PendingUserDto;
+import com.example.usersapi.dto.PendingUserState;
+import com.example.usersapi.dto.UserResponseDtoWrapper;
+import com.example.usersapi.exception.EntityNotFoundException;
+import com.example.usersapi.exception.IngestionUnavailableException;
+import com.example.usersapi.mapper.UserMapper;
+import com.example.usersapi.model.User;
+import com.example.usersapi.repository.UserRepository;
+import com.example.usersapi.routing.ReplicaRouting;
+import com.example.usersapi.service.UserWriteBehindService;
+import com.example.usersapi.validation.UserAgeValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Accepts validated users into a bounded in-memory queue and inserts them from a single
+ * background writer, so that many requests share one transaction. A user is journaled before
+ * it is acknowledged, and the journal is replayed on startup, so a crash loses no accepted
+ * user. A user journaled again by a replay after its batch committed is rejected by the
+ * unique email index rather than inserted twice.
+ *
+ * <p>Producers reserve a queue slot with a compare-and-set on the depth counter and enqueue
+ * into a lock-free queue; a full queue answers 503 at once. The writer wakes up when a full
+ * batch is queued or after {@code user.write-behind.flush-interval}, whichever comes first.
+ * A batch that cannot be written, for example while the database is down, is retried after
+ * the flush interval.
+ *
+ * <p>A replayed or retried user may have been inserted before its batch was marked committed
+ * in the journal. When such a user is rejected as a duplicate and the stored user with its
+ * email has the same name and birth date, it is reported as created rather than rejected.
+ */
+@Service
+@Profile("!reactive")
+public class UserWriteBehindServiceImpl implements UserWriteBehindService, MeterBinder {
+    public static final String QUEUE_DEPTH = "users.write_behind.queue.depth";
+    public static final String WRITTEN = "users.write_behind.written";
+    public static final String LAG = "users.write_behind.lag";
+    public static final String FAILURES = "users.write_behind.failures";
+    private final UserMapper userMapper;
+    private final UserAgeValidator userAgeValidator;
+    private final UserBatchWriter userBatchWriter;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Path journalPath;
+    private final boolean fsync;
+    private final Queue<UserWriteJournal.Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final Set<String> possiblyWritten = ConcurrentHashMap.newKeySet();
+    private final Cache<String, PendingUserDto> results;
+    private volatile UserWriteJournal journal;
+    private volatile Thread writer;
+    private volatile boolean running;
+    private Counter created;
+    private Counter rejected;
+    private Timer lag;
+    private MeterRegistry meterRegistry;
+
+    public UserWriteBehindServiceImpl(
+            UserMapper userMapper,
+            UserAgeValidator userAgeValidator,
+            UserBatchWriter userBatchWriter,
+            UserRepository userRepository,
+            ObjectMapper objectMapper,
+            @Value("${user.write-behind.enabled}") boolean enabled,
+            @Value("${user.write-behind.queue-capacity}") int queueCapacity,
+            @Value("${user.write-behind.batch-size}") int batchSize,
+            @Value("${user.write-behind.flush-interval}") Duration flushInterval,
+            @Value("${user.write-behind.journal}") Path journalPath,
+            @Value("${user.write-behind.fsync}") boolean fsync,
+            @Value("${user.write-behind.retained-results}") long retainedResults
+    ) {
+        this.userMapper = userMapper;
+        this.userAgeValidator = userAgeValidator;
+        this.userBatchWriter = userBatchWriter;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.journalPath = journalPath;
+        this.fsync = fsync;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(retainedResults)
+                .build();
+    }
+
+    /**
+     * Opens the journal, queues the users it still holds and starts the writer. Runs once the
+     * application is ready, so that replayed inserts reach every listener of their events.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        journal = new UserWriteJournal(journalPath, fsync, objectMapper);
+        for (UserWriteJournal.Entry entry : journal.uncommitted()) {
+            // Replayed users were acknowledged already, so they are queued beyond the capacity
+            depth.incrementAndGet();
+            possiblyWritten.add(entry.trackingId());
+            queue.add(entry);
+            results.put(entry.trackingId(), pending(entry.trackingId(), entry.acceptedAt()));
+        }
+        running = true;
+        writer = new Thread(this::drain, "user-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public UserResponseDtoWrapper<PendingUserDto> enqueueUser(CreateUserRequestDto requestDto) {
+        if (!running) {
+            throw new IngestionUnavailableException("Write-behind user creation is disabled");
+        }
+        User user = userMapper.toModel(requestDto);
+        userAgeValidator.validate(user.getBirthDate());
+        final int queued = reserve();
+        String trackingId = UUID.randomUUID().toString();
+        long acceptedAt = System.currentTimeMillis();
+        UserWriteJournal.Entry entry;
+        try {
+            entry = journal.append(trackingId, acceptedAt, requestDto);
+        } catch (RuntimeException e) {
+            depth.decrementAndGet();
+            throw e;
+        }
+        PendingUserDto pending = pending(trackingId, acceptedAt);
+        results.put(trackingId, pending);
+        queue.add(entry);
+        if (queued == batchSize) {
+            LockSupport.unpark(writer);
+        }
+        return new UserResponseDtoWrapper<>(pending);
+    }
+
+    @Override
+    public UserResponseDtoWrapper<PendingUserDto> getPendingUser(String trackingId) {
+        PendingUserDto pending = results.getIfPresent(trackingId);
+        if (pending == null) {
+            throw new EntityNotFoundException("There is no pending user with id " + trackingId);
+        }
+        return new UserResponseDtoWrapper<>(pending);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        meterRegistry = registry;
+        Gauge.builder(QUEUE_DEPTH, depth, AtomicInteger::get)
+                .baseUnit("users")
+                .register(registry);
+        created = Counter.builder(WRITTEN)
+                .tag("outcome", "created")
+                .register(registry);
+        rejected = Counter.builder(WRITTEN)
+                .tag("outcome", "rejected")
+                .register(registry);
+        lag = Timer.builder(LAG)
+                .description("Time from acknowledging a user to committing its insert")
+                .register(registry);
+    }
+
+    /**
+     * Stops the writer once the queue is drained. Users the writer cannot insert before the
+     * process exits stay in the journal for the next start.
+     */
+    @PreDestroy
+    public synchronized void shutdown() throws IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+    }
+
+    private int reserve() {
+        while (true) {
+            int current = depth.get();
+            if (current >= queueCapacity) {
+                throw new IngestionUnavailableException(
+                        "Write-behind queue is full, " + current + " users are waiting");
+            }
+            if (depth.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    private void drain() {
+        List<UserWriteJournal.Entry> batch = List.of();
+        while (true) {
+            boolean stopping = !running;
+            if (batch.isEmpty()) {
+                if (!stopping && depth.get() < batchSize) {
+                    LockSupport.parkNanos(this, flushIntervalNanos);
+                }
+                batch = poll();
+                if (batch.isEmpty()) {
+                    if (stopping) {
+                        return;
+                    }
+                    continue;
+                }
+            }
+            try {
+                write(batch);
+                batch = List.of();
+                journal.compact();
+            } catch (RuntimeException e) {
+                countFailure(e);
+                batch.forEach(entry -> possiblyWritten.add(entry.trackingId()));
+                if (stopping) {
+                    return;
+                }
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+        }
+    }
+
+    private List<UserWriteJournal.Entry> poll() {
+        List<UserWriteJournal.Entry> batch = new ArrayList<>(batchSize);
+        while (batch.size() < batchSize) {
+            UserWriteJournal.Entry entry = queue.poll();
+            if (entry == null) {
+                break;
+            }
+            depth.decrementAndGet();
+            batch.add(entry);
+        }
+        return batch;
+    }
+
+    private void write(List<UserWriteJournal.Entry> batch) {
+        List<BatchItem<User>> items = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            items.add(new BatchItem<>(i, userMapper.toModel(batch.get(i).user())));
+        }
+        List<BatchItemResultDto> written = userBatchWriter.insert(items);
+        long now = System.currentTimeMillis();
+        for (BatchItemResultDto result : written) {
+            UserWriteJournal.Entry entry = batch.get(result.getIndex());
+            Long userId = result.isSuccess()
+                    ? result.getId()
+                    : writtenBefore(entry, items.get(result.getIndex()).value(), result);
+            PendingUserDto pending = pending(entry.trackingId(), entry.acceptedAt());
+            pending.setState(userId != null
+                    ? PendingUserState.CREATED
+                    : PendingUserState.REJECTED);
+            pending.setUserId(userId);
+            pending.setErrors(userId != null ? List.of() : result.getErrors());
+            pending.setWrittenAt(Instant.ofEpochMilli(now));
+            results.put(entry.trackingId(), pending);
+            possiblyWritten.remove(entry.trackingId());
+            if (meterRegistry != null) {
+                (userId != null ? created : rejected).increment();
+                lag.record(now - entry.acceptedAt(), TimeUnit.MILLISECONDS);
+            }
+        }
+        journal.committed(batch.stream()
+                .map(UserWriteJournal.Entry::sequence)
+                .toList());
+    }
+
+    /**
+     * Returns the id of the stored user when a duplicate rejection is for a user that an
+     * earlier attempt already inserted, or null.
+     */
+    private Long writtenBefore(UserWriteJournal.Entry entry, User user, BatchItemResultDto result) {
+        if (!possiblyWritten.contains(entry.trackingId())
+                || !result.getErrors().contains(UserBatchWriter.DUPLICATE_EMAIL)) {
+            return null;
+        }
+        // A lagging replica may not have the earlier insert yet
+        return ReplicaRouting.onPrimary(() -> userRepository.findByNormalizedEmail(user.getEmail()))
+                .filter(stored -> Objects.equals(stored.getFirstName(), user.getFirstName())
+                        && Objects.equals(stored.getLastName(), user.getLastName())
+                        && Objects.equals(stored.getBirthDate(), user.getBirthDate()))
+                .map(User::getId)
+                .orElse(null);
+    }
+
+    private void countFailure(RuntimeException e) {
+        if (meterRegistry != null) {
+            meterRegistry.counter(FAILURES, "exception", e.getClass().getSimpleName())
+                    .increment();
+        }
+    }
+
+    private PendingUserDto pending(String trackingId, long acceptedAt) {
+        PendingUserDto pending = new PendingUserDto();
+        pending.setTrackingId(trackingId);
+        pending.setState(PendingUserState.QUEUED);
+        pending.setErrors(List.of());
+        pending.setAcceptedAt(Instant.ofEpochMilli(acceptedAt));
+        return pending;
+    }
+}
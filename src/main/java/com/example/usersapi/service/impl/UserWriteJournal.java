@@ -0,0 +1,256 @@
+package com.example.usersapi.service.impl;
+
+import com.example.usersapi.dto.CreateUserRequestDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only NDJSON journal of the users accepted for a write-behind insert. Every accepted
+ * user is one line, and every committed batch is one line listing the sequence numbers it
+ * wrote. Opening the journal reads back the users whose batch was never committed, so they
+ * can be queued again after a crash. A line torn by a crash is skipped.
+ *
+ * <p>The file is compacted after every drain, so it only grows with the backlog rather than
+ * with the history: it is truncated when every user in it has been committed, and otherwise
+ * rewritten with just the uncommitted users once committed lines make up most of it. The
+ * rewrite goes to a sibling file that is forced and then moved over the journal, so a crash
+ * leaves either the old or the new file in place.
+ *
+ * <p>Lines are written under a short lock and forced to disk outside it, as a group commit:
+ * one fsync covers every line written before it started, so concurrent appenders waiting
+ * for the disk share a single force instead of queueing one each.
+ */
+public class UserWriteJournal implements Closeable {
+    private static final String SEQUENCE = "seq";
+    private static final String TRACKING_ID = "id";
+    private static final String ACCEPTED_AT = "at";
+    private static final String USER = "user";
+    private static final String COMMITTED = "done";
+    private static final String COMPACTING_SUFFIX = ".compacting";
+    private static final int MIN_COMPACTED_LINES = 1024;
+    private final ObjectMapper objectMapper;
+    private final boolean fsync;
+    private final Path path;
+    private final List<Entry> uncommitted;
+    private final Map<Long, Entry> pending;
+    private final Object syncLock = new Object();
+    private FileChannel channel;
+    private long sequence;
+    private long lines;
+    private long written;
+    private long synced;
+
+    public UserWriteJournal(Path path, boolean fsync, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.fsync = fsync;
+        this.path = path;
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            this.pending = read(path);
+            this.uncommitted = List.copyOf(pending.values());
+            this.channel = open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the users accepted before the journal was opened and never committed, in the
+     * order they were accepted.
+     */
+    public List<Entry> uncommitted() {
+        return uncommitted;
+    }
+
+    /**
+     * Appends an accepted user and returns its sequence number. The user is on disk when
+     * this returns, unless fsync is disabled.
+     */
+    public Entry append(String trackingId, long acceptedAt, CreateUserRequestDto requestDto) {
+        Entry entry;
+        long position;
+        synchronized (this) {
+            entry = new Entry(++sequence, trackingId, acceptedAt, requestDto);
+            position = write(line(entry));
+            pending.put(entry.sequence(), entry);
+        }
+        sync(position);
+        return entry;
+    }
+
+    public void committed(Collection<Long> sequences) {
+        long position;
+        synchronized (this) {
+            position = write(Map.of(COMMITTED, sequences));
+            sequences.forEach(pending::remove);
+        }
+        sync(position);
+    }
+
+    /**
+     * Drops the lines of committed users from the file. The sync lock is held throughout, so
+     * no force runs on a channel that the rewrite closes.
+     */
+    public void compact() {
+        synchronized (syncLock) {
+            synchronized (this) {
+                try {
+                    if (pending.isEmpty()) {
+                        channel.truncate(0);
+                        lines = 0;
+                    } else if (lines > 2L * pending.size() + MIN_COMPACTED_LINES) {
+                        rewrite();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Writes a line and returns its position in the order of written lines.
+     */
+    private long write(Map<String, Object> line) {
+        try {
+            write(channel, line);
+            lines++;
+            return ++written;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(FileChannel target, Map<String, Object> line) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(line);
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1)
+                .put(json)
+                .put((byte) '\n')
+                .flip();
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+    }
+
+    /**
+     * Replaces the file with one holding only the uncommitted users. Every line written so
+     * far is then on disk, so pending syncs have nothing left to force.
+     */
+    private void rewrite() throws IOException {
+        Path compacted = path.resolveSibling(path.getFileName() + COMPACTING_SUFFIX);
+        try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Entry entry : pending.values()) {
+                write(target, line(entry));
+            }
+            if (fsync) {
+                target.force(false);
+            }
+        }
+        channel.close();
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        channel = open();
+        lines = pending.size();
+        synced = written;
+    }
+
+    private FileChannel open() throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private Map<String, Object> line(Entry entry) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put(SEQUENCE, entry.sequence());
+        line.put(TRACKING_ID, entry.trackingId());
+        line.put(ACCEPTED_AT, entry.acceptedAt());
+        line.put(USER, entry.user());
+        return line;
+    }
+
+    /**
+     * Returns once the line at {@code position} is on disk. The caller that gets the sync
+     * lock first forces every line written so far; callers queued behind it find their line
+     * covered and return without forcing again.
+     */
+    private void sync(long position) {
+        if (!fsync) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced >= position) {
+                return;
+            }
+            long covered;
+            synchronized (this) {
+                covered = written;
+            }
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            synced = covered;
+        }
+    }
+
+    private Map<Long, Entry> read(Path path) throws IOException {
+        Map<Long, Entry> entries = new LinkedHashMap<>();
+        if (!Files.exists(path)) {
+            return entries;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            for (String text = reader.readLine(); text != null; text = reader.readLine()) {
+                lines++;
+                JsonNode line;
+                try {
+                    line = objectMapper.readTree(text);
+                } catch (JsonProcessingException e) {
+                    continue;
+                }
+                if (line == null || !line.isObject()) {
+                    continue;
+                }
+                if (line.has(COMMITTED)) {
+                    line.get(COMMITTED).forEach(committed -> entries.remove(committed.asLong()));
+                } else if (line.has(SEQUENCE) && line.has(USER)) {
+                    Entry entry = new Entry(line.get(SEQUENCE).asLong(),
+                            line.get(TRACKING_ID).asText(),
+                            line.get(ACCEPTED_AT).asLong(),
+                            objectMapper.treeToValue(line.get(USER), CreateUserRequestDto.class));
+                    entries.put(entry.sequence(), entry);
+                    sequence = Math.max(sequence, entry.sequence());
+                }
+            }
+        }
+        return entries;
+    }
+
+    public record Entry(
+            long sequence, String trackingId, long acceptedAt, CreateUserRequestDto user) {
+    }
+}
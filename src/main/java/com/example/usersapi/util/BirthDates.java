@@ -0,0 +1,56 @@
+package com.example.usersapi.util;
+
+import java.time.LocalDate;
+
+/**
+ * Turns ages into birth-date bounds, so that age questions become range scans on the
+ * birth-date index. Ages are counted like {@link java.time.Period#between}: someone born on
+ * 29 February turns a year older on 1 March in non-leap years.
+ */
+public final class BirthDates {
+    private static final int LEAP_DAY = 229;
+    private static final int MARCH_FIRST = 301;
+
+    private BirthDates() {
+    }
+
+    /**
+     * Latest birth date of someone at least {@code age} years old on {@code date}.
+     */
+    public static LocalDate latestForAge(int age, LocalDate date) {
+        return date.minusYears(age);
+    }
+
+    /**
+     * Earliest birth date of someone at most {@code age} years old on {@code date}.
+     */
+    public static LocalDate earliestForAge(int age, LocalDate date) {
+        return date.minusYears(age + 1L).plusDays(1);
+    }
+
+    /**
+     * Earliest birth date of someone turning {@code age} on or after {@code date}, that is
+     * someone still {@code age - 1} years old the day before.
+     */
+    public static LocalDate earliestTurning(int age, LocalDate date) {
+        return earliestForAge(age - 1, date.minusDays(1));
+    }
+
+    /**
+     * Encodes the month and day as {@code MMdd}, the way the generated {@code birthday}
+     * column stores them. The values sort in calendar order, with 29 February between
+     * 28 February and 1 March.
+     */
+    public static int monthDay(LocalDate date) {
+        return date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+
+    /**
+     * Encodes the first day of a birthday window. Users born on 29 February have their
+     * birthday on 1 March in non-leap years, so a window starting that day includes them.
+     */
+    public static int firstMonthDay(LocalDate date) {
+        int monthDay = monthDay(date);
+        return monthDay == MARCH_FIRST && !date.isLeapYear() ? LEAP_DAY : monthDay;
+    }
+}
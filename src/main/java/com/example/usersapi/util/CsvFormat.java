@@ -0,0 +1,85 @@
+package com.example.usersapi.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 support: comma separated fields, optionally enclosed in double quotes,
+ * with embedded quotes doubled. A quoted field may contain line breaks, so a record spans
+ * lines until its quotes are balanced; readers join such lines with {@code \n}.
+ */
+public final class CsvFormat {
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+
+    private CsvFormat() {
+    }
+
+    public static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != QUOTE) {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == QUOTE) {
+                    field.append(QUOTE);
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == QUOTE) {
+                quoted = true;
+            } else if (c == SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Whether the line has an odd number of quotes, so that it opens a quoted field it does
+     * not close, or closes one opened on an earlier line. Doubled quotes count twice.
+     */
+    public static boolean hasUnbalancedQuotes(String line) {
+        boolean unbalanced = false;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == QUOTE) {
+                unbalanced = !unbalanced;
+            }
+        }
+        return unbalanced;
+    }
+
+    public static void appendField(StringBuilder line, String value) {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuotes = value.indexOf(SEPARATOR) >= 0
+                || value.indexOf(QUOTE) >= 0
+                || value.indexOf('\n') >= 0
+                || value.indexOf('\r') >= 0;
+        if (!needsQuotes) {
+            line.append(value);
+            return;
+        }
+        line.append(QUOTE);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == QUOTE) {
+                line.append(QUOTE);
+            }
+            line.append(c);
+        }
+        line.append(QUOTE);
+    }
+}
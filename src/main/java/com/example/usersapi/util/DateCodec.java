@@ -0,0 +1,100 @@
+package com.example.usersapi.util;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parses and formats the API's fixed {@code dd/MM/yyyy} date format by reading and writing
+ * characters directly, avoiding the field maps and intermediate objects that
+ * {@link java.time.format.DateTimeFormatter} allocates on every call.
+ */
+public final class DateCodec {
+    public static final String PATTERN = "dd/MM/yyyy";
+    private static final int LENGTH = PATTERN.length();
+    private static final char SEPARATOR = '/';
+
+    private DateCodec() {
+    }
+
+    public static LocalDate parse(CharSequence text) {
+        if (text.length() != LENGTH) {
+            throw new DateTimeParseException(
+                    "Text '" + text + "' must match " + PATTERN, text, 0);
+        }
+        if (text.charAt(2) != SEPARATOR) {
+            throw new DateTimeParseException(
+                    "Text '" + text + "' could not be parsed at index 2", text, 2);
+        }
+        if (text.charAt(5) != SEPARATOR) {
+            throw new DateTimeParseException(
+                    "Text '" + text + "' could not be parsed at index 5", text, 5);
+        }
+        int day = digits(text, 0, 2);
+        int month = digits(text, 3, 5);
+        int year = digits(text, 6, 10);
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            throw new DateTimeParseException(
+                    "Text '" + text + "' could not be parsed: " + e.getMessage(), text, 0, e);
+        }
+    }
+
+    public static String format(LocalDate date) {
+        checkYear(date);
+        char[] chars = new char[LENGTH];
+        write(date, chars);
+        return new String(chars);
+    }
+
+    public static void appendTo(StringBuilder builder, LocalDate date) {
+        checkYear(date);
+        appendDigits(builder, date.getDayOfMonth(), 2);
+        builder.append(SEPARATOR);
+        appendDigits(builder, date.getMonthValue(), 2);
+        builder.append(SEPARATOR);
+        appendDigits(builder, date.getYear(), 4);
+    }
+
+    private static void write(LocalDate date, char[] chars) {
+        writeDigits(chars, 0, date.getDayOfMonth(), 2);
+        chars[2] = SEPARATOR;
+        writeDigits(chars, 3, date.getMonthValue(), 2);
+        chars[5] = SEPARATOR;
+        writeDigits(chars, 6, date.getYear(), 4);
+    }
+
+    private static int digits(CharSequence text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new DateTimeParseException(
+                        "Text '" + text + "' could not be parsed at index " + i, text, i);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static void writeDigits(char[] chars, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static void appendDigits(StringBuilder builder, int value, int width) {
+        for (int divisor = width == 4 ? 1000 : 10; divisor > 0; divisor /= 10) {
+            builder.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    private static void checkYear(LocalDate date) {
+        if (date.getYear() < 0 || date.getYear() > 9999) {
+            throw new DateTimeException(
+                    "Year " + date.getYear() + " cannot be formatted as " + PATTERN);
+        }
+    }
+}
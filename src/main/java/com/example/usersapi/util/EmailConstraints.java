@@ -0,0 +1,30 @@
+package com.example.usersapi.util;
+
+import com.example.usersapi.exception.DuplicateEmailException;
+import java.util.Locale;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Recognizes violations of the case-insensitive unique index on {@code users.email}. Writes
+ * rely on that index instead of looking the email up first, which would race with concurrent
+ * registrations and cost a second round trip.
+ */
+public final class EmailConstraints {
+    public static final String UNIQUE_INDEX = "uk_users_email_normalized";
+
+    private EmailConstraints() {
+    }
+
+    public static boolean isDuplicateEmail(Throwable ex) {
+        if (!(ex instanceof DataIntegrityViolationException violation)) {
+            return false;
+        }
+        String message = violation.getMostSpecificCause().getMessage();
+        return message != null
+                && message.toLowerCase(Locale.ROOT).contains(UNIQUE_INDEX);
+    }
+
+    public static DuplicateEmailException duplicateEmail(String email) {
+        return new DuplicateEmailException("User with email " + email + " already exists");
+    }
+}
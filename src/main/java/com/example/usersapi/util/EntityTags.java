@@ -0,0 +1,41 @@
+package com.example.usersapi.util;
+
+import com.example.usersapi.exception.VersionConflictException;
+
+/**
+ * Converts between user versions and the strong entity tags sent in {@code ETag} and expected
+ * back in {@code If-Match}. A single tag is supported per request because a conditional update
+ * compares against exactly one version.
+ */
+public final class EntityTags {
+    private static final String ANY = "*";
+    private static final String QUOTE = "\"";
+
+    private EntityTags() {
+    }
+
+    public static String format(Long version) {
+        return QUOTE + version + QUOTE;
+    }
+
+    /**
+     * Returns the version an {@code If-Match} header requires, or {@code null} when the header
+     * is absent or matches any version. If-Match uses strong comparison, so weak tags never
+     * match.
+     */
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals(ANY)) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith(QUOTE) && tag.endsWith(QUOTE)) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new VersionConflictException(
+                    "If-Match " + ifMatch + " does not match the current version of the user");
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.usersapi.validation;
+
+import com.example.usersapi.exception.RegistrationException;
+import com.example.usersapi.util.BirthDates;
+import java.time.LocalDate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Accepts users older than {@code user.min.age}. The latest accepted birth date is computed
+ * once a day, so a validation is one date comparison instead of a {@code Period}.
+ */
+@Component
+public class UserAgeValidator {
+    private final int minAge;
+    private volatile Threshold threshold;
+
+    public UserAgeValidator(@Value("${user.min.age}") int minAge) {
+        this.minAge = minAge;
+        this.threshold = threshold(LocalDate.now());
+    }
+
+    public void validate(LocalDate birthDate) {
+        LocalDate today = LocalDate.now();
+        Threshold current = threshold;
+        if (!current.today().equals(today)) {
+            current = threshold(today);
+            threshold = current;
+        }
+        if (birthDate.isAfter(current.latestBirthDate())) {
+            throw new RegistrationException(
+                    String.format("The user must be over %s years old", minAge));
+        }
+    }
+
+    private Threshold threshold(LocalDate today) {
+        return new Threshold(today, BirthDates.latestForAge(minAge + 1, today));
+    }
+
+    private record Threshold(LocalDate today, LocalDate latestBirthDate) {
+    }
+}
@@ -0,0 +1,18 @@
+CREATE TABLE users
+(
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email        VARCHAR(255) NOT NULL,
+    first_name   VARCHAR(255) NOT NULL,
+    last_name    VARCHAR(255) NOT NULL,
+    birth_date   DATE         NOT NULL,
+    address      VARCHAR(255),
+    phone_number VARCHAR(255)
+);
+
+-- Narrow index for keyset seeks and ordered streaming over (birth_date, id).
+CREATE INDEX idx_users_birth_date ON users (birth_date, id);
+
+-- Covering index for the projected range search: every column of the
+-- response is read from the index without visiting the table rows.
+CREATE INDEX idx_users_birth_date_covering
+    ON users (birth_date, id, email, first_name, last_name, address, phone_number);
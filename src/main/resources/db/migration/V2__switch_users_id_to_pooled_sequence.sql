@@ -0,0 +1,7 @@
+-- Identity columns force Hibernate to insert rows one by one to read the generated key back.
+-- A sequence with a pooled optimizer lets it allocate ids in blocks of 50 and batch inserts.
+CREATE SEQUENCE users_seq INCREMENT BY 50;
+ALTER SEQUENCE users_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM users);
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT NEXT VALUE FOR users_seq;
@@ -0,0 +1,3 @@
+-- Optimistic locking: every update increments the version and conditional updates only match
+-- the version the client last read, so concurrent writes fail instead of overwriting each other.
+ALTER TABLE users ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
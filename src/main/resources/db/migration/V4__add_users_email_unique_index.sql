@@ -0,0 +1,5 @@
+-- Emails are unique regardless of case. The normalized copy is computed by the database, so
+-- every writer gets it for free, and the unique index both rejects a duplicate on the insert
+-- itself and serves lookups by email without scanning the table.
+ALTER TABLE users ADD COLUMN email_normalized VARCHAR(255) GENERATED ALWAYS AS (LOWER(email));
+CREATE UNIQUE INDEX uk_users_email_normalized ON users (email_normalized);
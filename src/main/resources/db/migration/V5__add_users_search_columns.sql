@@ -0,0 +1,14 @@
+-- Criteria search: each filter gets a derived column the database keeps in sync, so that
+-- last-name prefix, email domain and phone prefix filters become index range scans on
+-- (column, id) instead of LIKE patterns over functions of the raw values. Ending the
+-- indexes with id lets them also serve keyset pagination in (column, id) order.
+ALTER TABLE users ADD COLUMN last_name_normalized VARCHAR(255)
+    GENERATED ALWAYS AS (LOWER(last_name));
+ALTER TABLE users ADD COLUMN email_domain VARCHAR(255)
+    GENERATED ALWAYS AS (SUBSTRING(LOWER(email), LOCATE('@', email) + 1));
+ALTER TABLE users ADD COLUMN phone_digits VARCHAR(255)
+    GENERATED ALWAYS AS (REGEXP_REPLACE(phone_number, '[^0-9]', ''));
+
+CREATE INDEX idx_users_last_name ON users (last_name_normalized, id);
+CREATE INDEX idx_users_email_domain ON users (email_domain, id);
+CREATE INDEX idx_users_phone_digits ON users (phone_digits, id);
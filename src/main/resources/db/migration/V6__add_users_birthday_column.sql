@@ -0,0 +1,9 @@
+-- Upcoming-birthday reports: the month and day of the birth date as MMdd, kept in sync by the
+-- database. A window of days becomes one or two range scans on this index instead of a
+-- birth-date range per year of age. The index covers the response columns, like the
+-- birth-date one, since a window of a month matches a twelfth of the table.
+ALTER TABLE users ADD COLUMN birthday INTEGER
+    GENERATED ALWAYS AS (EXTRACT(MONTH FROM birth_date) * 100 + EXTRACT(DAY FROM birth_date));
+
+CREATE INDEX idx_users_birthday
+    ON users (birthday, id, email, first_name, last_name, birth_date, address, phone_number);
@@ -0,0 +1,101 @@
+package com.example.usersapi;
+
+import com.example.usersapi.dto.CreateUserRequestDto;
+import com.example.usersapi.dto.UserPatchRequestDto;
+import com.example.usersapi.dto.UserResponseDto;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:reactivetest",
+                "spring.r2dbc.url=r2dbc:h2:mem:///reactivetest"
+        })
+@ActiveProfiles("reactive")
+class ReactiveUsersApiApplicationTests {
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void createUser_ThenSearch_ShouldFindUserThroughR2dbc() {
+        CreateUserRequestDto requestDto = new CreateUserRequestDto(
+                "reactive@gmail.com", "Bob", "Jackson", "01/02/1990", null, null);
+        webTestClient.post().uri("/api/users")
+                .bodyValue(requestDto)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.data.id").isNotEmpty()
+                .jsonPath("$.data.birthDate").isEqualTo("01/02/1990");
+
+        webTestClient.get().uri("/api/users/search?fromDate=01/01/1990&toDate=01/01/1991")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(UserResponseDto.class)
+                .hasSize(1);
+
+        webTestClient.get().uri("/api/users/search?fromDate=01/01/1990&toDate=01/01/1991&size=10")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.users[0].email").isEqualTo("reactive@gmail.com")
+                .jsonPath("$.data.nextCursor").doesNotExist();
+
+        webTestClient.get().uri("/api/users/by-email?email=Reactive@Gmail.com")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody()
+                .jsonPath("$.data.email").isEqualTo("reactive@gmail.com");
+
+        webTestClient.post().uri("/api/users")
+                .bodyValue(new CreateUserRequestDto(
+                        "REACTIVE@gmail.com", "Rob", "Jackson", "01/02/1990", null, null))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void patchThenDeleteUser_ShouldCheckVersionAndDeleteOnce() {
+        CreateUserRequestDto requestDto = new CreateUserRequestDto(
+                "versioned@gmail.com", "Ann", "Lee", "01/02/1980", null, null);
+        AtomicLong userId = new AtomicLong();
+        webTestClient.post().uri("/api/users")
+                .bodyValue(requestDto)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody()
+                .jsonPath("$.data.id").value(id -> userId.set(((Number) id).longValue()));
+        UserPatchRequestDto patchRequestDto =
+                new UserPatchRequestDto(null, "Anna", null, null, null, null);
+
+        webTestClient.patch().uri("/api/users/" + userId.get())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(patchRequestDto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"");
+        webTestClient.patch().uri("/api/users/" + userId.get())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(patchRequestDto)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        webTestClient.delete().uri("/api/users/" + userId.get())
+                .exchange()
+                .expectStatus().isNoContent();
+        webTestClient.delete().uri("/api/users/" + userId.get())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.usersapi;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.usersapi.dto.CreateUserRequestDto;
+import com.example.usersapi.routing.LoadBalancedReplicaDataSource;
+import com.example.usersapi.routing.ReadYourWritesInterceptor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Runs against the two in-memory databases of the {@code replica} profile. Nothing replicates
+ * between them, so where a user was written shows which database a read went to.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("replica")
+class ReplicaRoutingTests {
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private LoadBalancedReplicaDataSource replicaDataSource;
+
+    @Test
+    void searchByBirthDates_ReplicaOnlyUser_ShouldReadFromReplica() throws Exception {
+        new JdbcTemplate(replicaDataSource.replicas().get(0)).update("INSERT INTO users "
+                + "(id, email, first_name, last_name, birth_date, version) "
+                + "VALUES (1000000, 'replica@gmail.com', 'Rita', 'Replica', DATE '1951-05-05', 0)");
+
+        mvc.perform(get("/api/users/search")
+                        .param("fromDate", "01/01/1951")
+                        .param("toDate", "31/12/1951"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                .andExpect(jsonPath("$.data[0].email").value("replica@gmail.com"));
+    }
+
+    @Test
+    void searchByBirthDates_ConsistencyTokenAfterWrite_ShouldReadFromPrimary() throws Exception {
+        CreateUserRequestDto requestDto = new CreateUserRequestDto("primary@gmail.com", "Paul",
+                "Primary", "05/05/1952", null, null);
+        String token = mvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isCreated())
+                .andExpect(header().exists(ReadYourWritesInterceptor.TOKEN_HEADER))
+                .andReturn()
+                .getResponse()
+                .getHeader(ReadYourWritesInterceptor.TOKEN_HEADER);
+
+        mvc.perform(get("/api/users/search")
+                        .param("fromDate", "01/01/1952")
+                        .param("toDate", "31/12/1952"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data").isEmpty());
+        mvc.perform(get("/api/users/search")
+                        .param("fromDate", "01/01/1952")
+                        .param("toDate", "31/12/1952")
+                        .header(ReadYourWritesInterceptor.TOKEN_HEADER, token))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.data[0].email").value("primary@gmail.com"));
+    }
+}
@@ -1,13 +1,321 @@
 package com.example.usersapi;
 
+import static com.example.usersapi.util.TestUtil.REQUEST_DTO;
+
+import com.example.usersapi.cache.UserDataVersion;
+import com.example.usersapi.changelog.UserChangeLog;
+import com.example.usersapi.dto.CreateUserRequestDto;
+import com.example.usersapi.dto.UserChangeDto;
+import com.example.usersapi.dto.UserChangeType;
+import com.example.usersapi.dto.UserPageDto;
+import com.example.usersapi.dto.UserPatchRequestDto;
+import com.example.usersapi.dto.UserResponseDto;
+import com.example.usersapi.dto.UserSearchRequestDto;
+import com.example.usersapi.exception.DuplicateEmailException;
+import com.example.usersapi.exception.EntityNotFoundException;
+import com.example.usersapi.exception.VersionConflictException;
+import com.example.usersapi.metrics.UserMetricsAspect;
+import com.example.usersapi.model.User;
+import com.example.usersapi.repository.UserRepository;
+import com.example.usersapi.service.UserService;
+import com.example.usersapi.util.EmailConstraints;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 @SpringBootTest
 class UsersApiApplicationTests {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserDataVersion userDataVersion;
+    @Autowired
+    private UserChangeLog userChangeLog;
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @Test
     void contextLoads() {
     }
 
+    @Test
+    void createUser_ShouldTimeServiceRepositoryAndMapper() {
+        userService.createUser(request("metrics@gmail.com"));
+
+        Assertions.assertNotNull(meterRegistry.find(UserMetricsAspect.SERVICE_TIMER)
+                .tag("operation", "createUser").timer());
+        Assertions.assertNotNull(meterRegistry.find(UserMetricsAspect.REPOSITORY_TIMER)
+                .tag("method", "save").timer());
+        Assertions.assertNotNull(meterRegistry.find(UserMetricsAspect.MAPPER_TIMER)
+                .tag("method", "toModel").timer());
+        Assertions.assertNotNull(meterRegistry.find("cache.gets")
+                .tag("cache", "users").functionCounter());
+    }
+
+    @Test
+    void patchUser_ExpectedVersion_ShouldIncrementVersionAndRejectStaleVersion() {
+        CreateUserRequestDto requestDto = request("versioned@gmail.com");
+        UserResponseDto created = userService.createUser(requestDto).getData();
+        Long version = created.getVersion();
+
+        UserResponseDto patched = userService.patchUser(created.getId(), version,
+                new UserPatchRequestDto(null, "Adam", null, null, null, null)).getData();
+        Assertions.assertEquals("Adam", patched.getFirstName());
+        Assertions.assertEquals(requestDto.lastName(), patched.getLastName());
+        Assertions.assertEquals(version + 1, patched.getVersion());
+
+        Assertions.assertThrows(VersionConflictException.class,
+                () -> userService.updateUser(created.getId(), version, requestDto));
+        UserResponseDto updated =
+                userService.updateUser(created.getId(), version + 1, requestDto).getData();
+        Assertions.assertEquals(requestDto.firstName(), updated.getFirstName());
+        Assertions.assertEquals(version + 2, updated.getVersion());
+        Assertions.assertEquals(updated, userService.getUser(created.getId()).getData());
+    }
+
+    @Test
+    void deleteUser_ExistingThenDeletedUser_ShouldDeleteOnceThenThrow() {
+        Long userId = userService.createUser(request("deleted@gmail.com")).getData().getId();
+
+        userService.deleteUser(userId);
+        Assertions.assertThrows(EntityNotFoundException.class,
+                () -> userService.deleteUser(userId));
+        Assertions.assertThrows(EntityNotFoundException.class,
+                () -> userService.getUser(userId));
+    }
+
+    @Test
+    void secondLevelCache_RepeatedReads_ShouldHitCacheUntilUserChanges() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Long userId = userService.createUser(request("cached@gmail.com")).getData().getId();
+        final String fromDate = "01/01/1900";
+        final String toDate = "01/01/2100";
+
+        long entityHits = statistics.getDomainDataRegionStatistics(User.CACHE_REGION).getHitCount();
+        userRepository.findById(userId);
+        userRepository.findById(userId);
+        Assertions.assertTrue(statistics.getDomainDataRegionStatistics(User.CACHE_REGION)
+                .getHitCount() > entityHits);
+        Assertions.assertNotNull(meterRegistry.find("hibernate.second.level.cache.requests")
+                .tag("region", User.CACHE_REGION).functionCounter());
+
+        List<UserResponseDto> before = userService.searchByBirthDates(fromDate, toDate).getData();
+        long queryHits = statistics.getQueryRegionStatistics(UserRepository.BIRTH_DATE_QUERY_REGION)
+                .getHitCount();
+        Assertions.assertEquals(before, userService.searchByBirthDates(fromDate, toDate).getData());
+        Assertions.assertEquals(queryHits + 1, statistics
+                .getQueryRegionStatistics(UserRepository.BIRTH_DATE_QUERY_REGION).getHitCount());
+
+        userService.patchUser(userId, null,
+                new UserPatchRequestDto(null, "Cached", null, null, null, null));
+        Assertions.assertEquals("Cached", userRepository.findById(userId)
+                .map(User::getFirstName).orElseThrow());
+        Assertions.assertTrue(userService.searchByBirthDates(fromDate, toDate).getData().stream()
+                .anyMatch(user -> user.getId().equals(userId)
+                        && "Cached".equals(user.getFirstName())));
+
+        userService.deleteUser(userId);
+        Assertions.assertTrue(userRepository.findById(userId).isEmpty());
+        Assertions.assertTrue(userService.searchByBirthDates(fromDate, toDate).getData().stream()
+                .noneMatch(user -> user.getId().equals(userId)));
+    }
+
+    @Test
+    void createUser_ConcurrentRegistrationsOfOneEmail_ShouldAcceptExactlyOne() throws Exception {
+        int registrations = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(registrations);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < registrations; i++) {
+                // Differently cased emails must collide as well
+                CreateUserRequestDto requestDto =
+                        request(i % 2 == 0 ? "racer@gmail.com" : "Racer@Gmail.com");
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        userService.createUser(requestDto);
+                        return true;
+                    } catch (DuplicateEmailException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int accepted = 0;
+            for (Future<Boolean> result : results) {
+                accepted += result.get(30, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            Assertions.assertEquals(1, accepted);
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE email_normalized = 'racer@gmail.com'",
+                Integer.class));
+        Assertions.assertEquals("racer@gmail.com",
+                userService.getUserByEmail("RACER@GMAIL.COM").getData().getEmail()
+                        .toLowerCase(Locale.ROOT));
+    }
+
+    @Test
+    void findByNormalizedEmail_ShouldSeekUniqueIndex() {
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT * FROM users WHERE email_normalized = LOWER(?)",
+                String.class, "user@gmail.com");
+
+        Assertions.assertTrue(plan.toLowerCase(Locale.ROOT)
+                .contains(EmailConstraints.UNIQUE_INDEX), plan);
+    }
+
+    @Test
+    void searchByCriteria_PagesThroughMatches_ShouldSeekIndexes() {
+        userService.createUser(new CreateUserRequestDto("criteria1@criteria.io", "Ann",
+                "Criteria", "01/02/1990", "1 Main St", "(555) 100-0001"));
+        userService.createUser(new CreateUserRequestDto("criteria2@criteria.io", "Bob",
+                "CRITERIAN", "01/02/1991", "2 Main St", "(555) 100-0002"));
+        userService.createUser(new CreateUserRequestDto("criteria3@other.io", "Tim",
+                "Criteria", "01/02/1992", "3 Oak St", "(555) 100-0003"));
+
+        UserSearchRequestDto byLastName =
+                new UserSearchRequestDto("criteria", null, null, "main", null, null, null);
+        UserPageDto first = userService.searchByCriteria(byLastName, null, 1).getData();
+        UserPageDto second =
+                userService.searchByCriteria(byLastName, first.getNextCursor(), 1).getData();
+        Assertions.assertEquals("criteria1@criteria.io", first.getUsers().get(0).getEmail());
+        Assertions.assertEquals("criteria2@criteria.io", second.getUsers().get(0).getEmail());
+        Assertions.assertNull(second.getNextCursor());
+
+        UserSearchRequestDto byDomainAndPhone = new UserSearchRequestDto(
+                null, "CRITERIA.io", "555-100", null, null, null, "birthDate");
+        Assertions.assertEquals(List.of("criteria1@criteria.io", "criteria2@criteria.io"),
+                userService.searchByCriteria(byDomainAndPhone, null, 10).getData().getUsers()
+                        .stream()
+                        .map(UserResponseDto::getEmail)
+                        .toList());
+
+        Assertions.assertTrue(explain("last_name_normalized LIKE 'crit%' ORDER BY "
+                + "last_name_normalized, id").contains("idx_users_last_name"));
+        Assertions.assertTrue(explain("email_domain = 'criteria.io' ORDER BY id")
+                .contains("idx_users_email_domain"));
+        Assertions.assertTrue(explain("phone_digits LIKE '555%'")
+                .contains("idx_users_phone_digits"));
+    }
+
+    @Test
+    void searchUpcomingBirthdays_WindowAcrossNewYear_ShouldSeekBirthdayIndex() {
+        userService.createUser(new CreateUserRequestDto("december@birthday.io", "Dec",
+                "Birthday", "30/12/1980", null, null));
+        userService.createUser(new CreateUserRequestDto("january@birthday.io", "Jan",
+                "Birthday", "02/01/1970", null, null));
+        userService.createUser(new CreateUserRequestDto("march@birthday.io", "Mar",
+                "Birthday", "02/03/1990", null, null));
+
+        Assertions.assertEquals(List.of("december@birthday.io", "january@birthday.io"),
+                userService.searchUpcomingBirthdays("29/12/2023", 7, null, null, 100).getData()
+                        .getUsers()
+                        .stream()
+                        .map(UserResponseDto::getEmail)
+                        .filter(email -> email.endsWith("@birthday.io"))
+                        .toList());
+        Assertions.assertEquals(List.of("january@birthday.io"),
+                userService.searchUpcomingBirthdays("01/01/2024", 7, 54, null, 100).getData()
+                        .getUsers()
+                        .stream()
+                        .map(UserResponseDto::getEmail)
+                        .toList());
+        Assertions.assertTrue(explain("birthday BETWEEN 1201 AND 1231 ORDER BY birthday, id")
+                .contains("idx_users_birthday"));
+    }
+
+    @Test
+    void searchByText_MisspelledName_ShouldFindUserUntilDeleted() {
+        Long userId = userService.createUser(new CreateUserRequestDto("fulltext@gmail.com",
+                "Theodora", "Quackenbush", "01/02/1990", "12 Wisteria Lane", null))
+                .getData().getId();
+
+        Assertions.assertEquals(List.of(userId), userService.searchByText("Quakenbush theo", 10)
+                .getData().stream()
+                .map(UserResponseDto::getId)
+                .toList());
+
+        userService.deleteUser(userId);
+        Assertions.assertTrue(userService.searchByText("Quakenbush", 10).getData().isEmpty());
+    }
+
+    @Test
+    void userDataVersion_Writes_ShouldChangeEntityTagOfSearches() {
+        String created = userDataVersion.current().entityTag();
+        Long userId = userService.createUser(request("polled@gmail.com")).getData().getId();
+        String patched = userDataVersion.current().entityTag();
+        userService.patchUser(userId, null,
+                new UserPatchRequestDto(null, "Polled", null, null, null, null));
+
+        Assertions.assertNotEquals(created, patched);
+        UserDataVersion.Snapshot current = userDataVersion.current();
+        Assertions.assertNotEquals(patched, current.entityTag());
+        userService.getUser(userId);
+        Assertions.assertEquals(current, userDataVersion.current());
+    }
+
+    private String explain(String condition) {
+        return jdbcTemplate.queryForObject("EXPLAIN SELECT id FROM users WHERE " + condition,
+                String.class).toLowerCase(Locale.ROOT);
+    }
+
+    @Test
+    void changeLog_CreatePatchDelete_ShouldAppendOneChangeEach() throws Exception {
+        long before = userChangeLog.nextOffset();
+        Long userId = userService.createUser(request("changed@gmail.com")).getData().getId();
+        userService.patchUser(userId, null,
+                new UserPatchRequestDto(null, "Adam", null, null, null, null));
+        userService.deleteUser(userId);
+
+        List<UserChangeDto> changes = new ArrayList<>();
+        userChangeLog.readAfter(before - 1).poll(Duration.ZERO, (offset, json) -> changes.add(
+                objectMapper.readValue(StandardCharsets.UTF_8.decode(json).toString(),
+                        UserChangeDto.class)));
+        Assertions.assertEquals(List.of(UserChangeType.CREATED, UserChangeType.UPDATED,
+                UserChangeType.DELETED), changes.stream()
+                .filter(change -> userId.equals(change.getUserId()))
+                .map(UserChangeDto::getType)
+                .toList());
+        Assertions.assertEquals("Adam", changes.stream()
+                .filter(change -> change.getType() == UserChangeType.UPDATED)
+                .filter(change -> userId.equals(change.getUserId()))
+                .findFirst()
+                .orElseThrow()
+                .getUser()
+                .getFirstName());
+    }
+
+    private static CreateUserRequestDto request(String email) {
+        return new CreateUserRequestDto(email, REQUEST_DTO.firstName(), REQUEST_DTO.lastName(),
+                REQUEST_DTO.birthDate(), REQUEST_DTO.address(), REQUEST_DTO.phoneNumber());
+    }
 }
@@ -0,0 +1,104 @@
+package com.example.usersapi.admission;
+
+import com.example.usersapi.exception.RateLimitExceededException;
+import com.example.usersapi.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Set;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class AdmissionControlInterceptorTest {
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    @DisplayName("Exceed the write burst. Throttles the client but not other clients or searches")
+    void preHandle_WriteBurstExceeded_ShouldThrottleOnlyClientWrites() {
+        AdmissionControlInterceptor interceptor = interceptor(2, 100);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        interceptor.bindTo(registry);
+
+        for (int i = 0; i < 2; i++) {
+            admit(interceptor, request("POST", "/api/users", null));
+        }
+        RateLimitExceededException throttled = Assertions.assertThrows(
+                RateLimitExceededException.class,
+                () -> interceptor.preHandle(request("POST", "/api/users", null), response, null));
+        Assertions.assertTrue(throttled.getRetryAfter().isPositive());
+
+        admit(interceptor, request("POST", "/api/users", "other-key"));
+        admit(interceptor, request("GET", "/api/users/search", null));
+        admit(interceptor, request("GET", "/api/users/1", null));
+        Assertions.assertEquals(1, registry.get(AdmissionControlInterceptor.REQUESTS)
+                .tag("budget", "write")
+                .tag("outcome", "throttled")
+                .counter()
+                .count());
+        Assertions.assertEquals(3, registry.get(AdmissionControlInterceptor.REQUESTS)
+                .tag("budget", "write")
+                .tag("outcome", "admitted")
+                .counter()
+                .count());
+    }
+
+    @Test
+    @DisplayName("Send unknown API keys. Counts them against the client address")
+    void preHandle_UnknownApiKeys_ShouldThrottleByAddress() {
+        AdmissionControlInterceptor interceptor = interceptor(2, 100);
+        admit(interceptor, request("POST", "/api/users", "random-1"));
+        admit(interceptor, request("POST", "/api/users", "random-2"));
+
+        Assertions.assertThrows(RateLimitExceededException.class, () -> interceptor.preHandle(
+                request("POST", "/api/users", "random-3"), response, null));
+        admit(interceptor, request("POST", "/api/users", "other-key"));
+    }
+
+    @Test
+    @DisplayName("Exceed the concurrency limit. Sheds the excess until a request completes")
+    void preHandle_ConcurrencyLimitReached_ShouldShedUntilRelease() throws Exception {
+        AdmissionControlInterceptor interceptor = interceptor(100, 2);
+        MockHttpServletRequest first = request("GET", "/api/users/search", null);
+        admit(interceptor, first);
+        admit(interceptor, request("GET", "/api/users/find", null));
+
+        Assertions.assertThrows(ServiceOverloadedException.class, () -> interceptor.preHandle(
+                request("GET", "/api/users/search/criteria", null), response, null));
+        admit(interceptor, request("DELETE", "/api/users/1", null));
+
+        interceptor.afterCompletion(first, response, null, null);
+        admit(interceptor, request("GET", "/api/users/search/criteria", null));
+    }
+
+    @Test
+    @DisplayName("Exceed the export burst. Throttles exports but not searches")
+    void preHandle_ExportBurstExceeded_ShouldThrottleExports() {
+        AdmissionControlInterceptor interceptor = interceptor(2, 100);
+        for (int i = 0; i < 2; i++) {
+            admit(interceptor, request("GET", "/api/users/export", null));
+        }
+
+        Assertions.assertThrows(RateLimitExceededException.class, () -> interceptor.preHandle(
+                request("GET", "/api/users/export", null), response, null));
+        admit(interceptor, request("GET", "/api/users/search", null));
+    }
+
+    private static void admit(AdmissionControlInterceptor interceptor,
+                              MockHttpServletRequest request) {
+        Assertions.assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), null));
+    }
+
+    private static AdmissionControlInterceptor interceptor(int burst, int concurrencyLimit) {
+        return new AdmissionControlInterceptor(true, 0.001, burst, 0.001, burst, 0.001, burst,
+                concurrencyLimit, 1, concurrencyLimit, 100, Set.of("other-key"));
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String apiKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        if (apiKey != null) {
+            request.addHeader(AdmissionControlInterceptor.API_KEY_HEADER, apiKey);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.usersapi.admission;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class GradientConcurrencyLimiterTest {
+    private static final long MILLISECOND = 1_000_000;
+
+    @Test
+    @DisplayName("Saturate the limit at steady latency. The limit grows")
+    void release_SteadyLatency_ShouldGrowLimit() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(10, 1, 100);
+        for (int i = 0; i < 50; i++) {
+            saturate(limiter, 10 * MILLISECOND);
+        }
+
+        Assertions.assertTrue(limiter.limit() > 10);
+        Assertions.assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    @DisplayName("Saturate the limit while latency rises. The limit shrinks to the minimum")
+    void release_RisingLatency_ShouldShrinkLimit() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(50, 5, 100);
+        for (int i = 0; i < 20; i++) {
+            saturate(limiter, 10 * MILLISECOND);
+        }
+        int steadyLimit = limiter.limit();
+        for (int i = 0; i < 20; i++) {
+            saturate(limiter, 100 * MILLISECOND);
+        }
+
+        Assertions.assertTrue(limiter.limit() < steadyLimit);
+        Assertions.assertEquals(5, limiter.limit());
+    }
+
+    /**
+     * Takes every permit, then releases them all with the same response time.
+     */
+    private static void saturate(GradientConcurrencyLimiter limiter, long rttNanos) {
+        int permits = 0;
+        while (limiter.tryAcquire()) {
+            permits++;
+        }
+        Assertions.assertEquals(limiter.limit(), permits);
+        for (int i = 0; i < permits; i++) {
+            limiter.release(rttNanos);
+        }
+    }
+}
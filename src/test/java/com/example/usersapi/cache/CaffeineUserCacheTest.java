@@ -0,0 +1,40 @@
+package com.example.usersapi.cache;
+
+import static com.example.usersapi.util.TestUtil.RESPONSE_DTO1;
+import static com.example.usersapi.util.TestUtil.RESPONSE_DTO2;
+
+import com.example.usersapi.dto.UserCacheStatsDto;
+import java.time.Duration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CaffeineUserCacheTest {
+    private final CaffeineUserCache userCache = new CaffeineUserCache(10, Duration.ofMinutes(1));
+
+    @Test
+    @DisplayName("Cached user is returned until evicted. Hits and misses are counted")
+    void get_PutThenEvict_ShouldCountHitsAndMisses() {
+        userCache.put(RESPONSE_DTO1);
+        Assertions.assertEquals(RESPONSE_DTO1, userCache.get(RESPONSE_DTO1.getId()).orElseThrow());
+        Assertions.assertTrue(userCache.get(RESPONSE_DTO2.getId()).isEmpty());
+
+        userCache.evict(RESPONSE_DTO1.getId());
+        Assertions.assertTrue(userCache.get(RESPONSE_DTO1.getId()).isEmpty());
+
+        UserCacheStatsDto stats = userCache.stats();
+        Assertions.assertEquals(1, stats.getHitCount());
+        Assertions.assertEquals(2, stats.getMissCount());
+        Assertions.assertEquals(0, stats.getSize());
+    }
+
+    @Test
+    @DisplayName("Put overrides previously cached user")
+    void put_SameUserTwice_ShouldKeepLatestVersion() {
+        userCache.put(RESPONSE_DTO1);
+        userCache.put(RESPONSE_DTO2);
+        userCache.put(RESPONSE_DTO1);
+        Assertions.assertEquals(RESPONSE_DTO1, userCache.get(RESPONSE_DTO1.getId()).orElseThrow());
+        Assertions.assertEquals(2, userCache.stats().getSize());
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.usersapi.changelog;
+
+import com.example.usersapi.dto.UserChangeDto;
+import com.example.usersapi.dto.UserChangeType;
+import com.example.usersapi.dto.UserResponseDto;
+import com.example.usersapi.event.UserChangedEvent;
+import com.example.usersapi.exception.ChangesExpiredException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class MappedUserChangeLogTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<MappedUserChangeLog> opened = new ArrayList<>();
+    private Path directory;
+
+    @BeforeEach
+    void init(@TempDir Path directory) {
+        this.directory = directory;
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        for (MappedUserChangeLog changeLog : opened) {
+            changeLog.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Create, update and delete a user. Reads the changes in order from any offset")
+    void readAfter_SavedAndDeletedUsers_ShouldReturnChangesInOrder() throws IOException {
+        MappedUserChangeLog changeLog = open(DataSize.ofMegabytes(1), 2);
+        changeLog.onUserChanged(UserChangedEvent.created(user(1L, 0L)));
+        changeLog.onUserChanged(UserChangedEvent.updated(user(1L, 1L)));
+        changeLog.onUserChanged(UserChangedEvent.deleted(1L));
+
+        List<UserChangeDto> changes = read(changeLog.readAfter(-1));
+        Assertions.assertEquals(List.of(0L, 1L, 2L), changes.stream()
+                .map(UserChangeDto::getOffset)
+                .toList());
+        Assertions.assertEquals(List.of(UserChangeType.CREATED, UserChangeType.UPDATED,
+                UserChangeType.DELETED), changes.stream()
+                .map(UserChangeDto::getType)
+                .toList());
+        Assertions.assertNull(changes.get(2).getUser());
+        Assertions.assertEquals(List.of(2L), read(changeLog.readAfter(1)).stream()
+                .map(UserChangeDto::getOffset)
+                .toList());
+        Assertions.assertEquals(3, changeLog.nextOffset());
+    }
+
+    @Test
+    @DisplayName("Fill several segments and reopen. Keeps offsets and expires deleted segments")
+    void readAfter_RolledAndReopened_ShouldContinueOffsetsAndExpireOldChanges()
+            throws IOException {
+        MappedUserChangeLog changeLog = open(DataSize.ofBytes(512), 2);
+        for (long id = 1; id <= 20; id++) {
+            changeLog.onUserChanged(UserChangedEvent.created(user(id, 0L)));
+        }
+        changeLog.destroy();
+
+        MappedUserChangeLog reopened = open(DataSize.ofBytes(512), 2);
+        Assertions.assertEquals(20, reopened.nextOffset());
+        Assertions.assertThrows(ChangesExpiredException.class, () -> reopened.readAfter(0));
+        List<UserChangeDto> retained = read(reopened.readAfter(-1));
+        Assertions.assertFalse(retained.isEmpty());
+        Assertions.assertEquals(19L, retained.get(retained.size() - 1).getOffset());
+        Assertions.assertEquals(20L, retained.get(retained.size() - 1).getUser().getId());
+
+        reopened.onUserChanged(UserChangedEvent.deleted(20L));
+        Assertions.assertEquals(List.of(20L), read(reopened.readAfter(19)).stream()
+                .map(UserChangeDto::getOffset)
+                .toList());
+    }
+
+    @Test
+    @DisplayName("Poll at the end of the log. Returns as soon as the next change is appended")
+    void poll_NoChangeYet_ShouldWaitForNextChange() throws Exception {
+        MappedUserChangeLog changeLog = open(DataSize.ofMegabytes(1), 2);
+        UserChangeLog.Cursor cursor = changeLog.readAfter(changeLog.nextOffset() - 1);
+        Assertions.assertEquals(0, cursor.poll(Duration.ofMillis(10), (offset, json) -> { }));
+
+        CompletableFuture<Integer> polled = CompletableFuture.supplyAsync(() -> {
+            try {
+                return cursor.poll(Duration.ofSeconds(10), (offset, json) -> { });
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        changeLog.onUserChanged(UserChangedEvent.created(user(1L, 0L)));
+
+        Assertions.assertEquals(1, polled.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, cursor.lastOffset());
+    }
+
+    @Test
+    @DisplayName("Open a directory another change log holds. Fails instead of sharing it")
+    void open_DirectoryInUse_ShouldThrowException() {
+        open(DataSize.ofMegabytes(1), 2);
+
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> open(DataSize.ofMegabytes(1), 2));
+    }
+
+    @Test
+    @DisplayName("Fall behind until the next segment is deleted. Fails instead of skipping changes")
+    void poll_NextSegmentDeleted_ShouldThrowException() throws IOException {
+        MappedUserChangeLog changeLog = open(DataSize.ofBytes(512), 2);
+        changeLog.onUserChanged(UserChangedEvent.created(user(1L, 0L)));
+        UserChangeLog.Cursor cursor = changeLog.readAfter(-1);
+        Assertions.assertEquals(1, cursor.poll(Duration.ZERO, (offset, json) -> { }));
+        for (long id = 2; id <= 20; id++) {
+            changeLog.onUserChanged(UserChangedEvent.created(user(id, 0L)));
+        }
+
+        Assertions.assertThrows(ChangesExpiredException.class,
+                () -> cursor.poll(Duration.ZERO, (offset, json) -> { }));
+    }
+
+    private MappedUserChangeLog open(DataSize segmentSize, int retainedSegments) {
+        MappedUserChangeLog changeLog =
+                new MappedUserChangeLog(objectMapper, directory.toString(), segmentSize,
+                        retainedSegments);
+        opened.add(changeLog);
+        return changeLog;
+    }
+
+    private List<UserChangeDto> read(UserChangeLog.Cursor cursor) throws IOException {
+        List<UserChangeDto> changes = new ArrayList<>();
+        cursor.poll(Duration.ZERO, (offset, json) -> changes.add(objectMapper.readValue(
+                StandardCharsets.UTF_8.decode(json).toString(), UserChangeDto.class)));
+        return changes;
+    }
+
+    private static UserResponseDto user(Long id, Long version) {
+        UserResponseDto user = new UserResponseDto();
+        user.setId(id);
+        user.setEmail("user" + id + "@gmail.com");
+        user.setFirstName("Bob");
+        user.setLastName("Jackson");
+        user.setVersion(version);
+        return user;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.usersapi.controller;
+
+import static com.example.usersapi.util.TestUtil.REQUEST_DTO;
+import static com.example.usersapi.util.TestUtil.RESPONSE_DTO1;
+import static com.example.usersapi.util.TestUtil.RESPONSE_DTO2;
+
+import com.example.usersapi.dto.CreateUserRequestDto;
+import com.example.usersapi.dto.UserResponseDto;
+import com.example.usersapi.dto.UserResponseDtoWrapper;
+import com.example.usersapi.exception.DatesOrderException;
+import com.example.usersapi.exception.EntityNotFoundException;
+import com.example.usersapi.service.ReactiveUserService;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@WebFluxTest(ReactiveUserController.class)
+@ActiveProfiles("reactive")
+class ReactiveUserControllerTest {
+    @Autowired
+    private WebTestClient webTestClient;
+    @MockBean
+    private ReactiveUserService userService;
+
+    @Test
+    @DisplayName("Get user by id")
+    void getUser_ExistingUser_ShouldReturnUser() {
+        Mockito.when(userService.getUser(1L))
+                .thenReturn(Mono.just(new UserResponseDtoWrapper<>(RESPONSE_DTO1)));
+        webTestClient.get().uri("/api/users/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.id").isEqualTo(RESPONSE_DTO1.getId())
+                .jsonPath("$.data.email").isEqualTo(RESPONSE_DTO1.getEmail());
+    }
+
+    @Test
+    @DisplayName("Get user by wrong id. Returns not found")
+    void getUser_WrongUserId_ShouldReturnNotFound() {
+        Mockito.when(userService.getUser(2L)).thenReturn(
+                Mono.error(new EntityNotFoundException("There is no user with id 2")));
+        webTestClient.get().uri("/api/users/2")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.errors[0]").isEqualTo("There is no user with id 2");
+    }
+
+    @Test
+    @DisplayName("Add user with invalid email. Returns bad request")
+    void addUser_InvalidEmail_ShouldReturnBadRequest() {
+        CreateUserRequestDto requestDto = new CreateUserRequestDto("not-an-email",
+                REQUEST_DTO.firstName(), REQUEST_DTO.lastName(), REQUEST_DTO.birthDate(),
+                null, null);
+        webTestClient.post().uri("/api/users")
+                .bodyValue(requestDto)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errors[0]").isEqualTo("email must be a well-formed email address");
+        Mockito.verifyNoInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Search users in birth dates range. Returns wrapped list")
+    void searchByBirthDates_JsonAccepted_ShouldReturnWrappedList() {
+        Mockito.when(userService.searchByBirthDates("15/04/1985", "10/03/2000"))
+                .thenReturn(Flux.just(RESPONSE_DTO1, RESPONSE_DTO2));
+        webTestClient.get().uri("/api/users/search?fromDate=15/04/1985&toDate=10/03/2000")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.length()").isEqualTo(2)
+                .jsonPath("$.data[1].id").isEqualTo(RESPONSE_DTO2.getId());
+    }
+
+    @Test
+    @DisplayName("Stream users in birth dates range as NDJSON")
+    void streamByBirthDates_NdjsonAccepted_ShouldStreamUsers() {
+        Mockito.when(userService.searchByBirthDates("15/04/1985", "10/03/2000"))
+                .thenReturn(Flux.just(RESPONSE_DTO1, RESPONSE_DTO2));
+        webTestClient.get().uri("/api/users/search?fromDate=15/04/1985&toDate=10/03/2000")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(UserResponseDto.class)
+                .isEqualTo(List.of(RESPONSE_DTO1, RESPONSE_DTO2));
+    }
+
+    @Test
+    @DisplayName("Stream users with dates in wrong order. Returns bad request")
+    void streamByBirthDates_WrongDatesOrder_ShouldReturnBadRequest() {
+        Mockito.when(userService.searchByBirthDates("10/03/2000", "15/04/1985")).thenReturn(
+                Flux.error(new DatesOrderException("'From date' must be before 'to date'")));
+        webTestClient.get().uri("/api/users/search?fromDate=10/03/2000&toDate=15/04/1985")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
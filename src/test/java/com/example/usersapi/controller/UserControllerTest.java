@@ -12,16 +12,54 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.example.usersapi.cache.UserDataVersion;
+import com.example.usersapi.changelog.UserChangeLog;
+import com.example.usersapi.config.HttpCacheConfig;
+import com.example.usersapi.dto.BatchItemResultDto;
+import com.example.usersapi.dto.ImportJobState;
+import com.example.usersapi.dto.ImportJobStatusDto;
+import com.example.usersapi.dto.PendingUserDto;
+import com.example.usersapi.dto.PendingUserState;
+import com.example.usersapi.dto.UserDataFormat;
+import com.example.usersapi.dto.UserPageDto;
 import com.example.usersapi.dto.UserPatchRequestDto;
 import com.example.usersapi.dto.UserResponseDto;
 import com.example.usersapi.dto.UserResponseDtoWrapper;
+import com.example.usersapi.dto.UserSearchRequestDto;
+import com.example.usersapi.event.UserChangedEvent;
+import com.example.usersapi.exception.ChangesExpiredException;
+import com.example.usersapi.exception.DatesOrderException;
+import com.example.usersapi.exception.EntityNotFoundException;
+import com.example.usersapi.exception.IngestionUnavailableException;
+import com.example.usersapi.exception.VersionConflictException;
+import com.example.usersapi.metrics.TimedSmileHttpMessageConverter;
+import com.example.usersapi.service.UserBatchService;
+import com.example.usersapi.service.UserExportService;
+import com.example.usersapi.service.UserImportService;
+import com.example.usersapi.service.UserWriteBehindService;
 import com.example.usersapi.service.impl.UserServiceImpl;
+import com.example.usersapi.util.EmailConstraints;
 import com.example.usersapi.util.TestUtil;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
@@ -29,19 +67,115 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
 @RunWith(SpringRunner.class)
 @WebMvcTest(UserController.class)
+@Import({UserDataVersion.class, HttpCacheConfig.class})
 class UserControllerTest {
     @Autowired
     private MockMvc mvc;
     @Autowired
     private ObjectMapper objectMapper;
+    @Autowired
+    private UserDataVersion userDataVersion;
     @MockBean
     private UserServiceImpl userService;
+    @MockBean
+    private UserBatchService userBatchService;
+    @MockBean
+    private UserImportService userImportService;
+    @MockBean
+    private UserExportService userExportService;
+    @MockBean
+    private UserWriteBehindService userWriteBehindService;
+    @MockBean
+    private UserChangeLog userChangeLog;
+
+    @Test
+    @DisplayName("Get user by id")
+    void getUser_ExistingUser_ShouldReturnUser() throws Exception {
+        Mockito.when(userService.getUser(1L))
+                .thenReturn(new UserResponseDtoWrapper<>(RESPONSE_DTO1));
+        mvc.perform(get("/api/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.id").value(RESPONSE_DTO1.getId()))
+                .andExpect(jsonPath("$.data.email").value(RESPONSE_DTO1.getEmail()));
+    }
+
+    @Test
+    @DisplayName("Get user with the current ETag in If-None-Match. Returns not modified")
+    void getUser_IfNoneMatchCurrentVersion_ShouldReturnNotModified() throws Exception {
+        UserResponseDto responseDto = TestUtil.getResponseDtoFromUser(USER1);
+        responseDto.setVersion(2L);
+        Mockito.when(userService.getUser(1L))
+                .thenReturn(new UserResponseDtoWrapper<>(responseDto));
+
+        mvc.perform(get("/api/users/1").header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(content().bytes(new byte[0]));
+        mvc.perform(get("/api/users/1").header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+    }
+
+    @Test
+    @DisplayName("Get user by wrong id. Returns not found")
+    void getUser_WrongUserId_ShouldReturnNotFound() throws Exception {
+        Mockito.when(userService.getUser(2L))
+                .thenThrow(new EntityNotFoundException("There is no user with id 2"));
+        mvc.perform(get("/api/users/2"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.errors[0]").value("There is no user with id 2"));
+    }
+
+    @Test
+    @DisplayName("Get user by email")
+    void getUserByEmail_ExistingUser_ShouldReturnUser() throws Exception {
+        Mockito.when(userService.getUserByEmail("USER@gmail.com"))
+                .thenReturn(new UserResponseDtoWrapper<>(RESPONSE_DTO1));
+        mvc.perform(get("/api/users/by-email").param("email", "USER@gmail.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.id").value(RESPONSE_DTO1.getId()))
+                .andExpect(jsonPath("$.data.email").value(RESPONSE_DTO1.getEmail()));
+    }
+
+    @Test
+    @DisplayName("Add a user with a registered email. Returns conflict")
+    void addUser_DuplicateEmail_ShouldReturnConflict() throws Exception {
+        Mockito.when(userService.createUser(REQUEST_DTO))
+                .thenThrow(EmailConstraints.duplicateEmail(REQUEST_DTO.email()));
+        mvc.perform(post("/api/users")
+                        .content(objectMapper.writeValueAsString(REQUEST_DTO))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.errors[0]")
+                        .value("User with email user@gmail.com already exists"));
+    }
+
+    @Test
+    @DisplayName("Add a new user from CBOR. The response is CBOR with the same fields as JSON")
+    void addUser_CborRequest_ShouldAnswerInCbor() throws Exception {
+        Mockito.when(userService.createUser(REQUEST_DTO))
+                .thenReturn(new UserResponseDtoWrapper<>(RESPONSE_DTO1));
+        CBORMapper cborMapper = new CBORMapper();
+        byte[] response = mvc.perform(post("/api/users")
+                        .content(cborMapper.writeValueAsBytes(REQUEST_DTO))
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        Assertions.assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(
+                new UserResponseDtoWrapper<>(RESPONSE_DTO1))), cborMapper.readTree(response));
+    }
 
     @Test
     @DisplayName("Add a new user")
@@ -61,6 +195,102 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.data.phoneNumber").value(REQUEST_DTO.phoneNumber()));
     }
 
+    @Test
+    @DisplayName("Queue a new user. Returns accepted with the tracking location")
+    void addUserAsync_ValidRequest_ShouldReturnAccepted() throws Exception {
+        PendingUserDto pending = new PendingUserDto();
+        pending.setTrackingId("42");
+        pending.setState(PendingUserState.QUEUED);
+        Mockito.when(userWriteBehindService.enqueueUser(REQUEST_DTO))
+                .thenReturn(new UserResponseDtoWrapper<>(pending));
+        mvc.perform(post("/api/users/async")
+                        .content(objectMapper.writeValueAsString(REQUEST_DTO))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/users/async/42"))
+                .andExpect(jsonPath("$.data.state").value("QUEUED"));
+    }
+
+    @Test
+    @DisplayName("Queue a new user while the queue is full. Returns service unavailable")
+    void addUserAsync_QueueFull_ShouldReturnServiceUnavailable() throws Exception {
+        Mockito.when(userWriteBehindService.enqueueUser(REQUEST_DTO))
+                .thenThrow(new IngestionUnavailableException("Write-behind queue is full"));
+        mvc.perform(post("/api/users/async")
+                        .content(objectMapper.writeValueAsString(REQUEST_DTO))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    @DisplayName("Add a batch of users. Reports result for every item")
+    void addUsers_BatchWithInvalidItem_ShouldReportEveryItem() throws Exception {
+        BatchItemResultDto created = new BatchItemResultDto();
+        created.setIndex(0);
+        created.setId(RESPONSE_DTO1.getId());
+        created.setSuccess(true);
+        created.setUser(RESPONSE_DTO1);
+        created.setErrors(List.of());
+        BatchItemResultDto rejected = new BatchItemResultDto();
+        rejected.setIndex(1);
+        rejected.setErrors(List.of("The user must be over 18 years old"));
+        Mockito.when(userBatchService.createUsers(List.of(REQUEST_DTO, REQUEST_DTO)))
+                .thenReturn(new UserResponseDtoWrapper<>(List.of(created, rejected)));
+        String jasonObject = objectMapper.writeValueAsString(List.of(REQUEST_DTO, REQUEST_DTO));
+        mvc.perform(post("/api/users/batch")
+                        .content(jasonObject)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.size()").value(2))
+                .andExpect(jsonPath("$.data[0].success").value(true))
+                .andExpect(jsonPath("$.data[0].user.email").value(REQUEST_DTO.email()))
+                .andExpect(jsonPath("$.data[1].success").value(false))
+                .andExpect(jsonPath("$.data[1].errors[0]")
+                        .value("The user must be over 18 years old"));
+    }
+
+    @Test
+    @DisplayName("Delete a batch of users")
+    void deleteUsers_ValidRequest_ShouldReportEveryItem() throws Exception {
+        BatchItemResultDto deleted = new BatchItemResultDto();
+        deleted.setId(1L);
+        deleted.setSuccess(true);
+        Mockito.when(userBatchService.deleteUsers(List.of(1L)))
+                .thenReturn(new UserResponseDtoWrapper<>(List.of(deleted)));
+        mvc.perform(delete("/api/users/batch")
+                        .content("[1]")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].id").value(1))
+                .andExpect(jsonPath("$.data[0].success").value(true));
+    }
+
+    @Test
+    @DisplayName("Import users from CSV. Answers with the running job before the import ends")
+    void importUsers_CsvBody_ShouldAcceptJob() throws Exception {
+        ImportJobStatusDto job = new ImportJobStatusDto();
+        job.setJobId("job");
+        job.setState(ImportJobState.RUNNING);
+        Mockito.when(userImportService.importUsers(Mockito.any(InputStream.class),
+                        Mockito.eq(UserDataFormat.CSV), Mockito.any()))
+                .thenAnswer(invocation -> {
+                    Consumer<ImportJobStatusDto> started = invocation.getArgument(2);
+                    started.accept(job);
+                    ImportJobStatusDto completed = new ImportJobStatusDto();
+                    completed.setJobId("job");
+                    completed.setState(ImportJobState.COMPLETED);
+                    return new UserResponseDtoWrapper<>(completed);
+                });
+        mvc.perform(post("/api/users/import")
+                        .content("email,firstName,lastName,birthDate\n")
+                        .contentType("text/csv"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/users/import/job"))
+                .andExpect(jsonPath("$.data.jobId").value("job"))
+                .andExpect(jsonPath("$.data.state").value("RUNNING"));
+    }
+
     @Test
     @DisplayName("Patch user")
     void patchUser_ValidRequest_ShouldPatchUserInfo() throws Exception {
@@ -71,7 +301,7 @@ class UserControllerTest {
         responseDto.setPhoneNumber(patchRequestDto.phoneNumber());
         String jasonObject = objectMapper.writeValueAsString(patchRequestDto);
         Long userId = 1L;
-        Mockito.when(userService.patchUser(userId, patchRequestDto))
+        Mockito.when(userService.patchUser(userId, null, patchRequestDto))
                 .thenReturn(new UserResponseDtoWrapper<>(responseDto));
 
         mvc.perform(patch("/api/users/" + userId)
@@ -82,11 +312,47 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.data.phoneNumber").value(patchRequestDto.phoneNumber()));
     }
 
+    @Test
+    @DisplayName("Patch user with If-Match. Passes the version on and returns the new ETag")
+    void patchUser_IfMatch_ShouldReturnNewEntityTag() throws Exception {
+        UserPatchRequestDto patchRequestDto =
+                new UserPatchRequestDto(null, "Adam", null, null, null, null);
+        UserResponseDto responseDto = TestUtil.getResponseDtoFromUser(USER1);
+        responseDto.setFirstName(patchRequestDto.firstName());
+        responseDto.setVersion(4L);
+        Mockito.when(userService.patchUser(1L, 3L, patchRequestDto))
+                .thenReturn(new UserResponseDtoWrapper<>(responseDto));
+
+        mvc.perform(patch("/api/users/1")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .content(objectMapper.writeValueAsString(patchRequestDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.data.version").value(4));
+    }
+
+    @Test
+    @DisplayName("Patch user with a stale If-Match. Returns precondition failed")
+    void patchUser_StaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        UserPatchRequestDto patchRequestDto =
+                new UserPatchRequestDto(null, "Adam", null, null, null, null);
+        Mockito.when(userService.patchUser(1L, 3L, patchRequestDto))
+                .thenThrow(new VersionConflictException("User was modified"));
+
+        mvc.perform(patch("/api/users/1")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .content(objectMapper.writeValueAsString(patchRequestDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.errors[0]").value("User was modified"));
+    }
+
     @Test
     @DisplayName("Update user")
     void updateUser_ValidRequest_ShouldUpdateUserInfo() throws Exception {
         Long userId = 1L;
-        Mockito.when(userService.updateUser(userId, REQUEST_DTO))
+        Mockito.when(userService.updateUser(userId, null, REQUEST_DTO))
                 .thenReturn(new UserResponseDtoWrapper<>(RESPONSE_DTO1));
         String jasonObject = objectMapper.writeValueAsString(REQUEST_DTO);
         mvc.perform(put("/api/users/" + userId)
@@ -184,4 +450,285 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.data[0].birthDate").value(RESPONSE_DTO5.getBirthDate()))
                 .andExpect(jsonPath("$.data[0].email").value(RESPONSE_DTO5.getEmail()));
     }
+
+    @Test
+    @DisplayName("Search for the first page of users in birth dates range")
+    void searchPageByBirthDates_SizeGiven_ShouldReturnPageWithNextCursor() throws Exception {
+        String from = "15/04/1985";
+        String to = "10/03/2000";
+        UserPageDto page = new UserPageDto();
+        page.setUsers(List.of(RESPONSE_DTO1, RESPONSE_DTO2));
+        page.setNextCursor("next");
+        Mockito.when(userService.searchByBirthDates(from, to, null, 2))
+                .thenReturn(new UserResponseDtoWrapper<>(page));
+        String getUrl = "/api/users/search?fromDate=%s&toDate=%s&size=2";
+        mvc.perform(get(String.format(getUrl, from, to)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.users.size()").value(2))
+                .andExpect(jsonPath("$.data.users[0].email").value(RESPONSE_DTO1.getEmail()))
+                .andExpect(jsonPath("$.data.users[1].email").value(RESPONSE_DTO2.getEmail()))
+                .andExpect(jsonPath("$.data.nextCursor").value("next"));
+    }
+
+    @Test
+    @DisplayName("Search users by criteria. Binds every filter from the query")
+    void searchByCriteria_Filters_ShouldReturnPage() throws Exception {
+        UserPageDto page = new UserPageDto();
+        page.setUsers(List.of(RESPONSE_DTO1));
+        UserSearchRequestDto requestDto = new UserSearchRequestDto(
+                "Jack", "gmail.com", "111", "Union", null, null, "birthDate");
+        Mockito.when(userService.searchByCriteria(requestDto, null, 20))
+                .thenReturn(new UserResponseDtoWrapper<>(page));
+        mvc.perform(get("/api/users/search/criteria")
+                        .param("lastName", "Jack")
+                        .param("emailDomain", "gmail.com")
+                        .param("phone", "111")
+                        .param("address", "Union")
+                        .param("sort", "birthDate"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.users[0].email").value(RESPONSE_DTO1.getEmail()))
+                .andExpect(jsonPath("$.data.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Search upcoming birthdays. Defaults to a 30-day window from today")
+    void searchUpcomingBirthdays_NoWindow_ShouldSearchNext30Days() throws Exception {
+        UserPageDto page = new UserPageDto();
+        page.setUsers(List.of(RESPONSE_DTO1));
+        page.setNextCursor("next");
+        Mockito.when(userService.searchUpcomingBirthdays(null, 30, null, null, 100))
+                .thenReturn(new UserResponseDtoWrapper<>(page));
+
+        mvc.perform(get("/api/users/search/birthdays"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.users[0].email").value(RESPONSE_DTO1.getEmail()))
+                .andExpect(jsonPath("$.data.nextCursor").value("next"));
+    }
+
+    @Test
+    @DisplayName("Poll a search with its ETag. Returns not modified until a user changes")
+    void searchByBirthDates_IfNoneMatchUnchangedData_ShouldNotSearchAgain() throws Exception {
+        String from = "02/03/1986";
+        String to = "10/03/1995";
+        Mockito.when(userService.searchByBirthDates(from, to))
+                .thenReturn(new UserResponseDtoWrapper<>(List.of(RESPONSE_DTO1)));
+        String entityTag = mvc.perform(get("/api/users/search")
+                        .param("fromDate", from)
+                        .param("toDate", to))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/api/users/search")
+                        .param("fromDate", from)
+                        .param("toDate", to)
+                        .header(HttpHeaders.IF_NONE_MATCH, entityTag))
+                .andExpect(status().isNotModified());
+        Mockito.verify(userService, Mockito.times(1)).searchByBirthDates(from, to);
+
+        userDataVersion.onUserChanged(UserChangedEvent.deleted(5L));
+        mvc.perform(get("/api/users/search")
+                        .param("fromDate", from)
+                        .param("toDate", to)
+                        .header(HttpHeaders.IF_NONE_MATCH, entityTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].email").value(RESPONSE_DTO1.getEmail()));
+    }
+
+    @Test
+    @DisplayName("Write in the second of the last response. The ETag still moves on")
+    void searchByBirthDates_BothValidatorsSameSecondWrite_ShouldSearchAgain() throws Exception {
+        String from = "02/03/1986";
+        String to = "10/03/1995";
+        Mockito.when(userService.searchByBirthDates(from, to))
+                .thenReturn(new UserResponseDtoWrapper<>(List.of(RESPONSE_DTO1)));
+        MockHttpServletResponse response = mvc.perform(get("/api/users/search")
+                        .param("fromDate", from)
+                        .param("toDate", to))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        String entityTag = response.getHeader(HttpHeaders.ETAG);
+        String lastModified = response.getHeader(HttpHeaders.LAST_MODIFIED);
+
+        userDataVersion.onUserChanged(UserChangedEvent.deleted(5L));
+        mvc.perform(get("/api/users/search")
+                        .param("fromDate", from)
+                        .param("toDate", to)
+                        .header(HttpHeaders.IF_NONE_MATCH, entityTag)
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Many writes in a row. Last-Modified does not run ahead of the clock")
+    void searchByBirthDates_RapidWrites_ShouldNotDateAheadOfClock() throws Exception {
+        String from = "02/03/1986";
+        String to = "10/03/1995";
+        Mockito.when(userService.searchByBirthDates(from, to))
+                .thenReturn(new UserResponseDtoWrapper<>(List.of(RESPONSE_DTO1)));
+        for (long id = 1; id <= 100; id++) {
+            userDataVersion.onUserChanged(UserChangedEvent.deleted(id));
+        }
+
+        long lastModified = mvc.perform(get("/api/users/search")
+                        .param("fromDate", from)
+                        .param("toDate", to))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getDateHeader(HttpHeaders.LAST_MODIFIED);
+        Assertions.assertTrue(lastModified <= System.currentTimeMillis() + 1000);
+    }
+
+    @Test
+    @DisplayName("Search users as Smile. JSON stays the default")
+    void searchByBirthDates_SmileAccepted_ShouldAnswerInSmile() throws Exception {
+        String from = "02/03/1986";
+        String to = "10/03/1995";
+        Mockito.when(userService.searchByBirthDates(from, to)).thenReturn(
+                new UserResponseDtoWrapper<>(List.of(RESPONSE_DTO1, RESPONSE_DTO3)));
+        MediaType smile = MediaType.parseMediaType(
+                TimedSmileHttpMessageConverter.APPLICATION_SMILE_VALUE);
+        byte[] response = mvc.perform(get("/api/users/search")
+                        .param("fromDate", from)
+                        .param("toDate", to)
+                        .accept(smile))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(smile))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode users = new SmileMapper().readTree(response).get("data");
+        Assertions.assertEquals(RESPONSE_DTO3.getEmail(), users.get(1).get("email").asText());
+        mvc.perform(get("/api/users/search")
+                        .param("fromDate", from)
+                        .param("toDate", to))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    @DisplayName("Full-text search by name or address")
+    void searchByText_Query_ShouldReturnRankedUsers() throws Exception {
+        Mockito.when(userService.searchByText("jakson union", 5))
+                .thenReturn(new UserResponseDtoWrapper<>(List.of(RESPONSE_DTO1)));
+        mvc.perform(get("/api/users/find")
+                        .param("q", "jakson union")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].email").value(RESPONSE_DTO1.getEmail()));
+    }
+
+    @Test
+    @DisplayName("Stream users in birth dates range as NDJSON")
+    @SuppressWarnings("unchecked")
+    void streamByBirthDates_NdjsonAccepted_ShouldWriteOneUserPerLine() throws Exception {
+        String from = "15/04/1985";
+        String to = "10/03/2000";
+        Mockito.doAnswer(invocation -> {
+            Consumer<UserResponseDto> consumer = invocation.getArgument(2);
+            consumer.accept(RESPONSE_DTO1);
+            consumer.accept(RESPONSE_DTO2);
+            return null;
+        }).when(userService).streamByBirthDates(
+                Mockito.eq(from), Mockito.eq(to), Mockito.any(Consumer.class));
+        String expected = objectMapper.writeValueAsString(RESPONSE_DTO1) + "\n"
+                + objectMapper.writeValueAsString(RESPONSE_DTO2);
+        String getUrl = "/api/users/search?fromDate=%s&toDate=%s";
+        mvc.perform(get(String.format(getUrl, from, to))
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(expected));
+    }
+
+    @Test
+    @DisplayName("Stream users with dates in wrong order. Returns bad request")
+    @SuppressWarnings("unchecked")
+    void streamByBirthDates_WrongDatesOrder_ShouldReturnBadRequest() throws Exception {
+        String from = "10/03/2000";
+        String to = "15/04/1985";
+        Mockito.doThrow(new DatesOrderException("'From date' must be before 'to date'"))
+                .when(userService).streamByBirthDates(
+                        Mockito.eq(from), Mockito.eq(to), Mockito.any(Consumer.class));
+        String getUrl = "/api/users/search?fromDate=%s&toDate=%s";
+        mvc.perform(get(String.format(getUrl, from, to))
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Stream changes since an offset as server-sent events until none arrive")
+    void streamChanges_Since_ShouldWriteEventsWithOffsetIds() throws Exception {
+        UserChangeLog.Cursor cursor = Mockito.mock(UserChangeLog.Cursor.class);
+        Mockito.when(userChangeLog.readAfter(4L)).thenReturn(cursor);
+        Mockito.when(cursor.poll(Mockito.eq(Duration.ofSeconds(1)), Mockito.any()))
+                .thenAnswer(invocation -> {
+                    UserChangeLog.ChangeConsumer consumer = invocation.getArgument(1);
+                    consumer.accept(5L, ByteBuffer.wrap("{\"offset\":5}"
+                            .getBytes(StandardCharsets.UTF_8)));
+                    return 1;
+                })
+                .thenReturn(0);
+
+        mvc.perform(get("/api/users/changes")
+                        .param("since", "4")
+                        .param("wait", "1")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string("id: 5\ndata: {\"offset\":5}\n\n"));
+    }
+
+    @Test
+    @DisplayName("Stream changes since a deleted offset. Returns gone")
+    void streamChanges_ExpiredOffset_ShouldReturnGone() throws Exception {
+        Mockito.when(userChangeLog.readAfter(1L))
+                .thenThrow(new ChangesExpiredException("Changes after offset 1 were deleted"));
+
+        mvc.perform(get("/api/users/changes")
+                        .header("Last-Event-ID", "1")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.errors[0]").value("Changes after offset 1 were deleted"));
+    }
+
+    @Test
+    @DisplayName("Export users as gzipped CSV")
+    @SuppressWarnings("unchecked")
+    void exportUsersAsCsv_GzipAccepted_ShouldWriteCompressedBody() throws Exception {
+        String csv = "id,email,firstName,lastName,birthDate,address,phoneNumber\n";
+        Mockito.doAnswer(invocation -> {
+            Supplier<OutputStream> target = invocation.getArgument(3);
+            try (OutputStream out = target.get()) {
+                out.write(csv.getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        }).when(userExportService).exportUsers(Mockito.isNull(), Mockito.isNull(),
+                Mockito.eq(UserDataFormat.CSV), Mockito.any(Supplier.class));
+        byte[] body = mvc.perform(get("/api/users/export")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"users.csv\""))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            Assertions.assertEquals(csv, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @DisplayName("Export users with dates in wrong order. Returns bad request")
+    @SuppressWarnings("unchecked")
+    void exportUsersAsNdjson_WrongDatesOrder_ShouldReturnBadRequest() throws Exception {
+        Mockito.doThrow(new DatesOrderException("'From date' must be before 'to date'"))
+                .when(userExportService).exportUsers(Mockito.eq("10/03/2000"),
+                        Mockito.eq("15/04/1985"), Mockito.eq(UserDataFormat.NDJSON),
+                        Mockito.any(Supplier.class));
+        mvc.perform(get("/api/users/export?fromDate=10/03/2000&toDate=15/04/1985")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$.errors[0]").value("'From date' must be before 'to date'"));
+    }
 }
@@ -0,0 +1,108 @@
+package com.example.usersapi.metrics;
+
+import static com.example.usersapi.util.TestUtil.RESPONSE_DTO1;
+import static com.example.usersapi.util.TestUtil.RESPONSE_DTO2;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.usersapi.dto.UserPageDto;
+import com.example.usersapi.dto.UserResponseDto;
+import com.example.usersapi.dto.UserResponseDtoWrapper;
+import com.example.usersapi.exception.EntityNotFoundException;
+import com.example.usersapi.service.UserService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+class UserMetricsAspectTest {
+    private static final String FROM_DATE = "01/01/1990";
+    private static final String TO_DATE = "01/01/2000";
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserService target = mock(UserService.class);
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new UserMetricsAspect(meterRegistry));
+        userService = factory.getProxy();
+    }
+
+    @Test
+    @DisplayName("Service operations are timed per operation, failures tagged with the exception")
+    void getUser_SuccessThenFailure_ShouldTimeBothOutcomes() {
+        when(target.getUser(1L)).thenReturn(new UserResponseDtoWrapper<>(RESPONSE_DTO1));
+        when(target.getUser(2L)).thenThrow(new EntityNotFoundException("There is no user"));
+
+        userService.getUser(1L);
+        userService.getUser(1L);
+        Assertions.assertThrows(EntityNotFoundException.class, () -> userService.getUser(2L));
+
+        Timer success = meterRegistry.get(UserMetricsAspect.SERVICE_TIMER)
+                .tag("operation", "getUser")
+                .tag("exception", "none")
+                .timer();
+        Timer failure = meterRegistry.get(UserMetricsAspect.SERVICE_TIMER)
+                .tag("operation", "getUser")
+                .tag("exception", "EntityNotFoundException")
+                .timer();
+        Assertions.assertEquals(2, success.count());
+        Assertions.assertEquals(1, failure.count());
+    }
+
+    @Test
+    @DisplayName("List and page searches record the number of users returned")
+    void searchByBirthDates_ListAndPage_ShouldRecordResultSizes() {
+        UserPageDto page = new UserPageDto();
+        page.setUsers(List.of(RESPONSE_DTO1));
+        when(target.searchByBirthDates(FROM_DATE, TO_DATE))
+                .thenReturn(new UserResponseDtoWrapper<>(List.of(RESPONSE_DTO1, RESPONSE_DTO2)));
+        when(target.searchByBirthDates(FROM_DATE, TO_DATE, null, 1))
+                .thenReturn(new UserResponseDtoWrapper<>(page));
+
+        userService.searchByBirthDates(FROM_DATE, TO_DATE);
+        userService.searchByBirthDates(FROM_DATE, TO_DATE, null, 1);
+
+        Assertions.assertEquals(2, searchResults("list").totalAmount());
+        Assertions.assertEquals(1, searchResults("page").totalAmount());
+    }
+
+    @Test
+    @DisplayName("Streamed searches count the rows handed to the consumer")
+    @SuppressWarnings("unchecked")
+    void streamByBirthDates_TwoRows_ShouldRecordStreamSize() {
+        doAnswer(invocation -> {
+            Consumer<UserResponseDto> consumer = invocation.getArgument(2);
+            consumer.accept(RESPONSE_DTO1);
+            consumer.accept(RESPONSE_DTO2);
+            return null;
+        }).when(target).streamByBirthDates(any(), any(), any(Consumer.class));
+        List<UserResponseDto> received = new ArrayList<>();
+
+        userService.streamByBirthDates(FROM_DATE, TO_DATE, received::add);
+
+        Assertions.assertEquals(List.of(RESPONSE_DTO1, RESPONSE_DTO2), received);
+        DistributionSummary results = meterRegistry.get(UserMetricsAspect.SEARCH_RESULTS)
+                .tag("operation", "streamByBirthDates")
+                .summary();
+        Assertions.assertEquals(1, results.count());
+        Assertions.assertEquals(2, results.totalAmount());
+    }
+
+    private DistributionSummary searchResults(String mode) {
+        return meterRegistry.get(UserMetricsAspect.SEARCH_RESULTS)
+                .tag("operation", "searchByBirthDates")
+                .tag("mode", mode)
+                .summary();
+    }
+}
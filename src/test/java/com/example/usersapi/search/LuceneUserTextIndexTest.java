@@ -0,0 +1,85 @@
+package com.example.usersapi.search;
+
+import com.example.usersapi.dto.UserResponseDto;
+import java.sql.ResultSet;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+class LuceneUserTextIndexTest {
+    private final JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+    private final LuceneUserTextIndex textIndex = new LuceneUserTextIndex(jdbcTemplate, "", 100);
+
+    @AfterEach
+    void close() throws Exception {
+        textIndex.destroy();
+    }
+
+    @Test
+    @DisplayName("Misspelled and partial terms match. Last names rank above addresses")
+    void search_TyposAndPrefixes_ShouldRankLastNameFirst() {
+        textIndex.index(user(1L, "Bob", "Jackson", "10 Union St"));
+        textIndex.index(user(2L, "Ann", "Miller", "5 Jackson Ave"));
+        textIndex.index(user(3L, "Tim", "Müller", "7 Oak St"));
+
+        Assertions.assertEquals(List.of(1L, 2L), textIndex.search("Jakson", 10));
+        Assertions.assertEquals(List.of(1L), textIndex.search("bob jacks", 10));
+        Assertions.assertEquals(List.of(3L), textIndex.search("muller oak", 10));
+        Assertions.assertEquals(List.of(2L), textIndex.search("jackson ave", 10));
+        Assertions.assertTrue(textIndex.search("zebra", 10).isEmpty());
+        Assertions.assertTrue(textIndex.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Changed users are re-indexed once and removed users are no longer found")
+    void index_UpdateThenRemove_ShouldFollowChanges() {
+        textIndex.index(user(1L, "Bob", "Jackson", null));
+        textIndex.index(user(1L, "Bob", "Johnson", null));
+        Assertions.assertEquals(List.of(1L), textIndex.search("johnson", 10));
+        Assertions.assertTrue(textIndex.search("jackson", 10).isEmpty());
+        Assertions.assertEquals(1, textIndex.size());
+
+        textIndex.remove(1L);
+        Assertions.assertTrue(textIndex.search("johnson", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Change and delete users while a rebuild scans them. Keeps the changes")
+    void rebuild_UsersChangedDuringScan_ShouldKeepChanges() throws Exception {
+        ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(resultSet.getLong(1)).thenReturn(1L, 2L, 3L);
+        Mockito.when(resultSet.getString(3)).thenReturn("Jackson", "Miller", "Baker");
+        Mockito.doAnswer(invocation -> {
+            textIndex.index(user(1L, "Bob", "Johnson", null));
+            textIndex.remove(2L);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (int i = 0; i < 3; i++) {
+                handler.processRow(resultSet);
+            }
+            return null;
+        }).when(jdbcTemplate).query(Mockito.any(PreparedStatementCreator.class),
+                Mockito.any(RowCallbackHandler.class));
+
+        Assertions.assertEquals(1, textIndex.rebuild());
+        Assertions.assertEquals(List.of(1L), textIndex.search("johnson", 10));
+        Assertions.assertTrue(textIndex.search("jackson", 10).isEmpty());
+        Assertions.assertTrue(textIndex.search("miller", 10).isEmpty());
+        Assertions.assertEquals(List.of(3L), textIndex.search("baker", 10));
+    }
+
+    private static UserResponseDto user(Long id, String firstName, String lastName,
+                                        String address) {
+        UserResponseDto user = new UserResponseDto();
+        user.setId(id);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setAddress(address);
+        return user;
+    }
+}
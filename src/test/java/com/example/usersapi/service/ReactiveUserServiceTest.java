@@ -0,0 +1,157 @@
+package com.example.usersapi.service;
+
+import static com.example.usersapi.util.TestUtil.RESPONSE_DTO1;
+import static com.example.usersapi.util.TestUtil.RESPONSE_DTO2;
+import static com.example.usersapi.util.TestUtil.USER1;
+import static com.example.usersapi.util.TestUtil.USER2;
+
+import com.example.usersapi.cache.UserCache;
+import com.example.usersapi.dto.CreateUserRequestDto;
+import com.example.usersapi.dto.SearchCursor;
+import com.example.usersapi.dto.UserPatchRequestDto;
+import com.example.usersapi.exception.DatesOrderException;
+import com.example.usersapi.exception.EntityNotFoundException;
+import com.example.usersapi.exception.RegistrationException;
+import com.example.usersapi.exception.VersionConflictException;
+import com.example.usersapi.mapper.impl.UserMapperImpl;
+import com.example.usersapi.model.UserRecord;
+import com.example.usersapi.repository.ReactiveUserRepository;
+import com.example.usersapi.service.impl.ReactiveUserServiceImpl;
+import com.example.usersapi.util.TestUtil;
+import com.example.usersapi.validation.UserAgeValidator;
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.util.Optional;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveUserServiceTest {
+    @Mock
+    private ReactiveUserRepository userRepository;
+    @Mock
+    private UserCache userCache;
+    private ReactiveUserServiceImpl userService;
+
+    @BeforeEach
+    void init() throws Exception {
+        userService = new ReactiveUserServiceImpl(
+                userRepository, new UserMapperImpl(), userCache, new UserAgeValidator(18));
+        Field maxPageSize = ReactiveUserServiceImpl.class.getDeclaredField("maxPageSize");
+        maxPageSize.setAccessible(true);
+        maxPageSize.setInt(userService, 1000);
+    }
+
+    @Test
+    @DisplayName("Get user missing from cache. Loads and caches user")
+    void getUser_CacheMiss_ShouldLoadAndCacheUser() {
+        Mockito.when(userCache.get(1L)).thenReturn(Optional.empty());
+        Mockito.when(userRepository.findById(1L))
+                .thenReturn(Mono.just(TestUtil.getRecordFromUser(USER1)));
+
+        StepVerifier.create(userService.getUser(1L))
+                .assertNext(actual -> Assertions.assertEquals(RESPONSE_DTO1, actual.getData()))
+                .verifyComplete();
+        Mockito.verify(userCache).put(RESPONSE_DTO1);
+    }
+
+    @Test
+    @DisplayName("Get user by wrong id. Emits exception")
+    void getUser_WrongUserId_ShouldEmitException() {
+        Mockito.when(userCache.get(2L)).thenReturn(Optional.empty());
+        Mockito.when(userRepository.findById(2L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(userService.getUser(2L))
+                .expectError(EntityNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Create underage user. Emits exception without saving")
+    void createUser_UnderageUser_ShouldEmitException() {
+        CreateUserRequestDto requestDto = new CreateUserRequestDto("user@gmail.com", "Bob",
+                "Jackson", TestUtil.FORMATTER.format(LocalDate.now().minusYears(10)), null, null);
+
+        StepVerifier.create(userService.createUser(requestDto))
+                .expectError(RegistrationException.class)
+                .verify();
+        Mockito.verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Patch user with a stale version. Emits exception without saving")
+    void patchUser_StaleVersion_ShouldEmitVersionConflictException() {
+        UserRecord user = TestUtil.getRecordFromUser(USER1);
+        user.setVersion(4L);
+        Mockito.when(userRepository.findById(1L)).thenReturn(Mono.just(user));
+
+        StepVerifier.create(userService.patchUser(
+                        1L, 3L, new UserPatchRequestDto(null, "Adam", null, null, null, null)))
+                .expectError(VersionConflictException.class)
+                .verify();
+        Mockito.verify(userRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Delete user by wrong id. Emits exception from the deleted row count")
+    void deleteUser_WrongUserId_ShouldEmitException() {
+        Mockito.when(userRepository.deleteUserById(2L)).thenReturn(Mono.just(0));
+
+        StepVerifier.create(userService.deleteUser(2L))
+                .expectError(EntityNotFoundException.class)
+                .verify();
+        Mockito.verifyNoInteractions(userCache);
+    }
+
+    @Test
+    @DisplayName("Search by birth dates. Streams users from repository")
+    void searchByBirthDates_ValidRange_ShouldStreamUsers() {
+        LocalDate from = LocalDate.of(1985, 1, 1);
+        LocalDate to = LocalDate.of(1995, 1, 1);
+        Mockito.when(userRepository.findByBirthDateBetween(from, to)).thenReturn(Flux.just(
+                TestUtil.getRecordFromUser(USER2), TestUtil.getRecordFromUser(USER1)));
+
+        StepVerifier.create(userService.searchByBirthDates("01/01/1985", "01/01/1995"))
+                .expectNext(RESPONSE_DTO2, RESPONSE_DTO1)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Search with dates in wrong order. Emits exception")
+    void searchByBirthDates_WrongDatesOrder_ShouldEmitException() {
+        StepVerifier.create(userService.searchByBirthDates("01/01/1995", "01/01/1985"))
+                .expectError(DatesOrderException.class)
+                .verify();
+        Mockito.verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Search page with more users than size. Returns page with next cursor")
+    void searchByBirthDates_MoreUsersThanSize_ShouldReturnNextCursor() {
+        LocalDate from = LocalDate.of(1985, 1, 1);
+        LocalDate to = LocalDate.of(1995, 1, 1);
+        Mockito.when(userRepository.findPageByBirthDateBetween(
+                        from, to, from, Long.MIN_VALUE, 2))
+                .thenReturn(Flux.just(
+                        TestUtil.getRecordFromUser(USER2), TestUtil.getRecordFromUser(USER1)));
+
+        StepVerifier.create(userService.searchByBirthDates(
+                        "01/01/1985", "01/01/1995", null, 1))
+                .assertNext(actual -> {
+                    Assertions.assertEquals(1, actual.getData().getUsers().size());
+                    Assertions.assertEquals(
+                            new SearchCursor(USER2.getBirthDate(), USER2.getId()).encode(),
+                            actual.getData().getNextCursor());
+                })
+                .verifyComplete();
+    }
+}
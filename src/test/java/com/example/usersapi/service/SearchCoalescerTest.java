@@ -0,0 +1,120 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.cache.UserDataVersion;
+import com.example.usersapi.event.UserChangedEvent;
+import com.example.usersapi.service.impl.SearchCoalescer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SearchCoalescerTest {
+    private static final String KEY = "search";
+    private final UserDataVersion userDataVersion = new UserDataVersion(false);
+    private final SearchCoalescer searchCoalescer = new SearchCoalescer(userDataVersion);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    void init() {
+        searchCoalescer.bindTo(registry);
+    }
+
+    @Test
+    @DisplayName("Search twice while the first search runs. Runs once and shares the result")
+    void coalesce_ConcurrentIdenticalSearches_ShouldRunOnce() throws Exception {
+        final CompletableFuture<List<Integer>> first = CompletableFuture.supplyAsync(this::search);
+        awaitRuns(1);
+        CompletableFuture<List<Integer>> second = CompletableFuture.supplyAsync(this::search);
+        awaitDeduplicated(1);
+        release.countDown();
+
+        Assertions.assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, runs.get());
+        Assertions.assertEquals(1, registry.get(SearchCoalescer.SEARCHES)
+                .tag("outcome", "executed")
+                .counter()
+                .count());
+    }
+
+    @Test
+    @DisplayName("Search after a write while a search runs. Runs a search of its own")
+    void coalesce_WriteDuringSearch_ShouldNotJoinRunningSearch() throws Exception {
+        final CompletableFuture<List<Integer>> before = CompletableFuture.supplyAsync(this::search);
+        awaitRuns(1);
+        userDataVersion.onUserChanged(UserChangedEvent.deleted(1L));
+        CompletableFuture<List<Integer>> after = CompletableFuture.supplyAsync(this::search);
+        awaitRuns(2);
+        release.countDown();
+
+        Assertions.assertNotSame(before.get(5, TimeUnit.SECONDS), after.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, registry.get(SearchCoalescer.SEARCHES)
+                .tag("outcome", "deduplicated")
+                .counter()
+                .count());
+    }
+
+    @Test
+    @DisplayName("Search fails. Callers that joined it get the same exception")
+    void coalesce_FailingSearch_ShouldThrowToEveryCaller() throws Exception {
+        final CompletableFuture<Object> first = CompletableFuture.supplyAsync(() ->
+                searchCoalescer.coalesce(KEY, () -> {
+                    runs.incrementAndGet();
+                    awaitRelease();
+                    throw new IllegalStateException("Database is down");
+                }));
+        awaitRuns(1);
+        CompletableFuture<List<Integer>> second = CompletableFuture.supplyAsync(this::search);
+        awaitDeduplicated(1);
+        release.countDown();
+
+        Exception failure = Assertions.assertThrows(Exception.class,
+                () -> second.get(5, TimeUnit.SECONDS));
+        Assertions.assertInstanceOf(IllegalStateException.class, failure.getCause());
+        Assertions.assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, runs.get());
+    }
+
+    private List<Integer> search() {
+        return searchCoalescer.coalesce(KEY, () -> {
+            runs.incrementAndGet();
+            awaitRelease();
+            return List.of(1, 2, 3);
+        });
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitRuns(int expected) throws InterruptedException {
+        for (int i = 0; i < 500 && runs.get() < expected; i++) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(expected, runs.get());
+    }
+
+    private void awaitDeduplicated(int expected) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            if (registry.get(SearchCoalescer.SEARCHES)
+                    .tag("outcome", "deduplicated")
+                    .counter()
+                    .count() >= expected) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("No search joined the running one");
+    }
+}
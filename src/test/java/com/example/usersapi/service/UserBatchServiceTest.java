@@ -0,0 +1,172 @@
+package com.example.usersapi.service;
+
+import static com.example.usersapi.util.TestUtil.REQUEST_DTO;
+import static com.example.usersapi.util.TestUtil.RESPONSE_DTO1;
+import static com.example.usersapi.util.TestUtil.USER1;
+
+import com.example.usersapi.cache.UserCache;
+import com.example.usersapi.dto.BatchItemResultDto;
+import com.example.usersapi.dto.CreateUserRequestDto;
+import com.example.usersapi.dto.UserBatchPatchRequestDto;
+import com.example.usersapi.dto.UserPatchRequestDto;
+import com.example.usersapi.event.UserChangedEvent;
+import com.example.usersapi.exception.BatchLimitException;
+import com.example.usersapi.mapper.UserMapper;
+import com.example.usersapi.model.User;
+import com.example.usersapi.repository.UserRepository;
+import com.example.usersapi.service.impl.UserBatchServiceImpl;
+import com.example.usersapi.service.impl.UserBatchWriter;
+import com.example.usersapi.util.TestUtil;
+import com.example.usersapi.validation.UserAgeValidator;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class UserBatchServiceTest {
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private UserMapper userMapper;
+    @Mock
+    private UserCache userCache;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private UserAgeValidator userAgeValidator = new UserAgeValidator(18);
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private UserBatchServiceImpl userBatchService;
+
+    @BeforeEach
+    void init() throws Exception {
+        UserBatchWriter userBatchWriter = new UserBatchWriter(
+                userRepository, userMapper, userCache, transactionTemplate, eventPublisher);
+        setField(userBatchWriter, "chunkSize", 2);
+        userBatchService = new UserBatchServiceImpl(
+                userMapper, userAgeValidator, validator, userBatchWriter);
+        setField(userBatchService, "maxSize", 3);
+        Mockito.lenient().when(transactionTemplate.execute(Mockito.any()))
+                .thenAnswer(invocation -> invocation.getArgument(0, TransactionCallback.class)
+                        .doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("Add a batch of users. Invalid items are rejected before writing")
+    void createUsers_BatchWithInvalidItems_ShouldSaveOnlyValidUsers() {
+        User user = TestUtil.getUserFromCreateUserDto(null, REQUEST_DTO);
+        CreateUserRequestDto tooYoung = new CreateUserRequestDto(
+                "young@gmail.com", "Tim", "Young", "01/02/2020", null, null);
+        CreateUserRequestDto noEmail = new CreateUserRequestDto(
+                null, "Tim", "Young", "01/02/1990", null, null);
+        User youngUser = TestUtil.getUserFromCreateUserDto(null, tooYoung);
+        Mockito.when(userMapper.toModel(REQUEST_DTO)).thenReturn(user);
+        Mockito.when(userMapper.toModel(tooYoung)).thenReturn(youngUser);
+        Mockito.when(userRepository.saveAll(List.of(user))).thenReturn(List.of(user));
+        Mockito.when(userMapper.toDto(user)).thenReturn(RESPONSE_DTO1);
+
+        List<BatchItemResultDto> actual = userBatchService
+                .createUsers(List.of(REQUEST_DTO, tooYoung, noEmail)).getData();
+
+        Assertions.assertTrue(actual.get(0).isSuccess());
+        Assertions.assertEquals(RESPONSE_DTO1, actual.get(0).getUser());
+        Assertions.assertFalse(actual.get(1).isSuccess());
+        Assertions.assertEquals(List.of("The user must be over 18 years old"),
+                actual.get(1).getErrors());
+        Assertions.assertFalse(actual.get(2).isSuccess());
+        Assertions.assertEquals(List.of("email must not be blank"), actual.get(2).getErrors());
+        Mockito.verify(userCache).put(RESPONSE_DTO1);
+    }
+
+    @Test
+    @DisplayName("Add a batch of users. Failed chunk is retried item by item")
+    void createUsers_ChunkFailsToCommit_ShouldRetryEveryItemAlone() {
+        User user = TestUtil.getUserFromCreateUserDto(null, REQUEST_DTO);
+        CreateUserRequestDto duplicate = new CreateUserRequestDto(
+                "dup@gmail.com", "Tim", "Dup", "01/02/1990", null, null);
+        User duplicateUser = TestUtil.getUserFromCreateUserDto(null, duplicate);
+        Mockito.when(userMapper.toModel(REQUEST_DTO)).thenReturn(user);
+        Mockito.when(userMapper.toModel(duplicate)).thenReturn(duplicateUser);
+        Mockito.when(userRepository.saveAll(List.of(user, duplicateUser)))
+                .thenThrow(new DataIntegrityViolationException("duplicate"));
+        Mockito.when(userRepository.saveAll(List.of(user))).thenReturn(List.of(user));
+        Mockito.when(userRepository.saveAll(List.of(duplicateUser)))
+                .thenThrow(new DataIntegrityViolationException("duplicate"));
+        Mockito.when(userMapper.toDto(user)).thenReturn(RESPONSE_DTO1);
+
+        List<BatchItemResultDto> actual = userBatchService
+                .createUsers(List.of(REQUEST_DTO, duplicate)).getData();
+
+        Assertions.assertTrue(actual.get(0).isSuccess());
+        Assertions.assertFalse(actual.get(1).isSuccess());
+        Assertions.assertEquals(List.of("duplicate"), actual.get(1).getErrors());
+    }
+
+    @Test
+    @DisplayName("Patch a batch of users. Unknown ids are reported as not found")
+    void patchUsers_UnknownId_ShouldReportNotFound() {
+        UserPatchRequestDto changes = new UserPatchRequestDto(
+                null, "Adam", null, null, null, null);
+        Mockito.when(userRepository.findAllById(Set.of(1L, 7L))).thenReturn(List.of(USER1));
+        Mockito.when(userMapper.toDto(USER1)).thenReturn(RESPONSE_DTO1);
+
+        List<BatchItemResultDto> actual = userBatchService.patchUsers(List.of(
+                new UserBatchPatchRequestDto(1L, changes),
+                new UserBatchPatchRequestDto(7L, changes)
+        )).getData();
+
+        Mockito.verify(userMapper).updateModel(changes, USER1);
+        Assertions.assertTrue(actual.get(0).isSuccess());
+        Assertions.assertFalse(actual.get(1).isSuccess());
+        Assertions.assertEquals(List.of("There is no user with id 7"),
+                actual.get(1).getErrors());
+        Mockito.verify(userCache).put(RESPONSE_DTO1);
+    }
+
+    @Test
+    @DisplayName("Delete a batch of users. Deletes existing users in one statement")
+    void deleteUsers_MixedIds_ShouldDeleteExistingUsers() {
+        Mockito.when(userRepository.findExistingIds(Set.of(1L, 2L))).thenReturn(List.of(1L));
+
+        List<BatchItemResultDto> actual = userBatchService
+                .deleteUsers(List.of(1L, 2L)).getData();
+
+        Mockito.verify(userRepository).deleteAllByIdInBatch(Set.of(1L));
+        Assertions.assertTrue(actual.get(0).isSuccess());
+        Assertions.assertFalse(actual.get(1).isSuccess());
+        Mockito.verify(userCache).evict(1L);
+        Mockito.verify(userCache, Mockito.never()).evict(2L);
+        Mockito.verify(eventPublisher).publishEvent(UserChangedEvent.deleted(1L));
+        Mockito.verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Batch larger than allowed. Throws exception")
+    void deleteUsers_TooManyItems_ShouldThrowException() {
+        Assertions.assertThrows(BatchLimitException.class,
+                () -> userBatchService.deleteUsers(List.of(1L, 2L, 3L, 4L)));
+    }
+
+    private void setField(Object target, String name, int value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.setInt(target, value);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.dto.UserDataFormat;
+import com.example.usersapi.exception.DatesOrderException;
+import com.example.usersapi.service.impl.UserExportServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+@ExtendWith(MockitoExtension.class)
+class UserExportServiceTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private ResultSet resultSet;
+    private UserExportServiceImpl userExportService;
+
+    @BeforeEach
+    void init() throws Exception {
+        userExportService = new UserExportServiceImpl(jdbcTemplate, new ObjectMapper());
+        Field fetchSize = UserExportServiceImpl.class.getDeclaredField("fetchSize");
+        fetchSize.setAccessible(true);
+        fetchSize.setInt(userExportService, 100);
+    }
+
+    @Test
+    @DisplayName("Export users as CSV. Writes header and one quoted-as-needed line per row")
+    void exportUsers_Csv_ShouldWriteHeaderAndRows() throws Exception {
+        mockRows();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        userExportService.exportUsers(null, null, UserDataFormat.CSV, () -> out);
+
+        Assertions.assertEquals("id,email,firstName,lastName,birthDate,address,phoneNumber\n"
+                        + "1,user@gmail.com,Bob,Jackson,01/02/1990,\"414 Union Ave, Brooklyn\",\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Export users as NDJSON. Writes one JSON object per line")
+    void exportUsers_Ndjson_ShouldWriteOneObjectPerLine() throws Exception {
+        mockRows();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        userExportService.exportUsers("01/01/1980", "01/01/2000", UserDataFormat.NDJSON,
+                () -> out);
+
+        Assertions.assertEquals("{\"id\":1,\"email\":\"user@gmail.com\",\"firstName\":\"Bob\","
+                        + "\"lastName\":\"Jackson\",\"birthDate\":\"01/02/1990\","
+                        + "\"address\":\"414 Union Ave, Brooklyn\",\"phoneNumber\":null}\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Export users with dates in wrong order. Throws exception before writing")
+    void exportUsers_WrongDatesOrder_ShouldThrowException() {
+        Assertions.assertThrows(DatesOrderException.class,
+                () -> userExportService.exportUsers("01/01/2000", "01/01/1980",
+                        UserDataFormat.CSV, () -> Assertions.fail("Response must not be opened")));
+        Mockito.verifyNoInteractions(jdbcTemplate);
+    }
+
+    private void mockRows() throws Exception {
+        Mockito.when(resultSet.getLong(1)).thenReturn(1L);
+        Mockito.when(resultSet.getString(2)).thenReturn("user@gmail.com");
+        Mockito.when(resultSet.getString(3)).thenReturn("Bob");
+        Mockito.when(resultSet.getString(4)).thenReturn("Jackson");
+        Mockito.when(resultSet.getObject(5, LocalDate.class))
+                .thenReturn(LocalDate.of(1990, 2, 1));
+        Mockito.when(resultSet.getString(6)).thenReturn("414 Union Ave, Brooklyn");
+        Mockito.when(resultSet.getString(7)).thenReturn(null);
+        Mockito.doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(Mockito.any(PreparedStatementCreator.class),
+                Mockito.any(RowCallbackHandler.class));
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.dto.ImportJobState;
+import com.example.usersapi.dto.ImportJobStatusDto;
+import com.example.usersapi.dto.ImportRejectionDto;
+import com.example.usersapi.dto.UserDataFormat;
+import com.example.usersapi.exception.EntityNotFoundException;
+import com.example.usersapi.exception.IngestionUnavailableException;
+import com.example.usersapi.mapper.impl.UserMapperImpl;
+import com.example.usersapi.model.User;
+import com.example.usersapi.service.impl.BatchItem;
+import com.example.usersapi.service.impl.UserBatchWriter;
+import com.example.usersapi.service.impl.UserImportServiceImpl;
+import com.example.usersapi.validation.UserAgeValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceTest {
+    @Mock
+    private UserBatchWriter userBatchWriter;
+    private final List<User> saved = new ArrayList<>();
+    private UserImportServiceImpl userImportService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void init() throws Exception {
+        userImportService = new UserImportServiceImpl(
+                new UserMapperImpl(),
+                new UserAgeValidator(18),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                userBatchWriter,
+                new ObjectMapper(),
+                new MockEnvironment());
+        setField("workers", 2);
+        setField("queueCapacity", 1);
+        setField("readBatchSize", 2);
+        setField("writeBatchSize", 2);
+        setField("maxRejections", 10);
+        setField("retainedJobs", 10);
+        setField("maxConcurrent", 1);
+        Mockito.lenient().when(userBatchWriter.insert(Mockito.anyList())).thenAnswer(invocation -> {
+            List<BatchItem<User>> items = invocation.getArgument(0);
+            synchronized (saved) {
+                items.forEach(item -> saved.add(item.value()));
+            }
+            return items.stream()
+                    .map(item -> UserBatchWriter.success(item.index(), null, null))
+                    .toList();
+        });
+    }
+
+    @AfterEach
+    void shutdown() {
+        userImportService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Import CSV. Valid rows are saved, invalid rows are rejected with their line")
+    void importUsers_CsvWithInvalidRows_ShouldSaveValidRowsAndRejectOthers() {
+        String csv = """
+                email,firstName,lastName,birthDate,address,phoneNumber
+                user@gmail.com,Bob,Jackson,01/02/1990,"414 Union Ave, Brooklyn",(111) 111-1111
+                not-an-email,Bob,Jackson,01/02/1990,,
+                young@gmail.com,Tim,Young,01/02/2020,,
+
+                jane@gmail.com,Jane,Smith,15/05/1985,,
+                """;
+
+        ImportJobStatusDto actual = userImportService
+                .importUsers(stream(csv), UserDataFormat.CSV, job -> { }).getData();
+
+        Assertions.assertEquals(ImportJobState.COMPLETED, actual.getState());
+        Assertions.assertEquals(4, actual.getRowsRead());
+        Assertions.assertEquals(2, actual.getRowsImported());
+        Assertions.assertEquals(2, actual.getRowsRejected());
+        Map<Long, List<String>> rejections = actual.getRejections().stream()
+                .collect(Collectors.toMap(ImportRejectionDto::line, ImportRejectionDto::errors));
+        Assertions.assertEquals(List.of("email must be a well-formed email address"),
+                rejections.get(3L));
+        Assertions.assertEquals(List.of("The user must be over 18 years old"),
+                rejections.get(4L));
+        Assertions.assertTrue(saved.stream()
+                .anyMatch(user -> "414 Union Ave, Brooklyn".equals(user.getAddress())));
+    }
+
+    @Test
+    @DisplayName("Import CSV with a line break in a quoted field. Reads the field whole")
+    void importUsers_CsvWithMultiLineField_ShouldJoinLines() {
+        String csv = "email,firstName,lastName,birthDate,address,phoneNumber\n"
+                + "user@gmail.com,Bob,Jackson,01/02/1990,\"414 Union Ave\n"
+                + "Brooklyn, \"\"NY\"\"\",(111) 111-1111\n"
+                + "young@gmail.com,Tim,Young,01/02/2020,,\n"
+                + "jane@gmail.com,Jane,Smith,15/05/1985,\"Main St\n";
+
+        ImportJobStatusDto actual = userImportService
+                .importUsers(stream(csv), UserDataFormat.CSV, job -> { }).getData();
+
+        Assertions.assertEquals(3, actual.getRowsRead());
+        Assertions.assertEquals(1, actual.getRowsImported());
+        Map<Long, List<String>> rejections = actual.getRejections().stream()
+                .collect(Collectors.toMap(ImportRejectionDto::line, ImportRejectionDto::errors));
+        Assertions.assertEquals(List.of("The user must be over 18 years old"),
+                rejections.get(4L));
+        Assertions.assertEquals(List.of("Unterminated quoted field"), rejections.get(5L));
+        Assertions.assertEquals("414 Union Ave\nBrooklyn, \"NY\"", saved.get(0).getAddress());
+    }
+
+    @Test
+    @DisplayName("Import NDJSON. Malformed and failed rows are rejected")
+    void importUsers_NdjsonWithMalformedRow_ShouldRejectRow() {
+        Mockito.when(userBatchWriter.insert(Mockito.anyList())).thenAnswer(invocation -> {
+            List<BatchItem<User>> items = invocation.getArgument(0);
+            return items.stream()
+                    .map(item -> "dup@gmail.com".equals(item.value().getEmail())
+                            ? UserBatchWriter.failure(item.index(), null, List.of("duplicate"))
+                            : UserBatchWriter.success(item.index(), null, null))
+                    .toList();
+        });
+        String ndjson = "{\"email\":\"user@gmail.com\",\"firstName\":\"Bob\","
+                + "\"lastName\":\"Jackson\",\"birthDate\":\"01/02/1990\"}\n"
+                + "{\"email\":\n"
+                + "{\"email\":\"dup@gmail.com\",\"firstName\":\"Tim\","
+                + "\"lastName\":\"Dup\",\"birthDate\":\"01/02/1990\"}\n";
+
+        ImportJobStatusDto actual = userImportService
+                .importUsers(stream(ndjson), UserDataFormat.NDJSON, job -> { }).getData();
+
+        Assertions.assertEquals(ImportJobState.COMPLETED, actual.getState());
+        Assertions.assertEquals(3, actual.getRowsRead());
+        Assertions.assertEquals(1, actual.getRowsImported());
+        Assertions.assertEquals(2, actual.getRowsRejected());
+        Assertions.assertEquals(actual, userImportService.getJob(actual.getJobId()).getData());
+    }
+
+    @Test
+    @DisplayName("Import CSV without required columns. Job fails")
+    void importUsers_CsvWithoutRequiredColumns_ShouldFailJob() {
+        ImportJobStatusDto actual = userImportService
+                .importUsers(stream("email,firstName\n"), UserDataFormat.CSV, job -> { })
+                .getData();
+
+        Assertions.assertEquals(ImportJobState.FAILED, actual.getState());
+        Assertions.assertEquals("CSV header is missing column lastName", actual.getFailure());
+    }
+
+    @Test
+    @DisplayName("Start an import. Announces the running job and refuses a second import")
+    void importUsers_ImportRunning_ShouldAnnounceJobAndRefuseSecondImport() {
+        List<ImportJobStatusDto> announced = new ArrayList<>();
+        String csv = "email,firstName,lastName,birthDate\nuser@gmail.com,Bob,Jackson,01/02/1990\n";
+
+        ImportJobStatusDto actual = userImportService.importUsers(stream(csv), UserDataFormat.CSV,
+                job -> {
+                    announced.add(job);
+                    Assertions.assertEquals(ImportJobState.RUNNING, userImportService
+                            .getJob(job.getJobId()).getData().getState());
+                    Assertions.assertThrows(IngestionUnavailableException.class,
+                            () -> userImportService.importUsers(stream(csv),
+                                    UserDataFormat.CSV, other -> { }));
+                }).getData();
+
+        Assertions.assertEquals(1, announced.size());
+        Assertions.assertEquals(actual.getJobId(), announced.get(0).getJobId());
+        Assertions.assertEquals(ImportJobState.RUNNING, announced.get(0).getState());
+        Assertions.assertEquals(ImportJobState.COMPLETED, actual.getState());
+        Assertions.assertEquals(1, actual.getRowsImported());
+    }
+
+    @Test
+    @DisplayName("Get unknown import job. Throws exception")
+    void getJob_UnknownJobId_ShouldThrowException() {
+        Assertions.assertThrows(EntityNotFoundException.class,
+                () -> userImportService.getJob("unknown"));
+    }
+
+    private ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void setField(String name, int value) throws Exception {
+        Field field = userImportService.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.setInt(userImportService, value);
+    }
+}
@@ -7,25 +7,47 @@ import static com.example.usersapi.util.TestUtil.RESPONSE_DTO3;
 import static com.example.usersapi.util.TestUtil.RESPONSE_DTO4;
 import static com.example.usersapi.util.TestUtil.RESPONSE_DTO5;
 import static com.example.usersapi.util.TestUtil.USER1;
-import static com.example.usersapi.util.TestUtil.USER2;
 import static com.example.usersapi.util.TestUtil.USER3;
-import static com.example.usersapi.util.TestUtil.USER4;
-import static com.example.usersapi.util.TestUtil.USER5;
+import static com.example.usersapi.util.TestUtil.VIEW1;
+import static com.example.usersapi.util.TestUtil.VIEW2;
+import static com.example.usersapi.util.TestUtil.VIEW3;
+import static com.example.usersapi.util.TestUtil.VIEW4;
+import static com.example.usersapi.util.TestUtil.VIEW5;
 
+import com.example.usersapi.cache.UserCache;
+import com.example.usersapi.cache.UserDataVersion;
 import com.example.usersapi.dto.CreateUserRequestDto;
+import com.example.usersapi.dto.CriteriaCursor;
+import com.example.usersapi.dto.SearchCursor;
+import com.example.usersapi.dto.UserPageDto;
 import com.example.usersapi.dto.UserPatchRequestDto;
 import com.example.usersapi.dto.UserResponseDto;
+import com.example.usersapi.dto.UserSearchRequestDto;
+import com.example.usersapi.event.UserChangedEvent;
+import com.example.usersapi.exception.DuplicateEmailException;
 import com.example.usersapi.exception.EntityNotFoundException;
+import com.example.usersapi.exception.InvalidCursorException;
+import com.example.usersapi.exception.InvalidSearchException;
 import com.example.usersapi.exception.RegistrationException;
+import com.example.usersapi.exception.VersionConflictException;
 import com.example.usersapi.mapper.UserMapper;
 import com.example.usersapi.model.User;
+import com.example.usersapi.model.UserSearchCriteria;
+import com.example.usersapi.model.UserSortField;
 import com.example.usersapi.repository.UserRepository;
+import com.example.usersapi.routing.ReplicaRouting;
+import com.example.usersapi.search.UserTextIndex;
+import com.example.usersapi.service.impl.SearchCoalescer;
 import com.example.usersapi.service.impl.UserServiceImpl;
+import com.example.usersapi.util.BirthDates;
 import com.example.usersapi.util.TestUtil;
+import com.example.usersapi.validation.UserAgeValidator;
 import java.lang.reflect.Field;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -34,7 +56,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
 @ExtendWith(MockitoExtension.class)
 class UserServiceTest {
@@ -42,14 +68,25 @@ class UserServiceTest {
     private UserRepository userRepository;
     @Mock
     private UserMapper userMapper;
+    @Mock
+    private UserCache userCache;
+    @Mock
+    private UserTextIndex userTextIndex;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private UserAgeValidator userAgeValidator = new UserAgeValidator(18);
+    @Spy
+    private SearchCoalescer searchCoalescer = new SearchCoalescer(new UserDataVersion(false));
     @InjectMocks
     private UserServiceImpl userService;
 
     @BeforeEach
     void init() throws Exception {
-        Field field = userService.getClass().getDeclaredField("minAge");
-        field.setAccessible(true);
-        field.setInt(userService, 18);
+        Field pageSize = userService.getClass().getDeclaredField("maxPageSize");
+        pageSize.setAccessible(true);
+        pageSize.setInt(userService, 1000);
     }
 
     @Test
@@ -62,9 +99,122 @@ class UserServiceTest {
         UserResponseDto actual = userService.createUser(TestUtil.REQUEST_DTO).getData();
 
         Assertions.assertEquals(RESPONSE_DTO1.getId(), actual.getId());
+        Mockito.verify(eventPublisher).publishEvent(UserChangedEvent.created(RESPONSE_DTO1));
         Assertions.assertEquals(RESPONSE_DTO1.getBirthDate(), actual.getBirthDate());
         Assertions.assertEquals(RESPONSE_DTO1.getFirstName(), actual.getFirstName());
         Assertions.assertEquals(RESPONSE_DTO1.getAddress(), actual.getAddress());
+        Mockito.verify(userCache).put(RESPONSE_DTO1);
+    }
+
+    @Test
+    @DisplayName("Add a user with a registered email. The failed insert is the only check")
+    void createUser_DuplicateEmail_ShouldThrowException() {
+        Mockito.when(userMapper.toModel(TestUtil.REQUEST_DTO)).thenReturn(USER1);
+        Mockito.when(userRepository.save(USER1)).thenThrow(new DataIntegrityViolationException(
+                "Unique index or primary key violation: \"PUBLIC.UK_USERS_EMAIL_NORMALIZED\""));
+
+        Assertions.assertThrows(DuplicateEmailException.class,
+                () -> userService.createUser(TestUtil.REQUEST_DTO));
+        Mockito.verify(userRepository, Mockito.never()).findByNormalizedEmail(Mockito.any());
+        Mockito.verifyNoInteractions(userCache);
+    }
+
+    @Test
+    @DisplayName("Add a user violating another constraint. Rethrows the original exception")
+    void createUser_OtherConstraintViolation_ShouldRethrow() {
+        Mockito.when(userMapper.toModel(TestUtil.REQUEST_DTO)).thenReturn(USER1);
+        Mockito.when(userRepository.save(USER1))
+                .thenThrow(new DataIntegrityViolationException("NULL not allowed"));
+
+        Assertions.assertThrows(DataIntegrityViolationException.class,
+                () -> userService.createUser(TestUtil.REQUEST_DTO));
+    }
+
+    @Test
+    @DisplayName("Get user by email. Caches the user by id")
+    void getUserByEmail_ExistingUser_ShouldReturnAndCacheUser() {
+        Mockito.when(userRepository.findByNormalizedEmail("USER@gmail.com"))
+                .thenReturn(Optional.of(USER1));
+        Mockito.when(userMapper.toDto(USER1)).thenReturn(RESPONSE_DTO1);
+
+        Assertions.assertEquals(RESPONSE_DTO1,
+                userService.getUserByEmail("USER@gmail.com").getData());
+        Mockito.verify(userCache).put(RESPONSE_DTO1);
+    }
+
+    @Test
+    @DisplayName("Get user by email. Reads from the primary, since the user is cached")
+    void getUserByEmail_ExistingUser_ShouldReadFromPrimary() {
+        Mockito.when(userRepository.findByNormalizedEmail("USER@gmail.com"))
+                .thenAnswer(invocation -> {
+                    Assertions.assertTrue(ReplicaRouting.isPrimaryRequired());
+                    return Optional.of(USER1);
+                });
+        Mockito.when(userMapper.toDto(USER1)).thenReturn(RESPONSE_DTO1);
+
+        userService.getUserByEmail("USER@gmail.com");
+        Assertions.assertFalse(ReplicaRouting.isPrimaryRequired());
+    }
+
+    @Test
+    @DisplayName("Get user by unknown email. Throws exception")
+    void getUserByEmail_UnknownEmail_ShouldThrowException() {
+        Mockito.when(userRepository.findByNormalizedEmail("nobody@gmail.com"))
+                .thenReturn(Optional.empty());
+
+        Assertions.assertThrows(EntityNotFoundException.class,
+                () -> userService.getUserByEmail("nobody@gmail.com"));
+    }
+
+    @Test
+    @DisplayName("Get user present in cache. Does not touch db")
+    void getUser_CachedUser_ShouldReturnUserFromCache() {
+        Mockito.when(userCache.get(1L)).thenReturn(Optional.of(RESPONSE_DTO1));
+
+        UserResponseDto actual = userService.getUser(1L).getData();
+        Assertions.assertEquals(RESPONSE_DTO1, actual);
+        Mockito.verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Get user missing in cache. Loads user from db and caches it")
+    void getUser_NotCachedUser_ShouldLoadAndCacheUser() {
+        Mockito.when(userCache.get(1L)).thenReturn(Optional.empty());
+        Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(USER1));
+        Mockito.when(userMapper.toDto(USER1)).thenReturn(RESPONSE_DTO1);
+
+        UserResponseDto actual = userService.getUser(1L).getData();
+        Assertions.assertEquals(RESPONSE_DTO1, actual);
+        Mockito.verify(userCache).put(RESPONSE_DTO1);
+    }
+
+    @Test
+    @DisplayName("Get user by wrong id. Throws exception")
+    void getUser_WrongUserId_ShouldThrowException() {
+        Mockito.when(userCache.get(2L)).thenReturn(Optional.empty());
+        Mockito.when(userRepository.findById(2L)).thenReturn(Optional.empty());
+        Assertions.assertThrows(EntityNotFoundException.class, () -> userService.getUser(2L));
+    }
+
+    @Test
+    @DisplayName("Delete user. Evicts user from cache")
+    void deleteUser_ExistingUser_ShouldEvictUserFromCache() {
+        Mockito.when(userRepository.deleteUserById(1L)).thenReturn(1);
+
+        userService.deleteUser(1L);
+        Mockito.verify(userCache).evict(1L);
+        Mockito.verify(eventPublisher).publishEvent(UserChangedEvent.deleted(1L));
+        Mockito.verify(userRepository, Mockito.never()).existsById(Mockito.anyLong());
+    }
+
+    @Test
+    @DisplayName("Delete user by wrong id. Throws exception from the deleted row count")
+    void deleteUser_WrongUserId_ShouldThrowException() {
+        Mockito.when(userRepository.deleteUserById(2L)).thenReturn(0);
+
+        Assertions.assertThrows(EntityNotFoundException.class, () -> userService.deleteUser(2L));
+        Mockito.verify(userRepository, Mockito.never()).existsById(Mockito.anyLong());
+        Mockito.verifyNoInteractions(userCache);
     }
 
     @Test
@@ -87,7 +237,7 @@ class UserServiceTest {
     }
 
     @Test
-    @DisplayName("Update some user fields")
+    @DisplayName("Update some user fields in one statement, without loading the user")
     void patchUser_ValidRequest_ShouldUpdateUserField() {
         String newLastName = "Moore";
         Long userId = 1L;
@@ -99,18 +249,22 @@ class UserServiceTest {
         updatedUser.setAddress(USER1.getAddress());
         updatedUser.setPhoneNumber(USER1.getPhoneNumber());
         updatedUser.setBirthDate(USER1.getBirthDate());
+        updatedUser.setVersion(1L);
 
         UserResponseDto updatedResponseDto = TestUtil.getResponseDtoFromUser(updatedUser);
 
-        Mockito.when(userRepository.findById(userId)).thenReturn(Optional.of(USER1));
-        Mockito.when(userRepository.save(USER1)).thenReturn(USER1);
+        Mockito.when(userRepository.updateNonNullFields(
+                        Mockito.eq(userId), Mockito.isNull(), Mockito.any(User.class)))
+                .thenReturn(Optional.of(updatedUser));
         Mockito.when(userMapper.toDto(updatedUser)).thenReturn(updatedResponseDto);
 
         UserPatchRequestDto userPatchRequestDto = new UserPatchRequestDto(
                 null, null, newLastName, null, null, null
         );
-        UserResponseDto actual = userService.patchUser(userId, userPatchRequestDto).getData();
+        UserResponseDto actual =
+                userService.patchUser(userId, null, userPatchRequestDto).getData();
         Assertions.assertEquals(newLastName, actual.getLastName());
+        Mockito.verify(userCache).put(updatedResponseDto);
 
         String newEmail = "usersNewEmal@gmail.com";
         updatedUser.setEmail(newEmail);
@@ -118,19 +272,52 @@ class UserServiceTest {
         UserPatchRequestDto userPatchRequestDto1 = new UserPatchRequestDto(
                 newEmail, null, null, null, null, null
         );
-        actual = userService.patchUser(userId, userPatchRequestDto1).getData();
+        actual = userService.patchUser(userId, null, userPatchRequestDto1).getData();
         Assertions.assertEquals(newEmail, actual.getEmail());
+        Mockito.verify(userRepository, Mockito.never()).findById(Mockito.anyLong());
+        Mockito.verify(userRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Patch user without fields. Publishes no change")
+    void patchUser_NoFields_ShouldNotPublishChange() {
+        Mockito.when(userRepository.updateNonNullFields(
+                        Mockito.eq(1L), Mockito.isNull(), Mockito.any(User.class)))
+                .thenReturn(Optional.of(USER1));
+        Mockito.when(userMapper.toDto(USER1)).thenReturn(RESPONSE_DTO1);
+
+        UserResponseDto actual = userService.patchUser(
+                1L, null, new UserPatchRequestDto(null, null, null, null, null, null)).getData();
+        Assertions.assertEquals(RESPONSE_DTO1, actual);
+        Mockito.verifyNoInteractions(eventPublisher);
     }
 
     @Test
     @DisplayName("Update all user's info. Throws exception")
     void patchUser_WrongUserId_ShouldThrowException() {
-        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
+        Mockito.when(userRepository.updateNonNullFields(
+                        Mockito.anyLong(), Mockito.isNull(), Mockito.any(User.class)))
+                .thenReturn(Optional.empty());
         Assertions.assertThrows(EntityNotFoundException.class,
                 () -> userService.patchUser(
-                        2L, new UserPatchRequestDto(null, null, null, null, null, null)
+                        2L, null, new UserPatchRequestDto(null, null, null, null, null, null)
                 )
         );
+        Mockito.verify(userRepository, Mockito.never()).existsById(Mockito.anyLong());
+    }
+
+    @Test
+    @DisplayName("Patch user with a stale version. Throws exception without caching")
+    void patchUser_StaleVersion_ShouldThrowVersionConflictException() {
+        Mockito.when(userRepository.updateNonNullFields(
+                        Mockito.eq(1L), Mockito.eq(3L), Mockito.any(User.class)))
+                .thenReturn(Optional.empty());
+        Mockito.when(userRepository.existsById(1L)).thenReturn(true);
+
+        Assertions.assertThrows(VersionConflictException.class,
+                () -> userService.patchUser(
+                        1L, 3L, new UserPatchRequestDto(null, "Adam", null, null, null, null)));
+        Mockito.verifyNoInteractions(userCache);
     }
 
     @Test
@@ -148,33 +335,34 @@ class UserServiceTest {
         User updatedUser = TestUtil.getUserFromCreateUserDto(userId, requestDto);
         UserResponseDto updatedResponseDto = TestUtil.getResponseDtoFromUser(updatedUser);
 
-        Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
         Mockito.when(userMapper.toModel(requestDto)).thenReturn(updatedUser);
         Mockito.when(userMapper.toDto(updatedUser)).thenReturn(updatedResponseDto);
-        Mockito.when(userRepository.save(updatedUser)).thenReturn(updatedUser);
+        Mockito.when(userRepository.replace(userId, 2L, updatedUser))
+                .thenReturn(Optional.of(updatedUser));
 
-        UserResponseDto actual = userService.updateUser(userId, requestDto).getData();
+        UserResponseDto actual = userService.updateUser(userId, 2L, requestDto).getData();
         Assertions.assertEquals(requestDto.email(), actual.getEmail());
         Assertions.assertEquals(requestDto.firstName(), actual.getFirstName());
         Assertions.assertEquals(requestDto.lastName(), actual.getLastName());
         Assertions.assertEquals(requestDto.address(), actual.getAddress());
         Assertions.assertEquals(requestDto.phoneNumber(), actual.getPhoneNumber());
         Assertions.assertEquals(requestDto.birthDate(), actual.getBirthDate());
+        Mockito.verify(userRepository, Mockito.never()).existsById(Mockito.anyLong());
     }
 
     @Test
     @DisplayName("Search for users in birth dates range from 02/03/1986 to 10/03/1995")
     void searchByBirthDates_DatesRangeFrom1986To1995_ShouldReturnListOfUsersInDatesRange() {
-        Mockito.when(userMapper.toDto(USER1)).thenReturn(RESPONSE_DTO1);
-        Mockito.when(userMapper.toDto(USER3)).thenReturn(RESPONSE_DTO3);
-        Mockito.when(userMapper.toDto(USER4)).thenReturn(RESPONSE_DTO4);
+        Mockito.when(userMapper.toDto(VIEW1)).thenReturn(RESPONSE_DTO1);
+        Mockito.when(userMapper.toDto(VIEW3)).thenReturn(RESPONSE_DTO3);
+        Mockito.when(userMapper.toDto(VIEW4)).thenReturn(RESPONSE_DTO4);
 
         String from = "02/03/1986";
         String to = "10/03/1995";
         Mockito.when(userRepository.findByBirthDateBetween(
                 LocalDate.parse(from, FORMATTER),
                 LocalDate.parse(to, FORMATTER))
-        ).thenReturn(List.of(USER1, USER3, USER4));
+        ).thenReturn(List.of(VIEW1, VIEW3, VIEW4));
         List<UserResponseDto> expected =
                 List.of(RESPONSE_DTO1, RESPONSE_DTO3, RESPONSE_DTO4);
         List<UserResponseDto> actual = userService.searchByBirthDates(from, to).getData();
@@ -185,18 +373,18 @@ class UserServiceTest {
     @Test
     @DisplayName("Search for users in birth dates range from 15/04/1985 to 10/03/2000")
     void searchByBirthDates_DatesRangeFrom1985To2000_ShouldReturnListOfUsersInDatesRange() {
-        Mockito.when(userMapper.toDto(USER1)).thenReturn(RESPONSE_DTO1);
-        Mockito.when(userMapper.toDto(USER2)).thenReturn(RESPONSE_DTO2);
-        Mockito.when(userMapper.toDto(USER3)).thenReturn(RESPONSE_DTO3);
-        Mockito.when(userMapper.toDto(USER4)).thenReturn(RESPONSE_DTO4);
-        Mockito.when(userMapper.toDto(USER5)).thenReturn(RESPONSE_DTO5);
+        Mockito.when(userMapper.toDto(VIEW1)).thenReturn(RESPONSE_DTO1);
+        Mockito.when(userMapper.toDto(VIEW2)).thenReturn(RESPONSE_DTO2);
+        Mockito.when(userMapper.toDto(VIEW3)).thenReturn(RESPONSE_DTO3);
+        Mockito.when(userMapper.toDto(VIEW4)).thenReturn(RESPONSE_DTO4);
+        Mockito.when(userMapper.toDto(VIEW5)).thenReturn(RESPONSE_DTO5);
 
         String from = "15/04/1985";
         String to = "10/03/2000";
         Mockito.when(userRepository.findByBirthDateBetween(
                 LocalDate.parse(from, FORMATTER),
                 LocalDate.parse(to, FORMATTER))
-        ).thenReturn(List.of(USER1, USER2, USER3, USER4, USER5));
+        ).thenReturn(List.of(VIEW1, VIEW2, VIEW3, VIEW4, VIEW5));
         List<UserResponseDto> expected = List.of(
                 RESPONSE_DTO1,
                 RESPONSE_DTO2,
@@ -212,17 +400,205 @@ class UserServiceTest {
     @Test
     @DisplayName("Search for users in birth dates range from 15/04/1990 to 10/03/2003")
     void searchByBirthDates_DatesRangeFrom1990To2003_ShouldReturnListOfUsersInDatesRange() {
-        Mockito.when(userMapper.toDto(USER5)).thenReturn(RESPONSE_DTO5);
+        Mockito.when(userMapper.toDto(VIEW5)).thenReturn(RESPONSE_DTO5);
 
         String from = "15/04/1990";
         String to = "10/03/2003";
         Mockito.when(userRepository.findByBirthDateBetween(
                 LocalDate.parse(from, FORMATTER),
                 LocalDate.parse(to, FORMATTER))
-        ).thenReturn(List.of(USER5));
+        ).thenReturn(List.of(VIEW5));
         List<UserResponseDto> expected = List.of(RESPONSE_DTO5);
         List<UserResponseDto> actual = userService.searchByBirthDates(from, to).getData();
         Assertions.assertEquals(expected.size(), actual.size());
         Assertions.assertTrue(actual.containsAll(expected));
     }
+
+    @Test
+    @DisplayName("Search for a page of users. Returns cursor pointing at the last user")
+    void searchByBirthDates_MoreUsersThanPageSize_ShouldReturnPageWithNextCursor() {
+        Mockito.when(userMapper.toDto(VIEW2)).thenReturn(RESPONSE_DTO2);
+        Mockito.when(userMapper.toDto(VIEW3)).thenReturn(RESPONSE_DTO3);
+
+        String from = "15/04/1985";
+        String to = "10/03/2000";
+        LocalDate fromDate = LocalDate.parse(from, FORMATTER);
+        Mockito.when(userRepository.findPageByBirthDateBetween(
+                fromDate,
+                LocalDate.parse(to, FORMATTER),
+                fromDate,
+                Long.MIN_VALUE,
+                Limit.of(3))
+        ).thenReturn(List.of(VIEW2, VIEW3, VIEW1));
+
+        UserPageDto actual = userService.searchByBirthDates(from, to, null, 2).getData();
+        Assertions.assertEquals(List.of(RESPONSE_DTO2, RESPONSE_DTO3), actual.getUsers());
+        Assertions.assertEquals(new SearchCursor(USER3.getBirthDate(), USER3.getId()),
+                SearchCursor.decode(actual.getNextCursor()));
+    }
+
+    @Test
+    @DisplayName("Search for the last page of users. Returns no cursor")
+    void searchByBirthDates_CursorOnLastPage_ShouldReturnPageWithoutCursor() {
+        Mockito.when(userMapper.toDto(VIEW5)).thenReturn(RESPONSE_DTO5);
+
+        String from = "15/04/1985";
+        String to = "10/03/2000";
+        SearchCursor cursor = new SearchCursor(USER1.getBirthDate(), USER1.getId());
+        Mockito.when(userRepository.findPageByBirthDateBetween(
+                LocalDate.parse(from, FORMATTER),
+                LocalDate.parse(to, FORMATTER),
+                USER1.getBirthDate(),
+                USER1.getId(),
+                Limit.of(3))
+        ).thenReturn(List.of(VIEW5));
+
+        UserPageDto actual = userService.searchByBirthDates(from, to, cursor.encode(), 2)
+                .getData();
+        Assertions.assertEquals(List.of(RESPONSE_DTO5), actual.getUsers());
+        Assertions.assertNull(actual.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Search by age range. Pages through one birth-date range")
+    void searchByAge_AgeRange_ShouldSearchBirthDateRange() {
+        Mockito.when(userMapper.toDto(VIEW1)).thenReturn(RESPONSE_DTO1);
+        LocalDate today = LocalDate.now();
+        LocalDate from = today.minusYears(41).plusDays(1);
+        Mockito.when(userRepository.findPageByBirthDateBetween(
+                from, today.minusYears(30), from, Long.MIN_VALUE, Limit.of(21))
+        ).thenReturn(List.of(VIEW1));
+
+        UserPageDto actual = userService.searchByAge(30, 40, null, 20).getData();
+        Assertions.assertEquals(List.of(RESPONSE_DTO1), actual.getUsers());
+        Assertions.assertNull(actual.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Search birthdays across the new year. Reads one wrapping birthday window")
+    void searchUpcomingBirthdays_WindowAcrossNewYear_ShouldSearchBirthdayWindow() {
+        Mockito.when(userMapper.toDto(VIEW2)).thenReturn(RESPONSE_DTO2);
+        Mockito.when(userMapper.toDto(VIEW1)).thenReturn(RESPONSE_DTO1);
+        Mockito.when(userRepository.findByBirthdayBetween(1220, 118, 1220, Long.MIN_VALUE, 2))
+                .thenReturn(List.of(VIEW2, VIEW1));
+        Mockito.when(userRepository.findByBirthdayBetween(1220, 118,
+                        BirthDates.monthDay(VIEW2.birthDate()), VIEW2.id(), 2))
+                .thenReturn(List.of(VIEW1));
+
+        UserPageDto first = userService
+                .searchUpcomingBirthdays("20/12/2023", 30, null, null, 1).getData();
+        Assertions.assertEquals(List.of(RESPONSE_DTO2), first.getUsers());
+        Assertions.assertNotNull(first.getNextCursor());
+        UserPageDto second = userService
+                .searchUpcomingBirthdays("20/12/2023", 30, null, first.getNextCursor(), 1)
+                .getData();
+        Assertions.assertEquals(List.of(RESPONSE_DTO1), second.getUsers());
+        Assertions.assertNull(second.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Search users turning an age this month. Reads one birth-date range")
+    void searchUpcomingBirthdays_Age_ShouldSearchBirthDateRange() {
+        Mockito.when(userMapper.toDto(VIEW3)).thenReturn(RESPONSE_DTO3);
+        LocalDate from = LocalDate.of(1993, 10, 1);
+        Mockito.when(userRepository.findPageByBirthDateBetween(
+                from, LocalDate.of(1993, 10, 31), from, Long.MIN_VALUE, Limit.of(101))
+        ).thenReturn(List.of(VIEW3));
+
+        Assertions.assertEquals(List.of(RESPONSE_DTO3), userService
+                .searchUpcomingBirthdays("01/10/2023", 31, 30, null, 100).getData().getUsers());
+        Mockito.verify(userRepository, Mockito.never()).findByBirthdayBetween(Mockito.anyInt(),
+                Mockito.anyInt(), Mockito.anyInt(), Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("Search by inverted ages or a window longer than a year. Throws exception")
+    void searchByAge_InvalidRange_ShouldThrowException() {
+        Assertions.assertThrows(InvalidSearchException.class,
+                () -> userService.searchByAge(40, 30, null, 20));
+        Assertions.assertThrows(InvalidSearchException.class,
+                () -> userService.searchUpcomingBirthdays(null, 366, null, null, 100));
+        Mockito.verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Criteria search. Normalizes filters and sorts by the last-name index")
+    void searchByCriteria_MoreUsersThanPageSize_ShouldReturnPageWithNextCursor() {
+        Mockito.when(userMapper.toDto(VIEW1)).thenReturn(RESPONSE_DTO1);
+        UserSearchCriteria criteria = new UserSearchCriteria("jack", "gmail.com", "111",
+                "Union", null, null, UserSortField.LAST_NAME);
+        Mockito.when(userRepository.search(criteria, null, 2)).thenReturn(List.of(VIEW1, VIEW4));
+
+        UserPageDto actual = userService.searchByCriteria(new UserSearchRequestDto(
+                " Jack", "GMAIL.com", "(111", "Union ", null, null, null), null, 1).getData();
+        Assertions.assertEquals(List.of(RESPONSE_DTO1), actual.getUsers());
+        Assertions.assertEquals(CriteriaCursor.after(UserSortField.LAST_NAME, VIEW1),
+                CriteriaCursor.decode(actual.getNextCursor(), UserSortField.LAST_NAME));
+    }
+
+    @Test
+    @DisplayName("Criteria search with a cursor of another sort. Throws exception")
+    void searchByCriteria_CursorOfAnotherSort_ShouldThrowException() {
+        String cursor = CriteriaCursor.after(UserSortField.BIRTH_DATE, VIEW1).encode();
+        UserSearchRequestDto requestDto =
+                new UserSearchRequestDto(null, null, null, null, null, null, "email");
+
+        Assertions.assertThrows(InvalidCursorException.class,
+                () -> userService.searchByCriteria(requestDto, cursor, 10));
+        Mockito.verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Criteria search by unknown property or a phone without digits. Throws exception")
+    void searchByCriteria_InvalidFilters_ShouldThrowException() {
+        UserSearchRequestDto unknownSort =
+                new UserSearchRequestDto(null, null, null, null, null, null, "password");
+        UserSearchRequestDto noDigits =
+                new UserSearchRequestDto(null, null, "()-", null, null, null, null);
+
+        Assertions.assertThrows(InvalidSearchException.class,
+                () -> userService.searchByCriteria(unknownSort, null, 10));
+        Assertions.assertThrows(InvalidSearchException.class,
+                () -> userService.searchByCriteria(noDigits, null, 10));
+        Mockito.verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Full-text search. Keeps the index ranking and skips users deleted since")
+    void searchByText_IndexedIds_ShouldReturnUsersInRankOrder() {
+        Mockito.when(userTextIndex.search("jakson", 20)).thenReturn(List.of(3L, 2L, 1L));
+        Mockito.when(userRepository.findAllById(List.of(3L, 2L, 1L)))
+                .thenReturn(List.of(USER1, USER3));
+        Mockito.when(userMapper.toDto(USER1)).thenReturn(RESPONSE_DTO1);
+        Mockito.when(userMapper.toDto(USER3)).thenReturn(RESPONSE_DTO3);
+
+        Assertions.assertEquals(List.of(RESPONSE_DTO3, RESPONSE_DTO1),
+                userService.searchByText("jakson", 20).getData());
+    }
+
+    @Test
+    @DisplayName("Full-text search with a blank query. Throws exception")
+    void searchByText_BlankQuery_ShouldThrowException() {
+        Assertions.assertThrows(InvalidSearchException.class,
+                () -> userService.searchByText(" ", 20));
+        Mockito.verifyNoInteractions(userTextIndex);
+    }
+
+    @Test
+    @DisplayName("Stream users in birth dates range")
+    void streamByBirthDates_ValidRange_ShouldPassEveryUserToConsumer() {
+        Mockito.when(userMapper.toDto(VIEW1)).thenReturn(RESPONSE_DTO1);
+        Mockito.when(userMapper.toDto(VIEW5)).thenReturn(RESPONSE_DTO5);
+
+        String from = "15/04/1985";
+        String to = "10/03/2000";
+        Mockito.when(userRepository.streamByBirthDateBetween(
+                LocalDate.parse(from, FORMATTER),
+                LocalDate.parse(to, FORMATTER))
+        ).thenReturn(Stream.of(VIEW1, VIEW5));
+
+        List<UserResponseDto> actual = new ArrayList<>();
+        userService.streamByBirthDates(from, to, actual::add);
+        Assertions.assertEquals(List.of(RESPONSE_DTO1, RESPONSE_DTO5), actual);
+    }
 }
@@ -0,0 +1,238 @@
+package com.example.usersapi.service;
+
+import static com.example.usersapi.util.TestUtil.REQUEST_DTO;
+
+import com.example.usersapi.dto.CreateUserRequestDto;
+import com.example.usersapi.dto.PendingUserDto;
+import com.example.usersapi.dto.PendingUserState;
+import com.example.usersapi.exception.IngestionUnavailableException;
+import com.example.usersapi.exception.RegistrationException;
+import com.example.usersapi.mapper.impl.UserMapperImpl;
+import com.example.usersapi.model.User;
+import com.example.usersapi.repository.UserRepository;
+import com.example.usersapi.service.impl.BatchItem;
+import com.example.usersapi.service.impl.UserBatchWriter;
+import com.example.usersapi.service.impl.UserWriteBehindServiceImpl;
+import com.example.usersapi.service.impl.UserWriteJournal;
+import com.example.usersapi.validation.UserAgeValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class UserWriteBehindServiceTest {
+    @Mock
+    private UserBatchWriter userBatchWriter;
+    @Mock
+    private UserRepository userRepository;
+    private Path directory;
+    private final List<User> saved = new ArrayList<>();
+    private UserWriteBehindServiceImpl userWriteBehindService;
+
+    @BeforeEach
+    void init(@TempDir Path directory) {
+        this.directory = directory;
+        Mockito.lenient().when(userBatchWriter.insert(Mockito.anyList())).thenAnswer(invocation -> {
+            List<BatchItem<User>> items = invocation.getArgument(0);
+            List<Long> ids = new ArrayList<>();
+            synchronized (saved) {
+                for (BatchItem<User> item : items) {
+                    saved.add(item.value());
+                    ids.add((long) saved.size());
+                }
+            }
+            return items.stream()
+                    .map(item -> UserBatchWriter.success(item.index(), ids.get(item.index()), null))
+                    .toList();
+        });
+    }
+
+    @AfterEach
+    void shutdown() throws Exception {
+        if (userWriteBehindService != null) {
+            userWriteBehindService.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Queue users. The writer inserts them in one batch and reports the user ids")
+    void enqueueUser_FullBatch_ShouldInsertBatchAndReportCreated() throws Exception {
+        userWriteBehindService = service(true, 10, 2);
+        String first = userWriteBehindService.enqueueUser(REQUEST_DTO).getData().getTrackingId();
+        String second = userWriteBehindService.enqueueUser(request("second@gmail.com"))
+                .getData().getTrackingId();
+
+        PendingUserDto created = awaitWritten(second);
+        Assertions.assertEquals(PendingUserState.CREATED, created.getState());
+        Assertions.assertNotNull(created.getWrittenAt());
+        Assertions.assertEquals(PendingUserState.CREATED,
+                userWriteBehindService.getPendingUser(first).getData().getState());
+        Mockito.verify(userBatchWriter).insert(Mockito.argThat(items -> items.size() == 2));
+    }
+
+    @Test
+    @DisplayName("Queue more users than the queue holds. Rejects the excess at once")
+    void enqueueUser_QueueFull_ShouldThrowException() {
+        userWriteBehindService = service(true, 1, 10, Duration.ofHours(1));
+        userWriteBehindService.enqueueUser(REQUEST_DTO);
+
+        Assertions.assertThrows(IngestionUnavailableException.class,
+                () -> userWriteBehindService.enqueueUser(request("second@gmail.com")));
+    }
+
+    @Test
+    @DisplayName("Queue an invalid user or queue while disabled. Throws before journaling")
+    void enqueueUser_InvalidUserOrDisabled_ShouldThrowException() {
+        userWriteBehindService = service(true, 10, 10);
+        Assertions.assertThrows(RegistrationException.class, () -> userWriteBehindService
+                .enqueueUser(new CreateUserRequestDto("young@gmail.com", "Tim", "Young",
+                        "01/02/2020", null, null)));
+
+        UserWriteBehindServiceImpl disabled = service(false, 10, 10);
+        Assertions.assertThrows(IngestionUnavailableException.class,
+                () -> disabled.enqueueUser(REQUEST_DTO));
+    }
+
+    @Test
+    @DisplayName("Restart with uncommitted users in the journal. Replays them once")
+    void start_UncommittedJournal_ShouldReplayUncommittedUsers() throws Exception {
+        Path path = directory.resolve("write-behind.journal");
+        try (UserWriteJournal journal = new UserWriteJournal(path, false, new ObjectMapper())) {
+            UserWriteJournal.Entry committed = journal.append("1", 1L, REQUEST_DTO);
+            journal.append("2", 2L, request("replayed@gmail.com"));
+            journal.committed(List.of(committed.sequence()));
+        }
+
+        userWriteBehindService = service(true, 10, 10, Duration.ofMillis(10));
+        Assertions.assertEquals(PendingUserState.CREATED, awaitWritten("2").getState());
+        Assertions.assertEquals(List.of("replayed@gmail.com"), saved.stream()
+                .map(User::getEmail)
+                .toList());
+        userWriteBehindService.shutdown();
+        userWriteBehindService = null;
+
+        try (UserWriteJournal journal = new UserWriteJournal(path, false, new ObjectMapper())) {
+            Assertions.assertTrue(journal.uncommitted().isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Replay a user inserted before the crash. Reports it created, not duplicate")
+    void start_ReplayedUserAlreadyInserted_ShouldReportCreated() throws Exception {
+        Path path = directory.resolve("write-behind.journal");
+        try (UserWriteJournal journal = new UserWriteJournal(path, false, new ObjectMapper())) {
+            journal.append("1", 1L, REQUEST_DTO);
+            journal.append("2", 2L, request("other@gmail.com"));
+        }
+        User stored = new UserMapperImpl().toModel(REQUEST_DTO);
+        stored.setId(7L);
+        Mockito.when(userRepository.findByNormalizedEmail(REQUEST_DTO.email()))
+                .thenReturn(Optional.of(stored));
+        User other = new UserMapperImpl().toModel(request("other@gmail.com"));
+        other.setBirthDate(LocalDate.of(1950, 1, 1));
+        Mockito.when(userRepository.findByNormalizedEmail("other@gmail.com"))
+                .thenReturn(Optional.of(other));
+        Mockito.when(userBatchWriter.insert(Mockito.anyList())).thenAnswer(invocation -> {
+            List<BatchItem<User>> items = invocation.getArgument(0);
+            return items.stream()
+                    .map(item -> UserBatchWriter.failure(item.index(), null,
+                            List.of(UserBatchWriter.DUPLICATE_EMAIL)))
+                    .toList();
+        });
+
+        userWriteBehindService = service(true, 10, 10, Duration.ofMillis(10));
+        PendingUserDto replayed = awaitWritten("1");
+        Assertions.assertEquals(PendingUserState.CREATED, replayed.getState());
+        Assertions.assertEquals(7L, replayed.getUserId());
+        Assertions.assertEquals(PendingUserState.REJECTED, awaitWritten("2").getState());
+    }
+
+    @Test
+    @DisplayName("Queue users faster than they are written. The journal stays bounded")
+    void enqueueUser_QueueNeverDrained_ShouldCompactJournal() throws Exception {
+        Path path = directory.resolve("write-behind.journal");
+        AtomicInteger enqueued = new AtomicInteger();
+        AtomicLong maxLines = new AtomicLong();
+        Mockito.when(userBatchWriter.insert(Mockito.anyList())).thenAnswer(invocation -> {
+            try (Stream<String> lines = Files.lines(path)) {
+                maxLines.accumulateAndGet(lines.count(), Math::max);
+            }
+            List<BatchItem<User>> items = invocation.getArgument(0);
+            // Every batch queues as many users as it writes, so the queue never runs empty
+            for (int i = 0; i < items.size() && enqueued.get() < 5000; i++) {
+                userWriteBehindService.enqueueUser(
+                        request("user" + enqueued.incrementAndGet() + "@gmail.com"));
+            }
+            return items.stream()
+                    .map(item -> UserBatchWriter.success(item.index(), 1L, null))
+                    .toList();
+        });
+
+        userWriteBehindService = service(true, 100, 10, Duration.ofMillis(10));
+        for (int i = 0; i < 20; i++) {
+            userWriteBehindService.enqueueUser(
+                    request("user" + enqueued.incrementAndGet() + "@gmail.com"));
+        }
+        Mockito.verify(userBatchWriter, Mockito.timeout(30_000).atLeast(500))
+                .insert(Mockito.anyList());
+
+        Assertions.assertTrue(maxLines.get() < 2000, "Journal grew to " + maxLines + " lines");
+    }
+
+    private PendingUserDto awaitWritten(String trackingId) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            PendingUserDto pending = userWriteBehindService.getPendingUser(trackingId).getData();
+            if (pending.getState() != PendingUserState.QUEUED) {
+                return pending;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("User " + trackingId + " was not written");
+    }
+
+    private UserWriteBehindServiceImpl service(boolean enabled, int capacity, int batchSize) {
+        return service(enabled, capacity, batchSize, Duration.ofSeconds(10));
+    }
+
+    private UserWriteBehindServiceImpl service(
+            boolean enabled, int capacity, int batchSize, Duration flushInterval) {
+        UserWriteBehindServiceImpl service = new UserWriteBehindServiceImpl(
+                new UserMapperImpl(),
+                new UserAgeValidator(18),
+                userBatchWriter,
+                userRepository,
+                new ObjectMapper(),
+                enabled,
+                capacity,
+                batchSize,
+                flushInterval,
+                directory.resolve("write-behind.journal"),
+                false,
+                100);
+        service.start();
+        return service;
+    }
+
+    private static CreateUserRequestDto request(String email) {
+        return new CreateUserRequestDto(email, REQUEST_DTO.firstName(), REQUEST_DTO.lastName(),
+                REQUEST_DTO.birthDate(), REQUEST_DTO.address(), REQUEST_DTO.phoneNumber());
+    }
+}
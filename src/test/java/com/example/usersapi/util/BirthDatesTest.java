@@ -0,0 +1,48 @@
+package com.example.usersapi.util;
+
+import java.time.LocalDate;
+import java.time.Period;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BirthDatesTest {
+    private static final int AGE = 18;
+
+    @Test
+    @DisplayName("Age bounds on every day of several years. Match Period.between")
+    void ageBounds_EveryDay_ShouldMatchPeriod() {
+        for (LocalDate date = LocalDate.of(2019, 1, 1); date.getYear() < 2025;
+                date = date.plusDays(1)) {
+            LocalDate latest = BirthDates.latestForAge(AGE, date);
+            LocalDate earliest = BirthDates.earliestForAge(AGE, date);
+            Assertions.assertEquals(AGE, age(latest, date), date.toString());
+            Assertions.assertEquals(AGE - 1, age(latest.plusDays(1), date), date.toString());
+            Assertions.assertEquals(AGE, age(earliest, date), date.toString());
+            Assertions.assertEquals(AGE + 1, age(earliest.minusDays(1), date), date.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Users turning an age on or after a date. Excludes those who turned it before")
+    void earliestTurning_LeapDayBirth_ShouldTurnOnFirstOfMarch() {
+        LocalDate earliest = BirthDates.earliestTurning(AGE, LocalDate.of(2018, 3, 1));
+        Assertions.assertEquals(LocalDate.of(2000, 2, 29), earliest);
+        Assertions.assertEquals(AGE - 1, age(earliest, LocalDate.of(2018, 2, 28)));
+        Assertions.assertEquals(AGE, age(earliest, LocalDate.of(2018, 3, 1)));
+    }
+
+    @Test
+    @DisplayName("Encode birthdays. Sorts by date and starts 1 March windows at 29 February")
+    void monthDay_Dates_ShouldEncodeMonthAndDay() {
+        Assertions.assertEquals(101, BirthDates.monthDay(LocalDate.of(1990, 1, 1)));
+        Assertions.assertEquals(229, BirthDates.monthDay(LocalDate.of(2000, 2, 29)));
+        Assertions.assertEquals(1231, BirthDates.monthDay(LocalDate.of(1990, 12, 31)));
+        Assertions.assertEquals(229, BirthDates.firstMonthDay(LocalDate.of(2019, 3, 1)));
+        Assertions.assertEquals(301, BirthDates.firstMonthDay(LocalDate.of(2020, 3, 1)));
+    }
+
+    private int age(LocalDate birthDate, LocalDate date) {
+        return Period.between(birthDate, date).getYears();
+    }
+}
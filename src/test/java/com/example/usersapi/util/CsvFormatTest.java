@@ -0,0 +1,47 @@
+package com.example.usersapi.util;
+
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CsvFormatTest {
+    @Test
+    @DisplayName("Parse line with quoted fields containing separators and quotes")
+    void parseLine_QuotedFields_ShouldUnquoteFields() {
+        List<String> actual = CsvFormat.parseLine(
+                "user@gmail.com,Bob,,\"414 Union Ave, Brooklyn\",\"say \"\"hi\"\"\"");
+        Assertions.assertEquals(
+                List.of("user@gmail.com", "Bob", "", "414 Union Ave, Brooklyn", "say \"hi\""),
+                actual);
+    }
+
+    @Test
+    @DisplayName("Parse line with unterminated quote. Throws exception")
+    void parseLine_UnterminatedQuote_ShouldThrowException() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> CsvFormat.parseLine("user@gmail.com,\"Bob"));
+    }
+
+    @Test
+    @DisplayName("Check quotes of lines. Doubled quotes keep the balance")
+    void hasUnbalancedQuotes_OpenOrClosedField_ShouldCountQuotes() {
+        Assertions.assertTrue(CsvFormat.hasUnbalancedQuotes("user@gmail.com,\"414 Union"));
+        Assertions.assertTrue(CsvFormat.hasUnbalancedQuotes("Ave \"\"B\"\"\",Bob"));
+        Assertions.assertFalse(CsvFormat.hasUnbalancedQuotes("\"say \"\"hi\"\"\",Bob"));
+    }
+
+    @Test
+    @DisplayName("Append fields. Quotes only fields that need it")
+    void appendField_SpecialCharacters_ShouldQuoteField() {
+        StringBuilder line = new StringBuilder();
+        CsvFormat.appendField(line, "Bob");
+        line.append(',');
+        CsvFormat.appendField(line, null);
+        line.append(',');
+        CsvFormat.appendField(line, "414 Union Ave, \"Brooklyn\"");
+        Assertions.assertEquals("Bob,,\"414 Union Ave, \"\"Brooklyn\"\"\"", line.toString());
+        Assertions.assertEquals(List.of("Bob", "", "414 Union Ave, \"Brooklyn\""),
+                CsvFormat.parseLine(line.toString()));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.usersapi.util;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class DateCodecTest {
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    @Test
+    @DisplayName("Parse and format every day of several years. Matches DateTimeFormatter")
+    void parseAndFormat_EveryDay_ShouldMatchDateTimeFormatter() {
+        for (LocalDate date = LocalDate.of(1899, 1, 1); date.getYear() < 2030;
+                date = date.plusDays(1)) {
+            String expected = formatter.format(date);
+            StringBuilder builder = new StringBuilder();
+            DateCodec.appendTo(builder, date);
+            Assertions.assertEquals(expected, DateCodec.format(date));
+            Assertions.assertEquals(expected, builder.toString());
+            Assertions.assertEquals(date, DateCodec.parse(expected));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "1/02/1990", "01-02-1990", "01/02/90", "0a/02/1990",
+            "01/13/1990", "30/02/1990", "00/01/1990", "01/02/1990 "})
+    @DisplayName("Parse malformed or impossible date. Throws exception")
+    void parse_InvalidDate_ShouldThrowException(String text) {
+        Assertions.assertThrows(DateTimeParseException.class, () -> DateCodec.parse(text));
+    }
+}
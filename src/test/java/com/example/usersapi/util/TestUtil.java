@@ -3,6 +3,8 @@ package com.example.usersapi.util;
 import com.example.usersapi.dto.CreateUserRequestDto;
 import com.example.usersapi.dto.UserResponseDto;
 import com.example.usersapi.model.User;
+import com.example.usersapi.model.UserRecord;
+import com.example.usersapi.model.UserView;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
@@ -19,6 +21,11 @@ public class TestUtil {
     public static final UserResponseDto RESPONSE_DTO3;
     public static final UserResponseDto RESPONSE_DTO4;
     public static final UserResponseDto RESPONSE_DTO5;
+    public static final UserView VIEW1;
+    public static final UserView VIEW2;
+    public static final UserView VIEW3;
+    public static final UserView VIEW4;
+    public static final UserView VIEW5;
 
     static {
         REQUEST_DTO = new CreateUserRequestDto(
@@ -64,6 +71,12 @@ public class TestUtil {
         RESPONSE_DTO3 = getResponseDtoFromUser(USER3);
         RESPONSE_DTO4 = getResponseDtoFromUser(USER4);
         RESPONSE_DTO5 = getResponseDtoFromUser(USER5);
+
+        VIEW1 = getViewFromUser(USER1);
+        VIEW2 = getViewFromUser(USER2);
+        VIEW3 = getViewFromUser(USER3);
+        VIEW4 = getViewFromUser(USER4);
+        VIEW5 = getViewFromUser(USER5);
     }
 
     public static User getUserFromCreateUserDto(Long userId, CreateUserRequestDto requestDto) {
@@ -89,4 +102,28 @@ public class TestUtil {
         userResponseDto.setPhoneNumber(user.getPhoneNumber());
         return userResponseDto;
     }
+
+    public static UserView getViewFromUser(User user) {
+        return new UserView(
+                user.getId(),
+                user.getEmail(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getBirthDate(),
+                user.getAddress(),
+                user.getPhoneNumber()
+        );
+    }
+
+    public static UserRecord getRecordFromUser(User user) {
+        UserRecord record = new UserRecord();
+        record.setId(user.getId());
+        record.setEmail(user.getEmail());
+        record.setFirstName(user.getFirstName());
+        record.setLastName(user.getLastName());
+        record.setBirthDate(user.getBirthDate());
+        record.setAddress(user.getAddress());
+        record.setPhoneNumber(user.getPhoneNumber());
+        return record;
+    }
 }